@@ -0,0 +1,93 @@
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.3"
+    id("com.google.protobuf") version "0.9.6"
+}
+
+val protobufVersion = "4.33.5"
+
+repositories {
+    mavenCentral()
+    maven {
+        name = "papermc"
+        url = uri("https://repo.papermc.io/repository/maven-public/")
+    }
+}
+
+sourceSets {
+    named("jmh") {
+        proto {
+            srcDir("../../proto")
+        }
+    }
+}
+
+// Messages, the production NativeBridgeFfi and the layout classes come from
+// :patchbukkit. Only the baseline is generated here, under its own class name, so
+// both variants can be measured side by side. plain_abi keeps it on the original
+// path: an Arena per call and responses copied into a byte[] before parsing.
+protobuf {
+    protoc {
+        artifact = "com.google.protobuf:protoc:$protobufVersion"
+    }
+
+    plugins {
+        create("ffi") {
+            path = "${rootProject.projectDir}/protoc-gen-ffi/build/libs/protoc-gen-ffi.jar"
+        }
+    }
+
+    generateProtoTasks {
+        all().forEach { task ->
+            task.builtins {
+                removeIf { it.name == "java" }
+            }
+            task.plugins {
+                create("ffi") {
+                    option("class_suffix=Baseline")
+                    option("no_layouts")
+                    option("plain_abi")
+                }
+            }
+        }
+    }
+}
+
+tasks.named("generateJmhProto") {
+    dependsOn(":protoc-gen-ffi:jar")
+}
+
+dependencies {
+    jmhImplementation(project(":patchbukkit"))
+    jmhImplementation("com.google.protobuf:protobuf-java:$protobufVersion")
+}
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(25)
+    }
+}
+
+// Stand-in for the Rust library with the same FFI ABI, see src/jmh/c/bridge_stub.c
+val stubSource = file("src/jmh/c/bridge_stub.c")
+val stubLibrary = layout.buildDirectory.file("stub/${System.mapLibraryName("bridgestub")}").get().asFile
+
+val compileStub by tasks.registering(Exec::class) {
+    inputs.file(stubSource)
+    outputs.file(stubLibrary)
+    doFirst {
+        stubLibrary.parentFile.mkdirs()
+    }
+    commandLine("cc", "-O2", "-shared", "-fPIC", "-o", stubLibrary.absolutePath, stubSource.absolutePath, "-lpthread")
+}
+
+jmh {
+    jvmArgsAppend.addAll(
+        "--enable-native-access=ALL-UNNAMED",
+        "-Dpatchbukkit.jmh.stub=${stubLibrary.absolutePath}"
+    )
+}
+
+tasks.named("jmh") {
+    dependsOn(compileStub)
+}
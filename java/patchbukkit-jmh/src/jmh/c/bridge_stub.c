@@ -0,0 +1,190 @@
+/*
+ * Stand-in for the Rust cdylib used by the bridge benchmarks. It exposes the same
+ * ABI as the functions generated by rust/build/protobufs.rs:
+ *
+ *   uint8_t *fn(const uint8_t *input, size_t input_len, size_t *output_len)
+ *   bool     fn(const uint8_t *input, size_t input_len, void *out_struct)
+ *   void     ffi_free_bytes(uint8_t *ptr, size_t len)
+ *
+ * Responses are canned bytes set by the benchmark, so the measurements cover the
+ * Java side of the bridge (serialization, downcall, copy and parse) and not the
+ * server work behind each RPC.
+ */
+
+#include <pthread.h>
+#include <stdatomic.h>
+#include <stdbool.h>
+#include <stddef.h>
+#include <stdint.h>
+#include <stdlib.h>
+#include <string.h>
+
+#define MAX_STRUCT_SIZE 256
+
+static uint8_t *response;
+static size_t response_len;
+static uint8_t struct_response[MAX_STRUCT_SIZE];
+static size_t struct_response_len;
+static uint8_t empty_response[1];
+
+/* Keeps the compiler from dropping the reads of the request bytes */
+static volatile uint64_t sink;
+
+static uint64_t touch(const uint8_t *data, size_t len) {
+    uint64_t hash = len;
+    for (size_t i = 0; i < len; i += 64) {
+        hash = hash * 31 + data[i];
+    }
+    return hash;
+}
+
+void stub_set_response(const uint8_t *data, size_t len) {
+    free(response);
+    response = malloc(len > 0 ? len : 1);
+    memcpy(response, data, len);
+    response_len = len;
+}
+
+void stub_set_struct(const uint8_t *data, size_t len) {
+    if (len > MAX_STRUCT_SIZE) {
+        len = MAX_STRUCT_SIZE;
+    }
+    memcpy(struct_response, data, len);
+    struct_response_len = len;
+}
+
+uint8_t *stub_call(const uint8_t *input, size_t input_len, size_t *output_len) {
+    sink += touch(input, input_len);
+
+    /* Rust returns a dangling, non-null pointer for empty encodings */
+    *output_len = response_len;
+    if (response_len == 0) {
+        return empty_response;
+    }
+
+    uint8_t *output = malloc(response_len);
+    memcpy(output, response, response_len);
+    return output;
+}
+
+void ffi_free_bytes(uint8_t *ptr, size_t len) {
+    if (ptr != NULL && len > 0) {
+        free(ptr);
+    }
+}
+
+bool stub_fill(const uint8_t *input, size_t input_len, void *out) {
+    sink += touch(input, input_len);
+    memcpy(out, struct_response, struct_response_len);
+    return true;
+}
+
+/* Struct returning RPCs, looked up by the names the Rust build generates */
+bool ffi_native_bridge_get_abilities(const uint8_t *input, size_t input_len, void *out) {
+    return stub_fill(input, input_len, out);
+}
+
+bool ffi_native_bridge_get_location(const uint8_t *input, size_t input_len, void *out) {
+    return stub_fill(input, input_len, out);
+}
+
+/*
+ * Fire-and-forget queue, same layout and wake-up protocol as
+ * rust/src/proto/queue.rs. A single background thread consumes published slots
+ * and sleeps while the ring is empty.
+ */
+#define QUEUE_HEADER_SIZE 192
+#define QUEUE_TAIL_OFFSET 64
+#define QUEUE_HEAD_OFFSET 128
+#define QUEUE_WAITING_OFFSET 136
+#define QUEUE_SLOT_HEADER_SIZE 16
+
+static uint8_t *queue;
+static uint64_t queue_capacity;
+static uint64_t queue_slot_size;
+static atomic_bool queue_stop;
+static pthread_t queue_thread;
+static pthread_mutex_t queue_lock = PTHREAD_MUTEX_INITIALIZER;
+static pthread_cond_t queue_wake = PTHREAD_COND_INITIALIZER;
+static bool queue_woken;
+
+static _Atomic uint64_t *queue_word(size_t offset) {
+    return (_Atomic uint64_t *) (queue + offset);
+}
+
+static void *drain_queue(void *unused) {
+    (void) unused;
+    uint64_t pos = 0;
+
+    while (!atomic_load_explicit(&queue_stop, memory_order_acquire)) {
+        size_t slot = QUEUE_HEADER_SIZE + (pos & (queue_capacity - 1)) * queue_slot_size;
+        _Atomic uint64_t *sequence = queue_word(slot);
+        if (atomic_load_explicit(sequence, memory_order_acquire) != pos + 1) {
+            atomic_store_explicit(queue_word(QUEUE_WAITING_OFFSET), 1, memory_order_seq_cst);
+            atomic_thread_fence(memory_order_seq_cst);
+            if (atomic_load_explicit(sequence, memory_order_acquire) != pos + 1
+                && !atomic_load_explicit(&queue_stop, memory_order_acquire)) {
+                pthread_mutex_lock(&queue_lock);
+                while (!queue_woken && !atomic_load_explicit(&queue_stop, memory_order_acquire)) {
+                    pthread_cond_wait(&queue_wake, &queue_lock);
+                }
+                queue_woken = false;
+                pthread_mutex_unlock(&queue_lock);
+            }
+            atomic_store_explicit(queue_word(QUEUE_WAITING_OFFSET), 0, memory_order_seq_cst);
+            continue;
+        }
+
+        uint32_t len;
+        memcpy(&len, queue + slot + 12, sizeof(len));
+        if (len <= queue_slot_size - QUEUE_SLOT_HEADER_SIZE) {
+            sink += touch(queue + slot + QUEUE_SLOT_HEADER_SIZE, len);
+        }
+
+        atomic_store_explicit(sequence, pos + queue_capacity, memory_order_release);
+        pos++;
+        atomic_store_explicit(queue_word(QUEUE_HEAD_OFFSET), pos, memory_order_release);
+    }
+    return NULL;
+}
+
+uint8_t *stub_queue_start(uint64_t capacity, uint64_t slot_size) {
+    if (queue != NULL) {
+        return queue;
+    }
+
+    size_t size = QUEUE_HEADER_SIZE + capacity * slot_size;
+    queue = aligned_alloc(64, (size + 63) & ~(size_t) 63);
+    memset(queue, 0, size);
+
+    queue_capacity = capacity;
+    queue_slot_size = slot_size;
+    atomic_store_explicit(queue_word(0), capacity, memory_order_relaxed);
+    atomic_store_explicit(queue_word(8), slot_size, memory_order_relaxed);
+    for (uint64_t i = 0; i < capacity; i++) {
+        atomic_store_explicit(queue_word(QUEUE_HEADER_SIZE + i * slot_size), i, memory_order_relaxed);
+    }
+
+    atomic_store_explicit(&queue_stop, false, memory_order_release);
+    pthread_create(&queue_thread, NULL, drain_queue, NULL);
+    return queue;
+}
+
+void stub_queue_wake(uint64_t address) {
+    (void) address;
+    pthread_mutex_lock(&queue_lock);
+    queue_woken = true;
+    pthread_cond_signal(&queue_wake);
+    pthread_mutex_unlock(&queue_lock);
+}
+
+void stub_queue_stop(void) {
+    if (queue == NULL) {
+        return;
+    }
+    atomic_store_explicit(&queue_stop, true, memory_order_release);
+    stub_queue_wake((uint64_t) (uintptr_t) queue);
+    pthread_join(queue_thread, NULL);
+    free(queue);
+    queue = NULL;
+}
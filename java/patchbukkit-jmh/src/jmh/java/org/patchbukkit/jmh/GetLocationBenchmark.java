@@ -0,0 +1,88 @@
+package org.patchbukkit.jmh;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout.PathElement;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.patchbukkit.bridge.BridgeUtils;
+
+import patchbukkit.bridge.NativeBridgeFfi;
+import patchbukkit.bridge.NativeBridgeFfiBaseline;
+import patchbukkit.common.EntityLocation;
+import patchbukkit.common.EntityLocationLayout;
+import patchbukkit.common.Vec3;
+import patchbukkit.common.Vec3Layout;
+
+/**
+ * {@code GetLocation} through the serialized path, the struct path converted back
+ * to a message, and the struct path read in place as {@code PatchBukkitEntity} does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GetLocationBenchmark {
+    private patchbukkit.common.UUID request;
+    private MemorySegment out;
+
+    @Setup
+    public void setup() {
+        StubBridge.init();
+
+        UUID world = UUID.randomUUID();
+        EntityLocation location = EntityLocation.newBuilder()
+            .setWorldMostSignificantBits(world.getMostSignificantBits())
+            .setWorldLeastSignificantBits(world.getLeastSignificantBits())
+            .setPosition(Vec3.newBuilder().setX(128.5).setY(64).setZ(-32.25))
+            .setYaw(90)
+            .setPitch(-15)
+            .build();
+        StubBridge.setResponse(location);
+        StubBridge.setStruct(toStruct(location));
+
+        this.request = BridgeUtils.convertUuid(UUID.randomUUID());
+        this.out = EntityLocationLayout.borrow();
+    }
+
+    @Benchmark
+    public EntityLocation baseline() {
+        return NativeBridgeFfiBaseline.getLocation(this.request);
+    }
+
+    @Benchmark
+    public EntityLocation structToMessage() {
+        return NativeBridgeFfi.getLocation(this.request);
+    }
+
+    @Benchmark
+    public double structInPlace() {
+        NativeBridgeFfi.getLocation(this.request, this.out);
+        MemorySegment position = EntityLocationLayout.getPosition(this.out);
+        return Vec3Layout.getX(position) + Vec3Layout.getY(position) + Vec3Layout.getZ(position)
+            + EntityLocationLayout.getYaw(this.out);
+    }
+
+    private static MemorySegment toStruct(EntityLocation location) {
+        var layout = EntityLocationLayout.LAYOUT;
+        MemorySegment struct = Arena.global().allocate(layout);
+        long position = layout.byteOffset(PathElement.groupElement("position"));
+        struct.set(ValueLayout.JAVA_LONG, offset("world_most_significant_bits"), location.getWorldMostSignificantBits());
+        struct.set(ValueLayout.JAVA_LONG, offset("world_least_significant_bits"), location.getWorldLeastSignificantBits());
+        struct.set(ValueLayout.JAVA_DOUBLE, position, location.getPosition().getX());
+        struct.set(ValueLayout.JAVA_DOUBLE, position + 8, location.getPosition().getY());
+        struct.set(ValueLayout.JAVA_DOUBLE, position + 16, location.getPosition().getZ());
+        struct.set(ValueLayout.JAVA_FLOAT, offset("yaw"), location.getYaw());
+        struct.set(ValueLayout.JAVA_FLOAT, offset("pitch"), location.getPitch());
+        return struct;
+    }
+
+    private static long offset(String field) {
+        return EntityLocationLayout.LAYOUT.byteOffset(PathElement.groupElement(field));
+    }
+}
@@ -0,0 +1,53 @@
+package org.patchbukkit.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import patchbukkit.bridge.NativeBridgeFfi;
+import patchbukkit.bridge.NativeBridgeFfiBaseline;
+import patchbukkit.registry.GetRegistryDataRequest;
+import patchbukkit.registry.GetRegistryDataResponse;
+import patchbukkit.registry.RegistryType;
+import patchbukkit.registry.SoundEvent;
+import patchbukkit.registry.SoundEventRegistryData;
+
+/**
+ * Large responses: the whole sound event registry is fetched when the server
+ * starts, so this covers the response copy and parse rather than the request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GetRegistryDataBenchmark {
+    @Param({"16", "256", "2048"})
+    public int soundEvents;
+
+    private GetRegistryDataRequest request;
+
+    @Setup
+    public void setup() {
+        StubBridge.init();
+
+        SoundEventRegistryData.Builder data = SoundEventRegistryData.newBuilder();
+        for (int i = 0; i < this.soundEvents; i++) {
+            data.addSoundEvents(SoundEvent.newBuilder().setId(i).setName("minecraft:block.stub.sound_" + i));
+        }
+        StubBridge.setResponse(GetRegistryDataResponse.newBuilder().setSoundEvent(data).build());
+
+        this.request = GetRegistryDataRequest.newBuilder().setRegistry(RegistryType.SOUND_EVENT).build();
+    }
+
+    @Benchmark
+    public GetRegistryDataResponse baseline() {
+        return NativeBridgeFfiBaseline.getRegistryData(this.request);
+    }
+
+    @Benchmark
+    public GetRegistryDataResponse optimized() {
+        return NativeBridgeFfi.getRegistryData(this.request);
+    }
+}
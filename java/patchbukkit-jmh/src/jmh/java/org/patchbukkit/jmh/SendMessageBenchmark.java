@@ -0,0 +1,51 @@
+package org.patchbukkit.jmh;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.patchbukkit.bridge.BridgeUtils;
+
+import com.google.protobuf.Empty;
+
+import patchbukkit.bridge.NativeBridgeFfi;
+import patchbukkit.bridge.NativeBridgeFfiBaseline;
+import patchbukkit.message.SendMessageRequest;
+
+/**
+ * {@code SendMessage} as a blocking downcall and through the fire-and-forget
+ * queue. Messages that do not fit in a queue slot fall back to the downcall.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SendMessageBenchmark {
+    @Param({"16", "256", "4096"})
+    public int messageLength;
+
+    private SendMessageRequest request;
+
+    @Setup
+    public void setup() {
+        StubBridge.init();
+        StubBridge.setResponse(Empty.getDefaultInstance());
+
+        this.request = SendMessageRequest.newBuilder()
+            .setUuid(BridgeUtils.convertUuid(UUID.randomUUID()))
+            .setMessage("a".repeat(this.messageLength))
+            .build();
+    }
+
+    @Benchmark
+    public Empty baseline() {
+        return NativeBridgeFfiBaseline.sendMessage(this.request);
+    }
+
+    @Benchmark
+    public Empty optimized() {
+        return NativeBridgeFfi.sendMessage(this.request);
+    }
+}
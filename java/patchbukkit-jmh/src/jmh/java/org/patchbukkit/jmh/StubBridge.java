@@ -0,0 +1,136 @@
+package org.patchbukkit.jmh;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.protobuf.Descriptors.MethodDescriptor;
+import com.google.protobuf.MessageLite;
+
+import patchbukkit.bridge.Bridge;
+import patchbukkit.bridge.NativeBridgeFfi;
+import patchbukkit.bridge.NativeBridgeFfiBaseline;
+
+/**
+ * Wires both generated bridge variants to the stub library built from
+ * {@code src/jmh/c/bridge_stub.c}, the way {@code initialize_ffi_callbacks} does
+ * for the real Rust library.
+ * <p>
+ * {@link NativeBridgeFfi} is the production codegen and gets the dedicated stub
+ * symbols for struct returning RPCs plus a stub queue for fire-and-forget calls.
+ * {@link NativeBridgeFfiBaseline} is generated with {@code plain_abi}, so every
+ * method goes through the serialized request/response path.
+ */
+final class StubBridge {
+    static final String LIBRARY_PROPERTY = "patchbukkit.jmh.stub";
+
+    private static final long QUEUE_CAPACITY = 4096;
+    private static final long QUEUE_SLOT_SIZE = 512;
+
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup STUB = SymbolLookup.libraryLookup(
+        Path.of(System.getProperty(LIBRARY_PROPERTY)), Arena.global());
+
+    private static final MethodHandle SET_RESPONSE = downcall("stub_set_response",
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG));
+    private static final MethodHandle SET_STRUCT = downcall("stub_set_struct",
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG));
+    private static final MethodHandle QUEUE_START = downcall("stub_queue_start",
+        FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG));
+
+    private static boolean initialized;
+
+    private StubBridge() {
+    }
+
+    static synchronized void init() {
+        if (initialized) {
+            return;
+        }
+
+        List<MethodDescriptor> methods = Bridge.getDescriptor().findServiceByName("NativeBridge").getMethods();
+        long genericCall = symbol("stub_call");
+        long[] optimized = new long[methods.size()];
+        long[] baseline = new long[methods.size()];
+        for (int i = 0; i < methods.size(); i++) {
+            baseline[i] = genericCall;
+            optimized[i] = STUB.find(symbolName(methods.get(i)))
+                .map(MemorySegment::address)
+                .orElse(genericCall);
+        }
+
+        try {
+            invokeInit(NativeBridgeFfi.class, optimized);
+            invokeInit(NativeBridgeFfiBaseline.class, baseline);
+            NativeBridgeFfi.initFree(symbol("ffi_free_bytes"));
+            NativeBridgeFfiBaseline.initFree(symbol("ffi_free_bytes"));
+
+            MemorySegment queue = (MemorySegment) QUEUE_START.invokeExact(QUEUE_CAPACITY, QUEUE_SLOT_SIZE);
+            NativeBridgeFfi.initQueue(queue.address(), symbol("stub_queue_wake"));
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to initialize the stub bridge", t);
+        }
+
+        initialized = true;
+    }
+
+    /**
+     * Sets the serialized response every {@code (ptr, len, outLen) -> ptr} call returns.
+     */
+    static void setResponse(MessageLite response) {
+        byte[] bytes = response.toByteArray();
+        try (Arena arena = Arena.ofConfined()) {
+            SET_RESPONSE.invokeExact(arena.allocateFrom(ValueLayout.JAVA_BYTE, bytes), (long) bytes.length);
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to set stub response", t);
+        }
+    }
+
+    /**
+     * Sets the struct every struct returning call copies into its output.
+     */
+    static void setStruct(MemorySegment struct) {
+        try {
+            SET_STRUCT.invokeExact(struct, struct.byteSize());
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to set stub struct", t);
+        }
+    }
+
+    private static void invokeInit(Class<?> ffiClass, long[] addresses) throws ReflectiveOperationException {
+        Class<?>[] parameterTypes = new Class<?>[addresses.length];
+        Arrays.fill(parameterTypes, long.class);
+        Object[] arguments = Arrays.stream(addresses).boxed().toArray();
+        ffiClass.getMethod("init", parameterTypes).invoke(null, arguments);
+    }
+
+    private static String symbolName(MethodDescriptor method) {
+        StringBuilder name = new StringBuilder("ffi_native_bridge_");
+        String methodName = method.getName();
+        for (int i = 0; i < methodName.length(); i++) {
+            char c = methodName.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) {
+                name.append('_');
+            }
+            name.append(Character.toLowerCase(c));
+        }
+        return name.toString();
+    }
+
+    private static long symbol(String name) {
+        return STUB.find(name)
+            .orElseThrow(() -> new IllegalStateException("Stub library is missing " + name))
+            .address();
+    }
+
+    private static MethodHandle downcall(String name, FunctionDescriptor descriptor) {
+        return LINKER.downcallHandle(MemorySegment.ofAddress(symbol(name)), descriptor);
+    }
+}
@@ -21,6 +21,7 @@ public final class PatchBukkitTestPlugin extends JavaPlugin {
         framework.registerSuite(new EntityTests());
         framework.registerSuite(new ConsoleSenderTests());
         framework.registerSuite(new UnsafeValuesTests());
+        framework.registerSuite(new SchedulerTests(this));
         framework.registerSuite(new StubTests());
 
         // Set executor on the PluginCommand created by PatchBukkit's Rust side
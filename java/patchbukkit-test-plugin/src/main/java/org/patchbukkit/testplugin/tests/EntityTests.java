@@ -1,6 +1,7 @@
 package org.patchbukkit.testplugin.tests;
 
 import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.patchbukkit.testplugin.ConformanceTest;
 import org.patchbukkit.testplugin.TestCategory;
@@ -23,6 +24,14 @@ public final class EntityTests {
         }
     }
 
+    @ConformanceTest(name = "World.getPlayers() contains the players in that world", category = TestCategory.ENTITY)
+    public void testWorldPlayers() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            World world = player.getWorld();
+            assertTrue(world.getPlayers().contains(player), "World.getPlayers() contains " + player.getName());
+        }
+    }
+
     @ConformanceTest(name = "Server.getEntity(UUID) stub", category = TestCategory.ENTITY,
             expectation = TestExpectation.EXPECT_UNSUPPORTED)
     public void testGetEntity() {
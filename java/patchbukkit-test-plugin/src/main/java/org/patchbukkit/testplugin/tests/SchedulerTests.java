@@ -0,0 +1,142 @@
+package org.patchbukkit.testplugin.tests;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.patchbukkit.testplugin.ConformanceTest;
+import org.patchbukkit.testplugin.TestCategory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.patchbukkit.testplugin.TestAssertions.*;
+
+public final class SchedulerTests {
+
+    private final JavaPlugin plugin;
+
+    public SchedulerTests(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @ConformanceTest(name = "Commands run on the primary thread", category = TestCategory.SCHEDULER)
+    public void testIsPrimaryThread() {
+        assertTrue(Bukkit.isPrimaryThread(), "isPrimaryThread() should be true while running a command");
+    }
+
+    @ConformanceTest(name = "runTaskLater() returns a queued task", category = TestCategory.SCHEDULER)
+    public void testRunTaskLater() {
+        BukkitScheduler scheduler = Bukkit.getScheduler();
+        BukkitTask task = scheduler.runTaskLater(plugin, () -> {}, 20);
+        try {
+            assertNotNull(task, "runTaskLater()");
+            assertTrue(task.getOwner() == plugin, "getOwner() should return this plugin");
+            assertTrue(task.isSync(), "isSync() should be true");
+            assertTrue(scheduler.isQueued(task.getTaskId()), "isQueued() should be true before the task ran");
+            assertTrue(!scheduler.isCurrentlyRunning(task.getTaskId()), "isCurrentlyRunning() should be false");
+            assertTrue(scheduler.getPendingTasks().contains(task), "getPendingTasks() should contain the task");
+        } finally {
+            task.cancel();
+        }
+    }
+
+    @ConformanceTest(name = "Task ids are unique", category = TestCategory.SCHEDULER)
+    public void testUniqueTaskIds() {
+        BukkitTask first = Bukkit.getScheduler().runTaskLater(plugin, () -> {}, 20);
+        BukkitTask second = Bukkit.getScheduler().runTaskLater(plugin, () -> {}, 20);
+        first.cancel();
+        second.cancel();
+        assertTrue(first.getTaskId() != second.getTaskId(), "two tasks should not share an id");
+    }
+
+    @ConformanceTest(name = "BukkitTask.cancel() dequeues the task", category = TestCategory.SCHEDULER)
+    public void testCancel() {
+        BukkitScheduler scheduler = Bukkit.getScheduler();
+        BukkitTask task = scheduler.runTaskTimer(plugin, () -> {}, 20, 20);
+        task.cancel();
+        assertTrue(task.isCancelled(), "isCancelled() should be true after cancel()");
+        assertTrue(!scheduler.isQueued(task.getTaskId()), "isQueued() should be false after cancel()");
+        assertTrue(!scheduler.getPendingTasks().contains(task), "getPendingTasks() should not contain the task");
+    }
+
+    @ConformanceTest(name = "cancelTask(int) dequeues the task", category = TestCategory.SCHEDULER)
+    public void testCancelTaskById() {
+        BukkitScheduler scheduler = Bukkit.getScheduler();
+        int taskId = scheduler.scheduleSyncDelayedTask(plugin, () -> {}, 20);
+        scheduler.cancelTask(taskId);
+        assertTrue(!scheduler.isQueued(taskId), "isQueued() should be false after cancelTask()");
+    }
+
+    @ConformanceTest(name = "Server.getCurrentTick() is not negative", category = TestCategory.SCHEDULER)
+    public void testGetCurrentTick() {
+        assertTrue(Bukkit.getCurrentTick() >= 0, "getCurrentTick() should not be negative");
+    }
+
+    @ConformanceTest(name = "runTaskLaterAsynchronously() returns an async task", category = TestCategory.SCHEDULER)
+    public void testRunTaskLaterAsynchronously() {
+        BukkitScheduler scheduler = Bukkit.getScheduler();
+        BukkitTask task = scheduler.runTaskLaterAsynchronously(plugin, () -> {}, 20);
+        try {
+            assertNotNull(task, "runTaskLaterAsynchronously()");
+            assertTrue(!task.isSync(), "isSync() should be false");
+            assertTrue(scheduler.isQueued(task.getTaskId()), "isQueued() should be true before the task ran");
+        } finally {
+            task.cancel();
+        }
+        assertTrue(!scheduler.isQueued(task.getTaskId()), "isQueued() should be false after cancel()");
+    }
+
+    @ConformanceTest(name = "getActiveWorkers() returns a list", category = TestCategory.SCHEDULER)
+    public void testGetActiveWorkers() {
+        assertNotNull(Bukkit.getScheduler().getActiveWorkers(), "getActiveWorkers()");
+    }
+
+    @ConformanceTest(name = "callSyncMethod() completes on a later tick", category = TestCategory.SCHEDULER)
+    public void testCallSyncMethod() {
+        Future<String> future = Bukkit.getScheduler().callSyncMethod(plugin, () -> "done");
+        assertNotNull(future, "callSyncMethod()");
+        assertTrue(!future.isDone(), "callSyncMethod() should not run the task before the next tick");
+    }
+
+    @ConformanceTest(name = "getMainThreadExecutor() returns an executor", category = TestCategory.SCHEDULER)
+    public void testGetMainThreadExecutor() {
+        Executor executor = Bukkit.getScheduler().getMainThreadExecutor(plugin);
+        assertNotNull(executor, "getMainThreadExecutor()");
+        executor.execute(() -> {});
+    }
+
+    @ConformanceTest(name = "Commands run on the global tick thread", category = TestCategory.SCHEDULER)
+    public void testIsGlobalTickThread() {
+        assertTrue(Bukkit.isGlobalTickThread(), "isGlobalTickThread() should be true while running a command");
+    }
+
+    @ConformanceTest(name = "GlobalRegionScheduler.runDelayed() returns an idle task", category = TestCategory.SCHEDULER)
+    public void testGlobalRegionScheduler() {
+        ScheduledTask task = Bukkit.getGlobalRegionScheduler().runDelayed(plugin, t -> {}, 20);
+        assertNotNull(task, "runDelayed()");
+        assertTrue(task.getOwningPlugin() == plugin, "getOwningPlugin() should return this plugin");
+        assertTrue(task.getExecutionState() == ScheduledTask.ExecutionState.IDLE, "getExecutionState() should be IDLE");
+        assertTrue(task.cancel() == ScheduledTask.CancelledState.CANCELLED_BY_CALLER, "cancel() should be CANCELLED_BY_CALLER");
+        assertTrue(task.cancel() == ScheduledTask.CancelledState.CANCELLED_ALREADY, "second cancel() should be CANCELLED_ALREADY");
+    }
+
+    @ConformanceTest(name = "RegionScheduler.runAtFixedRate() returns a repeating task", category = TestCategory.SCHEDULER)
+    public void testRegionScheduler() {
+        ScheduledTask task = Bukkit.getRegionScheduler().runAtFixedRate(plugin, new Location(null, 0, 0, 0), t -> {}, 20, 20);
+        assertTrue(task.isRepeatingTask(), "isRepeatingTask() should be true");
+        task.cancel();
+        assertTrue(task.isCancelled(), "isCancelled() should be true after cancel()");
+    }
+
+    @ConformanceTest(name = "AsyncScheduler.runDelayed() returns an idle task", category = TestCategory.SCHEDULER)
+    public void testAsyncScheduler() {
+        ScheduledTask task = Bukkit.getAsyncScheduler().runDelayed(plugin, t -> {}, 1, TimeUnit.MINUTES);
+        assertNotNull(task, "runDelayed()");
+        assertTrue(!task.isRepeatingTask(), "isRepeatingTask() should be false");
+        assertTrue(task.cancel() == ScheduledTask.CancelledState.CANCELLED_BY_CALLER, "cancel() should be CANCELLED_BY_CALLER");
+    }
+}
@@ -27,7 +27,12 @@ protobuf {
     generateProtoTasks {
         all().forEach { task ->
             task.plugins {
-                create("ffi")
+                create("ffi") {
+                    option("scratch_buffers")
+                    option("metrics")
+                    option("aliasing")
+                    option("event_package=org.patchbukkit.events")
+                }
             }
         }
     }
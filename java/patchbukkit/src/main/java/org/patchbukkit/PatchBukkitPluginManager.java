@@ -19,6 +19,7 @@ import org.bukkit.plugin.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jspecify.annotations.NonNull;
+import org.patchbukkit.events.ListenerTimings;
 import org.patchbukkit.events.PatchBukkitEventManager;
 import org.patchbukkit.permissions.PatchBukkitPermissionManager;
 
@@ -165,6 +166,8 @@ public class PatchBukkitPluginManager implements PluginManager {
     public void disablePlugin(@NotNull Plugin plugin) {
         if (plugin.isEnabled()) {
             plugin.getPluginLoader().disablePlugin(plugin);
+            this.server.getScheduler().cancelTasks(plugin);
+            this.eventManager.unregisterEvents(plugin);
         }
     }
 
@@ -250,9 +253,7 @@ public class PatchBukkitPluginManager implements PluginManager {
 
     @Override
     public boolean useTimings() {
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'useTimings'"
-        );
+        return ListenerTimings.ENABLED;
     }
 
     @Override
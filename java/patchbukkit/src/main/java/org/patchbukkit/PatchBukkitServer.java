@@ -103,7 +103,9 @@ public class PatchBukkitServer implements Server {
         io.papermc.paper.ServerBuildInfo.buildInfo().brandName();
     private final String bukkitVersion = Versioning.getBukkitVersion();
     private final CommandMap commandMap = new PatchBukkitCommandMap();
-    private final BukkitScheduler scheduler = new PatchBukkitScheduler();
+    private final PatchBukkitScheduler scheduler = new PatchBukkitScheduler();
+    /** Rust creates the server on the JVM worker thread, which also runs the ticks */
+    private final Thread primaryThread = Thread.currentThread();
     private final PatchBukkitPluginManager pluginManager = new PatchBukkitPluginManager(this);
 
 
@@ -1222,10 +1224,7 @@ public class PatchBukkitServer implements Server {
 
     @Override
     public boolean isPrimaryThread() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'isPrimaryThread'"
-        );
+        return Thread.currentThread() == this.primaryThread;
     }
 
     @Override
@@ -1692,10 +1691,7 @@ public class PatchBukkitServer implements Server {
 
     @Override
     public int getCurrentTick() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'getCurrentTick'"
-        );
+        return this.scheduler.currentTick();
     }
 
     @Override
@@ -1732,26 +1728,17 @@ public class PatchBukkitServer implements Server {
 
     @Override
     public @NotNull RegionScheduler getRegionScheduler() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'getRegionScheduler'"
-        );
+        return this.scheduler.regionScheduler();
     }
 
     @Override
     public @NotNull AsyncScheduler getAsyncScheduler() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'getAsyncScheduler'"
-        );
+        return this.scheduler.asyncScheduler();
     }
 
     @Override
     public @NotNull GlobalRegionScheduler getGlobalRegionScheduler() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'getGlobalRegionScheduler'"
-        );
+        return this.scheduler.globalRegionScheduler();
     }
 
     @Override
@@ -1759,10 +1746,8 @@ public class PatchBukkitServer implements Server {
         @NotNull World world,
         @NotNull Position position
     ) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'isOwnedByCurrentRegion'"
-        );
+        // Java code never runs on Pumpkin's world threads, the primary thread owns every region
+        return this.isPrimaryThread();
     }
 
     @Override
@@ -1771,18 +1756,12 @@ public class PatchBukkitServer implements Server {
         @NotNull Position position,
         int squareRadiusChunks
     ) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'isOwnedByCurrentRegion'"
-        );
+        return this.isPrimaryThread();
     }
 
     @Override
     public boolean isOwnedByCurrentRegion(@NotNull Location location) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'isOwnedByCurrentRegion'"
-        );
+        return this.isPrimaryThread();
     }
 
     @Override
@@ -1790,10 +1769,7 @@ public class PatchBukkitServer implements Server {
         @NotNull Location location,
         int squareRadiusChunks
     ) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'isOwnedByCurrentRegion'"
-        );
+        return this.isPrimaryThread();
     }
 
     @Override
@@ -1802,10 +1778,7 @@ public class PatchBukkitServer implements Server {
         int chunkX,
         int chunkZ
     ) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'isOwnedByCurrentRegion'"
-        );
+        return this.isPrimaryThread();
     }
 
     @Override
@@ -1815,10 +1788,7 @@ public class PatchBukkitServer implements Server {
         int chunkZ,
         int squareRadiusChunks
     ) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'isOwnedByCurrentRegion'"
-        );
+        return this.isPrimaryThread();
     }
 
     @Override
@@ -1829,26 +1799,17 @@ public class PatchBukkitServer implements Server {
         int maxChunkX,
         int maxChunkZ
     ) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'isOwnedByCurrentRegion'"
-        );
+        return this.isPrimaryThread();
     }
 
     @Override
     public boolean isOwnedByCurrentRegion(@NotNull Entity entity) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'isOwnedByCurrentRegion'"
-        );
+        return this.isPrimaryThread();
     }
 
     @Override
     public boolean isGlobalTickThread() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'isGlobalTickThread'"
-        );
+        return this.isPrimaryThread();
     }
 
     @Override
@@ -0,0 +1,152 @@
+package org.patchbukkit.bridge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import patchbukkit.bridge.NativeBridgeFfi;
+import patchbukkit.metrics.BridgeMetricsReport;
+import patchbukkit.metrics.RpcMetrics;
+
+/**
+ * Per-RPC instrumentation of the generated FFI classes, emitted by protoc-gen-ffi's
+ * {@code metrics} option.
+ * <p>
+ * Recording is switched on at startup with {@code -Dpatchbukkit.bridge.metrics=true},
+ * which the Rust side passes when {@code bridge-metrics} is set in the PatchBukkit
+ * config. {@link #ENABLED} is a constant, so when it is off the generated wrappers
+ * compile down to the plain call.
+ */
+public final class BridgeMetrics {
+    private static final Logger LOGGER = Logger.getLogger("PatchBukkit");
+
+    public static final String ENABLED_PROPERTY = "patchbukkit.bridge.metrics";
+    public static final String EXPORT_INTERVAL_PROPERTY = "patchbukkit.bridge.metrics.export-interval";
+
+    public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private static final List<Rpc> RPCS = new CopyOnWriteArrayList<>();
+
+    static {
+        long interval = Long.getLong(EXPORT_INTERVAL_PROPERTY, 60);
+        if (ENABLED && interval > 0) {
+            ScheduledExecutorService exporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "PatchBukkit Bridge Metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            exporter.scheduleAtFixedRate(BridgeMetrics::exportSafely, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    private BridgeMetrics() {
+    }
+
+    /**
+     * Registers the metrics of one RPC. Called once per RPC from the generated
+     * classes' static initializers.
+     */
+    public static Rpc rpc(String name) {
+        Rpc rpc = new Rpc(name);
+        RPCS.add(rpc);
+        return rpc;
+    }
+
+    public static List<RpcSnapshot> snapshot() {
+        List<RpcSnapshot> snapshots = new ArrayList<>(RPCS.size());
+        for (Rpc rpc : RPCS) {
+            snapshots.add(rpc.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Sends the current snapshot of every RPC that was called at least once to
+     * Rust, which logs it through {@code tracing}.
+     */
+    public static void export() {
+        BridgeMetricsReport.Builder report = BridgeMetricsReport.newBuilder();
+        for (RpcSnapshot snapshot : snapshot()) {
+            if (snapshot.calls() == 0 && snapshot.failures() == 0) {
+                continue;
+            }
+            LatencyHistogram.Snapshot latency = snapshot.latency();
+            report.addRpcs(RpcMetrics.newBuilder()
+                .setName(snapshot.name())
+                .setCalls(snapshot.calls())
+                .setFailures(snapshot.failures())
+                .setRequestBytes(snapshot.requestBytes())
+                .setResponseBytes(snapshot.responseBytes())
+                .setP50Nanos(latency.valueAtPercentile(50))
+                .setP99Nanos(latency.valueAtPercentile(99))
+                .setP999Nanos(latency.valueAtPercentile(99.9))
+                .setMaxNanos(latency.max())
+                .setMeanNanos(latency.mean())
+                .build());
+        }
+
+        if (report.getRpcsCount() > 0) {
+            NativeBridgeFfi.reportBridgeMetrics(report.build());
+        }
+    }
+
+    private static void exportSafely() {
+        try {
+            export();
+        } catch (Throwable t) {
+            LOGGER.log(Level.WARNING, "Failed to export bridge metrics", t);
+        }
+    }
+
+    public static final class Rpc {
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private Rpc(String name) {
+            this.name = name;
+        }
+
+        public void record(long nanos, long requestBytes, long responseBytes) {
+            this.calls.increment();
+            this.requestBytes.add(requestBytes);
+            this.responseBytes.add(responseBytes);
+            this.latency.record(nanos);
+        }
+
+        public void recordFailure(long nanos) {
+            this.failures.increment();
+            this.latency.record(nanos);
+        }
+
+        public RpcSnapshot snapshot() {
+            return new RpcSnapshot(
+                this.name,
+                this.calls.sum(),
+                this.failures.sum(),
+                this.requestBytes.sum(),
+                this.responseBytes.sum(),
+                this.latency.snapshot()
+            );
+        }
+    }
+
+    public record RpcSnapshot(
+        String name,
+        long calls,
+        long failures,
+        long requestBytes,
+        long responseBytes,
+        LatencyHistogram.Snapshot latency
+    ) {
+    }
+}
@@ -4,10 +4,19 @@ import java.util.UUID;
 
 public class BridgeUtils {
     public static UUID convertUuid(patchbukkit.common.UUID uuid) {
-        return UUID.fromString(uuid.getValue());
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        // Payloads from before the binary encoding only carry the string form
+        if (most == 0 && least == 0 && !uuid.getValue().isEmpty()) {
+            return UUID.fromString(uuid.getValue());
+        }
+        return new UUID(most, least);
     }
 
     public static patchbukkit.common.UUID convertUuid(UUID uuid) {
-        return patchbukkit.common.UUID.newBuilder().setValue(uuid.toString()).build();
+        return patchbukkit.common.UUID.newBuilder()
+            .setMostSignificantBits(uuid.getMostSignificantBits())
+            .setLeastSignificantBits(uuid.getLeastSignificantBits())
+            .build();
     }
 }
@@ -0,0 +1,116 @@
+package org.patchbukkit.bridge;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram of nanosecond latencies, in the spirit of
+ * HdrHistogram. Every power of two is split into {@value #SUB_BUCKETS} linear
+ * buckets, so recorded values keep roughly 6% precision from 1ns up to about
+ * 36 minutes while the whole histogram stays a single {@link AtomicLongArray}.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        total.add(value);
+
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, total.sum(), max.get());
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the highest value that falls into {@code bucket}.
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = SUB_BUCKETS + bucket % SUB_BUCKETS;
+        return ((subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Point-in-time copy of a histogram. Buckets are read one by one while other
+     * threads keep recording, so the copy is not atomic as a whole.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long total;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long total, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long max() {
+            return max;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         */
+        public long valueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100) / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(upperBoundOf(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
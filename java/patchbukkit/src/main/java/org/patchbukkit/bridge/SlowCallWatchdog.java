@@ -0,0 +1,115 @@
+package org.patchbukkit.bridge;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Logs a stack sample of plugin code that has been running for longer than its
+ * threshold, which shows where a plugin stalls the calling thread rather than just
+ * that it did.
+ * <p>
+ * Listener and task timings register the calls they time with {@link #begin} and
+ * {@link #end}, and a single daemon thread, started with the first call, looks at
+ * them every {@value #PERIOD_MILLIS} milliseconds. A call made from within another,
+ * like an event fired by a task, takes the place of the outer one until it returns.
+ */
+public final class SlowCallWatchdog {
+    private static final Logger LOGGER = Logger.getLogger("PatchBukkit");
+
+    private static final long PERIOD_MILLIS = 10;
+
+    /** The innermost timed call each thread is running right now */
+    private static final Map<Thread, Call> RUNNING = new ConcurrentHashMap<>();
+
+    static {
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PatchBukkit Watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleAtFixedRate(SlowCallWatchdog::checkRunningSafely, PERIOD_MILLIS, PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private SlowCallWatchdog() {
+    }
+
+    /**
+     * Marks {@code call} as running on the current thread.
+     */
+    public static void begin(@NotNull Call call) {
+        call.outer = RUNNING.put(call.thread, call);
+    }
+
+    /**
+     * Marks {@code call} as returned, the call it was made from resumes.
+     */
+    public static void end(@NotNull Call call) {
+        if (call.outer != null) {
+            RUNNING.put(call.thread, call.outer);
+        } else {
+            RUNNING.remove(call.thread);
+        }
+    }
+
+    private static void checkRunningSafely() {
+        try {
+            checkRunning();
+        } catch (Throwable t) {
+            LOGGER.log(Level.WARNING, "Watchdog failed", t);
+        }
+    }
+
+    private static void checkRunning() {
+        long now = System.nanoTime();
+        for (Call call : RUNNING.values()) {
+            if (call.reported || now - call.start < call.thresholdNanos) {
+                continue;
+            }
+            StackTraceElement[] stack = call.thread.getStackTrace();
+            // The call may have returned while the stack was taken
+            if (RUNNING.get(call.thread) != call) {
+                continue;
+            }
+            call.reported = true;
+
+            StringBuilder message = new StringBuilder()
+                .append(call.describe())
+                .append(" has been running for ").append(TimeUnit.NANOSECONDS.toMillis(now - call.start))
+                .append("ms on ").append(call.thread.getName()).append(':');
+            for (StackTraceElement element : stack) {
+                message.append("\n\tat ").append(element);
+            }
+            LOGGER.warning(message.toString());
+        }
+    }
+
+    /**
+     * One timed call in progress on the thread that created it.
+     */
+    public abstract static class Call {
+        private final Thread thread = Thread.currentThread();
+        private final long start;
+        private final long thresholdNanos;
+        private Call outer;
+        /** Whether a stack sample was logged for this call, so each call is reported once */
+        private boolean reported;
+
+        protected Call(long start, long thresholdNanos) {
+            this.start = start;
+            this.thresholdNanos = thresholdNanos;
+        }
+
+        /**
+         * What is running, the start of the warning, e.g. {@code Listener onJoin of MyPlugin}.
+         */
+        @NotNull
+        protected abstract String describe();
+    }
+}
@@ -0,0 +1,212 @@
+package org.patchbukkit.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.patchbukkit.bridge.LatencyHistogram;
+import org.patchbukkit.events.ListenerTimings;
+import org.patchbukkit.scheduler.MainThreadQueue;
+import org.patchbukkit.scheduler.PatchBukkitScheduler;
+import org.patchbukkit.scheduler.TaskTimings;
+
+/**
+ * The built-in {@code /patchbukkit} command, for inspecting PatchBukkit itself
+ * rather than any plugin.
+ */
+public class PatchBukkitCommand extends Command {
+    private static final int DEFAULT_TIMINGS_COUNT = 10;
+    private static final List<String> SUBCOMMANDS = List.of("timings", "scheduler");
+
+    public PatchBukkitCommand() {
+        super(
+            "patchbukkit",
+            "Inspects the PatchBukkit bridge",
+            "/patchbukkit <timings|scheduler> [count]",
+            List.of()
+        );
+        this.setPermission("patchbukkit.command.patchbukkit");
+    }
+
+    @Override
+    public boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull String[] args) {
+        if (!this.testPermission(sender)) {
+            return true;
+        }
+        if (args.length == 0) {
+            sender.sendMessage("Usage: " + this.getUsage());
+            return true;
+        }
+
+        switch (args[0].toLowerCase(Locale.ROOT)) {
+            case "timings" -> this.timings(sender, args);
+            case "scheduler" -> this.scheduler(sender, args);
+            default -> sender.sendMessage("Usage: " + this.getUsage());
+        }
+        return true;
+    }
+
+    private void timings(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!ListenerTimings.ENABLED) {
+            sender.sendMessage("Listener timings are disabled, set listener-timings = true in the PatchBukkit config.");
+            return;
+        }
+
+        Integer count = this.parseCount(sender, args);
+        if (count == null) {
+            return;
+        }
+
+        List<ListenerTimings.ListenerSnapshot> snapshots = ListenerTimings.snapshot();
+        if (snapshots.isEmpty()) {
+            sender.sendMessage("No listener has been called yet.");
+            return;
+        }
+
+        sender.sendMessage("Slowest listeners by total time (" + Math.min(count, snapshots.size()) + " of " + snapshots.size() + "):");
+        for (ListenerTimings.ListenerSnapshot snapshot : snapshots.subList(0, Math.min(count, snapshots.size()))) {
+            LatencyHistogram.Snapshot latency = snapshot.latency();
+            sender.sendMessage(String.format(
+                Locale.ROOT,
+                "%s %s (%s): %d calls, total %s, mean %s, p50 %s, p99 %s, max %s",
+                snapshot.plugin(),
+                snapshot.handler(),
+                simpleName(snapshot.eventClass()),
+                snapshot.calls(),
+                formatNanos(snapshot.totalNanos()),
+                formatNanos((long) latency.mean()),
+                formatNanos(latency.valueAtPercentile(50)),
+                formatNanos(latency.valueAtPercentile(99)),
+                formatNanos(latency.max())
+            ));
+        }
+    }
+
+    private void scheduler(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!TaskTimings.ENABLED) {
+            sender.sendMessage("Task timings are disabled, set listener-timings = true in the PatchBukkit config.");
+            return;
+        }
+        Integer count = this.parseCount(sender, args);
+        if (count == null) {
+            return;
+        }
+
+        PatchBukkitScheduler scheduler = (PatchBukkitScheduler) Bukkit.getScheduler();
+        MainThreadQueue mainThread = scheduler.mainThreadQueue();
+        LatencyHistogram.Snapshot drainTimes = mainThread.drainTimes();
+        sender.sendMessage(String.format(
+            Locale.ROOT,
+            "Tick %d, main thread queue: %d waiting, %d ticks over budget, drain p99 %s, max %s",
+            scheduler.currentTick(),
+            mainThread.depth(),
+            mainThread.spilledTicks(),
+            formatNanos(drainTimes.valueAtPercentile(99)),
+            formatNanos(drainTimes.max())
+        ));
+
+        TaskTimings timings = scheduler.timings();
+        TaskTimings.TickSnapshot ticks = timings.tickSnapshot();
+        sender.sendMessage(String.format(
+            Locale.ROOT,
+            "Tick times: p50 %s, p99 %s, max %s, %d overruns%s",
+            formatNanos(ticks.tickTimes().valueAtPercentile(50)),
+            formatNanos(ticks.tickTimes().valueAtPercentile(99)),
+            formatNanos(ticks.tickTimes().max()),
+            ticks.overruns(),
+            ticks.overrunTicks().isEmpty() ? "" : " (recent: " + ticks.overrunTicks() + ")"
+        ));
+
+        List<TaskTimings.PluginSnapshot> plugins = timings.pluginSnapshot();
+        if (plugins.isEmpty()) {
+            sender.sendMessage("No task has run yet.");
+            return;
+        }
+
+        sender.sendMessage("Plugins by total task time:");
+        for (TaskTimings.PluginSnapshot plugin : plugins) {
+            sender.sendMessage(String.format(
+                Locale.ROOT,
+                "%s: %d runs, total %s, max %s, %d overruns%s",
+                plugin.plugin(),
+                plugin.runs(),
+                formatNanos(plugin.totalNanos()),
+                formatNanos(plugin.maxNanos()),
+                plugin.overruns(),
+                plugin.lastOverrunTick() < 0 ? "" : " (last on tick " + plugin.lastOverrunTick() + ")"
+            ));
+        }
+
+        List<TaskTimings.TaskSnapshot> tasks = timings.snapshot();
+        sender.sendMessage("Slowest tasks by total time (" + Math.min(count, tasks.size()) + " of " + tasks.size() + "):");
+        for (TaskTimings.TaskSnapshot task : tasks.subList(0, Math.min(count, tasks.size()))) {
+            LatencyHistogram.Snapshot latency = task.latency();
+            sender.sendMessage(String.format(
+                Locale.ROOT,
+                "%s %s (%s): %d runs, total %s, mean %s, p99 %s, max %s%s",
+                task.plugin(),
+                simpleName(task.taskClass()),
+                task.sync() ? "sync" : "async",
+                task.runs(),
+                formatNanos(task.totalNanos()),
+                formatNanos((long) latency.mean()),
+                formatNanos(latency.valueAtPercentile(99)),
+                formatNanos(latency.max()),
+                task.overrunTicks().isEmpty() ? "" : ", longest on overrun ticks " + task.overrunTicks()
+            ));
+        }
+    }
+
+    /**
+     * Reads the optional count argument, or tells the sender why it could not and
+     * returns null.
+     */
+    private Integer parseCount(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (args.length < 2) {
+            return DEFAULT_TIMINGS_COUNT;
+        }
+        int count;
+        try {
+            count = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            sender.sendMessage("'" + args[1] + "' is not a number");
+            return null;
+        }
+        if (count < 1) {
+            sender.sendMessage("The count must be at least 1. Usage: " + this.getUsage());
+            return null;
+        }
+        return count;
+    }
+
+    @Override
+    public @NotNull List<String> tabComplete(@NotNull CommandSender sender, @NotNull String alias, @NotNull String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 1) {
+            for (String subcommand : SUBCOMMANDS) {
+                if (subcommand.startsWith(args[0].toLowerCase(Locale.ROOT))) {
+                    completions.add(subcommand);
+                }
+            }
+        }
+        return completions;
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos >= 1_000_000_000L) {
+            return String.format(Locale.ROOT, "%.2fs", nanos / 1e9);
+        }
+        if (nanos >= 1_000_000L) {
+            return String.format(Locale.ROOT, "%.2fms", nanos / 1e6);
+        }
+        return String.format(Locale.ROOT, "%.1fus", nanos / 1e3);
+    }
+}
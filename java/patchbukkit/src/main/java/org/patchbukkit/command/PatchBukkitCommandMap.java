@@ -18,6 +18,14 @@ public class PatchBukkitCommandMap implements CommandMap {
     // We use Command as the value to support both PluginCommand and vanilla commands
     private final Map<String, Command> knownCommands = new HashMap<>();
 
+    public PatchBukkitCommandMap() {
+        setDefaultCommands();
+    }
+
+    private void setDefaultCommands() {
+        register("patchbukkit", new PatchBukkitCommand());
+    }
+
     @Override
     public void registerAll(@NotNull String fallbackPrefix, @NotNull List<Command> commands) {
         for (Command command : commands) {
@@ -83,6 +91,7 @@ public class PatchBukkitCommandMap implements CommandMap {
     @Override
     public void clearCommands() {
         knownCommands.clear();
+        setDefaultCommands();
     }
 
     @Override
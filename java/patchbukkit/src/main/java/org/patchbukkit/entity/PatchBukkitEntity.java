@@ -1,5 +1,6 @@
 package org.patchbukkit.entity;
 
+import java.lang.foreign.MemorySegment;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
@@ -38,6 +39,7 @@ import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.patchbukkit.bridge.BridgeUtils;
+import org.patchbukkit.scheduler.PatchBukkitScheduler;
 import org.patchbukkit.world.PatchBukkitWorld;
 
 import io.papermc.paper.datacomponent.DataComponentType;
@@ -48,6 +50,8 @@ import io.papermc.paper.threadedregions.scheduler.EntityScheduler;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.util.TriState;
 import patchbukkit.bridge.NativeBridgeFfi;
+import patchbukkit.common.EntityLocationLayout;
+import patchbukkit.common.Vec3Layout;
 
 public class PatchBukkitEntity implements Entity {
 
@@ -55,6 +59,7 @@ public class PatchBukkitEntity implements Entity {
     private final String name;
     private static PermissibleBase perm;
     private boolean visibleByDefault = true;
+    private volatile EntityScheduler scheduler;
 
     public PatchBukkitEntity(
         UUID uuid,
@@ -263,10 +268,40 @@ public class PatchBukkitEntity implements Entity {
 
     @Override
     public @NotNull Location getLocation() {
-        var location = NativeBridgeFfi.getLocation(BridgeUtils.convertUuid(this.uuid));
-        var world = PatchBukkitWorld.getOrCreate(BridgeUtils.convertUuid(location.getWorld().getUuid()));
-        var position = location.getPosition();
-        return new Location(world, position.getX(), position.getY(), position.getZ(), location.getYaw(), location.getPitch());
+        var location = this.fetchLocation();
+        try {
+            var position = EntityLocationLayout.getPosition(location);
+            return new Location(
+                this.worldOf(location),
+                Vec3Layout.getX(position),
+                Vec3Layout.getY(position),
+                Vec3Layout.getZ(position),
+                EntityLocationLayout.getYaw(location),
+                EntityLocationLayout.getPitch(location)
+            );
+        } finally {
+            EntityLocationLayout.release(location);
+        }
+    }
+
+    /**
+     * Borrows an {@link EntityLocationLayout} struct and fills it with the entity's
+     * location. The caller hands it back with {@link EntityLocationLayout#release}.
+     */
+    private MemorySegment fetchLocation() {
+        var location = EntityLocationLayout.borrow();
+        if (!NativeBridgeFfi.getLocation(BridgeUtils.convertUuid(this.uuid), location)) {
+            EntityLocationLayout.release(location);
+            throw new IllegalStateException("Entity " + this.uuid + " is not loaded");
+        }
+        return location;
+    }
+
+    private World worldOf(MemorySegment location) {
+        return PatchBukkitWorld.getOrCreate(new UUID(
+            EntityLocationLayout.getWorldMostSignificantBits(location),
+            EntityLocationLayout.getWorldLeastSignificantBits(location)
+        ));
     }
 
     @Override
@@ -324,8 +359,12 @@ public class PatchBukkitEntity implements Entity {
 
     @Override
     public @NotNull World getWorld() {
-        var location = NativeBridgeFfi.getLocation(BridgeUtils.convertUuid(this.uuid));
-        return PatchBukkitWorld.getOrCreate(BridgeUtils.convertUuid(location.getWorld().getUuid()));
+        var location = this.fetchLocation();
+        try {
+            return this.worldOf(location);
+        } finally {
+            EntityLocationLayout.release(location);
+        }
     }
 
     @Override
@@ -970,8 +1009,18 @@ public class PatchBukkitEntity implements Entity {
 
     @Override
     public @NotNull EntityScheduler getScheduler() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getScheduler'");
+        if (this.scheduler == null) {
+            this.scheduler = ((PatchBukkitScheduler) Bukkit.getScheduler()).entityScheduler(this::isRetired);
+        }
+        return this.scheduler;
+    }
+
+    /**
+     * Whether the entity is gone for good, so the tasks of its scheduler are retired.
+     * Only players are tracked so far.
+     */
+    protected boolean isRetired() {
+        return false;
     }
 
     @Override
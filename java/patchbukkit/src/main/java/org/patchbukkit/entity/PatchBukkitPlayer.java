@@ -1,5 +1,6 @@
 package org.patchbukkit.entity;
 
+import java.lang.foreign.MemorySegment;
 import java.lang.ref.WeakReference;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
@@ -9,6 +10,7 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
 import org.bukkit.BanEntry;
+import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.DyeColor;
 import org.bukkit.Effect;
@@ -72,6 +74,7 @@ import net.kyori.adventure.util.TriState;
 import net.md_5.bungee.api.chat.BaseComponent;
 import patchbukkit.bridge.NativeBridgeFfi;
 import patchbukkit.message.SendMessageRequest;
+import patchbukkit.abilities.AbilitiesLayout;
 import patchbukkit.abilities.SetAbilitiesRequest;
 import patchbukkit.sound.PlayerEntityPlaySoundRequest;
 import patchbukkit.sound.PlayerPlaySoundRequest;
@@ -87,6 +90,12 @@ public class PatchBukkitPlayer
         super(uuid, name);
     }
 
+    @Override
+    protected boolean isRetired() {
+        // Players are gone once they quit, a player who joins again gets a new instance
+        return Bukkit.getServer().getPlayer(this.uuid) != this;
+    }
+
     @Override
     public void sendRawMessage(String message) {
         this.sendRawMessage(null, message);
@@ -109,9 +118,7 @@ public class PatchBukkitPlayer
 
     @Override
     public void sendMessage(String... messages) {
-        for (String message : messages) {
-            this.sendMessage(message);
-        }
+        this.sendMessage(null, messages);
     }
 
     @Override
@@ -121,9 +128,16 @@ public class PatchBukkitPlayer
 
     @Override
     public void sendMessage(UUID sender, String... messages) {
+        if (sender == null) {
+            sender = this.getUniqueId();
+        }
+
+        var uuid = BridgeUtils.convertUuid(sender);
+        List<SendMessageRequest> requests = new ArrayList<>(messages.length);
         for (String message : messages) {
-            this.sendMessage(sender, message);
+            requests.add(SendMessageRequest.newBuilder().setMessage(message).setUuid(uuid).build());
         }
+        NativeBridgeFfi.sendMessageBatch(requests);
     }
 
     @Override
@@ -1213,7 +1227,12 @@ public class PatchBukkitPlayer
 
     @Override
     public boolean getAllowFlight() {
-        return NativeBridgeFfi.getAbilities(BridgeUtils.convertUuid(this.uuid)).getAllowFlying();
+        var abilities = this.fetchAbilities();
+        try {
+            return AbilitiesLayout.getAllowFlying(abilities);
+        } finally {
+            AbilitiesLayout.release(abilities);
+        }
     }
 
     @Override
@@ -1308,8 +1327,12 @@ public class PatchBukkitPlayer
 
     @Override
     public boolean isFlying() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'isFlying'");
+        var abilities = this.fetchAbilities();
+        try {
+            return AbilitiesLayout.getFlying(abilities);
+        } finally {
+            AbilitiesLayout.release(abilities);
+        }
     }
 
     @Override
@@ -1333,14 +1356,36 @@ public class PatchBukkitPlayer
 
     @Override
     public float getFlySpeed() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getFlySpeed'");
+        // Bukkit speeds are twice the protocol values
+        var abilities = this.fetchAbilities();
+        try {
+            return AbilitiesLayout.getFlySpeed(abilities) * 2f;
+        } finally {
+            AbilitiesLayout.release(abilities);
+        }
     }
 
     @Override
     public float getWalkSpeed() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getWalkSpeed'");
+        var abilities = this.fetchAbilities();
+        try {
+            return AbilitiesLayout.getWalkSpeed(abilities) * 2f;
+        } finally {
+            AbilitiesLayout.release(abilities);
+        }
+    }
+
+    /**
+     * Borrows an {@link AbilitiesLayout} struct and fills it with the player's
+     * abilities. The caller hands it back with {@link AbilitiesLayout#release}.
+     */
+    private MemorySegment fetchAbilities() {
+        var abilities = AbilitiesLayout.borrow();
+        if (!NativeBridgeFfi.getAbilities(BridgeUtils.convertUuid(this.uuid), abilities)) {
+            AbilitiesLayout.release(abilities);
+            throw new IllegalStateException("Player " + this.uuid + " is not online");
+        }
+        return abilities;
     }
 
     @Override
@@ -0,0 +1,76 @@
+package org.patchbukkit.events;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs the listeners of asynchronous events fired from Pumpkin on virtual threads.
+ * <p>
+ * Listeners of events such as pre-login or chat are allowed to block, e.g. on a
+ * database lookup. Running them on the thread Rust fired them from would queue
+ * them behind each other and behind every synchronous event, so {@link EventBridge}
+ * hands them to this dispatcher and Rust waits for the response asynchronously.
+ * <p>
+ * At most {@code -Dpatchbukkit.events.async.max-concurrency} events (256 by default)
+ * are dispatched at once, and at most {@code -Dpatchbukkit.events.async.plugin-concurrency}
+ * (16 by default) threads run the listeners of a single plugin at once, so a plugin
+ * that stalls cannot hold up the listeners of the others.
+ */
+final class AsyncEventDispatcher {
+    private static final int MAX_CONCURRENCY = Math.max(1, Integer.getInteger("patchbukkit.events.async.max-concurrency", 256));
+    private static final int PLUGIN_CONCURRENCY = Math.max(1, Integer.getInteger("patchbukkit.events.async.plugin-concurrency", 16));
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("PatchBukkit Async Event-", 0).factory()
+    );
+    private final Semaphore permits = new Semaphore(MAX_CONCURRENCY);
+    private final Map<Plugin, Semaphore> pluginPermits = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code dispatch} on a virtual thread once one of the dispatch permits is free.
+     * Waiting for it happens on the virtual thread as well, so the caller never blocks.
+     */
+    @NotNull
+    CompletableFuture<Void> submit(@NotNull Runnable dispatch) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        this.executor.execute(() -> {
+            this.permits.acquireUninterruptibly();
+            try {
+                dispatch.run();
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                this.permits.release();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Calls {@code listener} once its plugin is below its concurrency limit.
+     */
+    void call(@NotNull RegisteredListener listener, @NotNull Event event) throws EventException {
+        Semaphore permits = this.pluginPermits.computeIfAbsent(listener.getPlugin(), k -> new Semaphore(PLUGIN_CONCURRENCY));
+        permits.acquireUninterruptibly();
+        try {
+            listener.callEvent(event);
+        } finally {
+            permits.release();
+        }
+    }
+
+    void forget(@NotNull Plugin plugin) {
+        this.pluginPermits.remove(plugin);
+    }
+}
@@ -0,0 +1,46 @@
+package org.patchbukkit.events;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares which Pumpkin events an {@code @EventHandler} method actually needs, so
+ * Rust can drop the others before they reach the JVM.
+ * <p>
+ * Rust runs one handler for all listeners of an event and priority band, which
+ * forwards an event as soon as one of their filters accepts it. A filtered listener
+ * may therefore still see events its filter rejects, as long as another listener in
+ * its band wants them; the filter is meant to cut traffic for high-frequency events
+ * such as movement, not as a guarantee.
+ * <p>
+ * When several checks are set an event is delivered if any of them passes. Events
+ * without a player position, which have nothing to compare, are always delivered.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BridgeFilter {
+    /**
+     * Only deliver events after the player entered another block.
+     */
+    boolean blockChange() default false;
+
+    /**
+     * Only deliver events after the player moved at least this many blocks since
+     * the last delivered event.
+     */
+    double minDistance() default 0;
+
+    /**
+     * Only deliver events after the player turned at least this many degrees since
+     * the last delivered event.
+     */
+    float minRotation() default 0;
+
+    /**
+     * Deliver at most one event per player per tick, the latest one. Only honored
+     * for listeners Pumpkin does not wait for, which cannot change the event.
+     */
+    boolean coalesce() default false;
+}
@@ -0,0 +1,21 @@
+package org.patchbukkit.events;
+
+import org.jetbrains.annotations.NotNull;
+
+import patchbukkit.events.Event;
+
+/**
+ * A Bukkit event backed by the protobuf message Rust fired it with.
+ * <p>
+ * Fields are only decoded when a listener first reads them, and only the fields a
+ * listener changed are written back, so events nobody inspects cost no conversion
+ * in either direction.
+ */
+interface BridgedEvent {
+    /**
+     * Returns the changes to send back to Rust. Fields that were not changed are
+     * left unset, Rust keeps its own value for them.
+     */
+    @NotNull
+    Event toChanges();
+}
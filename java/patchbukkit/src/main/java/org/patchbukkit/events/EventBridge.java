@@ -0,0 +1,147 @@
+package org.patchbukkit.events;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.patchbukkit.PatchBukkitServer;
+
+import com.google.protobuf.CodedOutputStream;
+
+import patchbukkit.bridge.NativeBridgeFfi;
+import patchbukkit.events.CompleteEventRequest;
+import patchbukkit.events.FireEventRequest;
+import patchbukkit.events.FireEventResponse;
+
+/**
+ * Entry point Rust uses to fire Pumpkin events into Bukkit.
+ * <p>
+ * Instead of one j4rs call per step, Rust looks up the address of an FFM upcall
+ * stub once and then calls it directly with an encoded {@link FireEventRequest},
+ * getting the encoded {@link FireEventResponse} back in the same call. The
+ * response lives in a buffer owned by the calling thread and stays valid until
+ * that thread fires its next event.
+ * <p>
+ * Asynchronous events are the exception: their listeners run on the
+ * {@link AsyncEventDispatcher}, the call returns a {@code pending} response right
+ * away and the actual response is sent later through {@code CompleteEvent} with
+ * the completion id of the request.
+ */
+public final class EventBridge {
+    private static final Logger LOGGER = Logger.getLogger("PatchBukkit");
+
+    private static final long INITIAL_RESPONSE_SIZE = 256;
+    private static final ThreadLocal<ResponseBuffer> RESPONSE = ThreadLocal.withInitial(ResponseBuffer::new);
+    private static final FireEventResponse PENDING = FireEventResponse.newBuilder().setPending(true).build();
+
+    private static MemorySegment upcallStub;
+
+    private EventBridge() {
+    }
+
+    /**
+     * Returns the address of the upcall stub, with the native signature
+     * {@code const uint8_t *(const uint8_t *input, size_t input_len, size_t *output_len)}.
+     * Called once from Rust after the JVM is initialized.
+     */
+    public static synchronized long fireEventAddress() throws ReflectiveOperationException {
+        if (upcallStub == null) {
+            var handle = MethodHandles.lookup().findStatic(
+                EventBridge.class,
+                "fireEvent",
+                MethodType.methodType(MemorySegment.class, MemorySegment.class, long.class, MemorySegment.class)
+            );
+            upcallStub = Linker.nativeLinker().upcallStub(
+                handle,
+                FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS),
+                Arena.global()
+            );
+        }
+        return upcallStub.address();
+    }
+
+    /**
+     * Returns {@code NULL} if the event could not be fired. Nothing may escape
+     * from here, an exception thrown out of an upcall takes down the whole JVM.
+     */
+    private static MemorySegment fireEvent(MemorySegment input, long inputLen, MemorySegment outputLen) {
+        try {
+            var request = FireEventRequest.parseFrom(input.reinterpret(inputLen).asByteBuffer());
+
+            Event event = PatchBukkitEventFactory.createEvent(request.getEvent());
+            if (event == null) {
+                return MemorySegment.NULL;
+            }
+
+            var server = (PatchBukkitServer) Bukkit.getServer();
+            FireEventResponse response;
+            if (event.isAsynchronous() && request.getCompletionId() != 0) {
+                long completionId = request.getCompletionId();
+                server.getEventManager().fireAsyncEvent(event, request.getPriority())
+                    .whenComplete((ignored, error) -> complete(completionId, event, error));
+                response = PENDING;
+            } else {
+                server.getEventManager().fireEvent(event, request.getPriority());
+                response = PatchBukkitEventFactory.toFireEventResponse(event);
+            }
+
+            MemorySegment output = RESPONSE.get().write(response);
+            outputLen.reinterpret(ValueLayout.JAVA_LONG.byteSize()).set(ValueLayout.JAVA_LONG, 0, output.byteSize());
+            return output;
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, "Failed to fire event from Pumpkin", t);
+            return MemorySegment.NULL;
+        }
+    }
+
+    /**
+     * Sends the response of an asynchronous event to the Rust handler waiting for it.
+     */
+    private static void complete(long completionId, Event event, Throwable error) {
+        FireEventResponse response;
+        if (error != null) {
+            LOGGER.log(Level.SEVERE, "Failed to fire " + event.getEventName() + " from Pumpkin", error);
+            response = FireEventResponse.getDefaultInstance();
+        } else {
+            try {
+                response = PatchBukkitEventFactory.toFireEventResponse(event);
+            } catch (Throwable t) {
+                LOGGER.log(Level.SEVERE, "Failed to encode " + event.getEventName() + " for Pumpkin", t);
+                response = FireEventResponse.getDefaultInstance();
+            }
+        }
+
+        NativeBridgeFfi.completeEvent(CompleteEventRequest.newBuilder()
+            .setCompletionId(completionId)
+            .setResponse(response)
+            .build());
+    }
+
+    /**
+     * Growable native buffer the responses of one thread are serialized into.
+     */
+    private static final class ResponseBuffer {
+        private MemorySegment segment = Arena.ofAuto().allocate(INITIAL_RESPONSE_SIZE);
+
+        private MemorySegment write(FireEventResponse response) throws IOException {
+            int size = response.getSerializedSize();
+            if (size > segment.byteSize()) {
+                segment = Arena.ofAuto().allocate(Math.max(size, segment.byteSize() * 2));
+            }
+
+            CodedOutputStream output = CodedOutputStream.newInstance(segment.asByteBuffer());
+            response.writeTo(output);
+            output.flush();
+            return segment.asSlice(0, size);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.patchbukkit.events;
+
+import java.lang.classfile.ClassFile;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.DynamicConstantDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Creates an {@link EventExecutor} per {@code @EventHandler} method as a hidden class
+ * that calls the listener through a constant {@link MethodHandle}.
+ * <p>
+ * The handle is passed as the hidden class' class data and loaded with a dynamic
+ * constant, so the JIT sees a constant target and inlines the event type check and
+ * the listener call like a plain virtual call. The hidden classes are not strongly
+ * tied to any class loader and are unloaded together with the listeners using them.
+ * When a class cannot be generated, this falls back to {@link EventExecutor#create}.
+ */
+final class EventExecutors {
+    private static final Logger LOGGER = Logger.getLogger("PatchBukkit");
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType EXECUTE_TYPE = MethodType.methodType(void.class, Listener.class, Event.class);
+    private static final MethodHandle IS_INSTANCE;
+    private static final MethodHandle WRAP_EXCEPTION;
+
+    private static final ClassDesc CD_EVENT_EXECUTOR = ClassDesc.of(EventExecutor.class.getName());
+    private static final MethodTypeDesc MTD_EXECUTE = MethodTypeDesc.of(
+        ConstantDescs.CD_void,
+        ClassDesc.of(Listener.class.getName()),
+        ClassDesc.of(Event.class.getName())
+    );
+    private static final DynamicConstantDesc<MethodHandle> CLASS_DATA = DynamicConstantDesc.ofNamed(
+        ConstantDescs.BSM_CLASS_DATA,
+        ConstantDescs.DEFAULT_NAME,
+        ConstantDescs.CD_MethodHandle
+    );
+
+    private static final byte[] EXECUTOR_CLASS = generateExecutorClass();
+
+    static {
+        try {
+            IS_INSTANCE = LOOKUP.findVirtual(Class.class, "isInstance", MethodType.methodType(boolean.class, Object.class));
+            WRAP_EXCEPTION = LOOKUP.findStatic(
+                EventExecutors.class,
+                "wrapException",
+                MethodType.methodType(void.class, Throwable.class, Listener.class, Event.class)
+            );
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private EventExecutors() {
+    }
+
+    /**
+     * @param method     an accessible {@code @EventHandler} method
+     * @param eventClass the event type the method takes
+     */
+    @NotNull
+    static EventExecutor create(@NotNull Method method, @NotNull Class<? extends Event> eventClass) {
+        try {
+            MethodHandle handle = executorHandle(method, eventClass);
+            Class<?> executorClass = LOOKUP.defineHiddenClassWithClassData(EXECUTOR_CLASS, handle, true).lookupClass();
+            return (EventExecutor) executorClass.getConstructor().newInstance();
+        } catch (Throwable t) {
+            LOGGER.log(Level.FINE, "Falling back to a reflective executor for " + method.toGenericString(), t);
+            return EventExecutor.create(method, eventClass);
+        }
+    }
+
+    /**
+     * Returns {@code (Listener, Event) -> void}, skipping events of other types and
+     * wrapping whatever the listener throws in an {@link EventException} like the
+     * reflective executors do.
+     */
+    private static MethodHandle executorHandle(Method method, Class<? extends Event> eventClass)
+        throws IllegalAccessException {
+        // Respects the accessible flag set while scanning the listener
+        MethodHandle target = LOOKUP.unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            target = MethodHandles.dropArguments(target, 0, Listener.class);
+        }
+        target = target.asType(EXECUTE_TYPE);
+        target = MethodHandles.catchException(target, Throwable.class, WRAP_EXCEPTION);
+
+        MethodHandle test = IS_INSTANCE.bindTo(eventClass).asType(MethodType.methodType(boolean.class, Event.class));
+        test = MethodHandles.dropArguments(test, 0, Listener.class);
+        return MethodHandles.guardWithTest(test, target, MethodHandles.empty(EXECUTE_TYPE));
+    }
+
+    private static void wrapException(Throwable t, Listener listener, Event event) throws EventException {
+        throw new EventException(t);
+    }
+
+    /**
+     * {@code final class GeneratedEventExecutor implements EventExecutor}, whose
+     * {@code execute} is {@code ((MethodHandle) classData).invokeExact(listener, event)}.
+     * The same bytes are defined once per listener method with different class data.
+     */
+    private static byte[] generateExecutorClass() {
+        ClassDesc thisClass = ClassDesc.of(EventExecutors.class.getPackageName() + ".GeneratedEventExecutor");
+        return ClassFile.of().build(thisClass, classBuilder -> classBuilder
+            .withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SYNTHETIC)
+            .withInterfaceSymbols(CD_EVENT_EXECUTOR)
+            .withMethodBody(ConstantDescs.INIT_NAME, ConstantDescs.MTD_void, ClassFile.ACC_PUBLIC, code -> code
+                .aload(0)
+                .invokespecial(ConstantDescs.CD_Object, ConstantDescs.INIT_NAME, ConstantDescs.MTD_void)
+                .return_())
+            .withMethodBody("execute", MTD_EXECUTE, ClassFile.ACC_PUBLIC, code -> code
+                .ldc(CLASS_DATA)
+                .aload(1)
+                .aload(2)
+                .invokevirtual(ConstantDescs.CD_MethodHandle, "invokeExact", MTD_EXECUTE)
+                .return_()));
+    }
+}
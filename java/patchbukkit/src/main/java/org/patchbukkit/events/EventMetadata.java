@@ -0,0 +1,168 @@
+package org.patchbukkit.events;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.bukkit.Warning;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import patchbukkit.events.EventFilter;
+
+/**
+ * Reflection results for event and listener classes, computed once per class.
+ * <p>
+ * Values hang off the {@link ClassValue}s of the classes they describe, so they go
+ * away together with a plugin's class loader. Registering a listener class that was
+ * seen before needs no reflection and reuses its generated executors.
+ */
+final class EventMetadata {
+    private static final ClassValue<EventType> EVENT_TYPES = new ClassValue<>() {
+        @Override
+        protected EventType computeValue(@NotNull Class<?> type) {
+            return resolveEventType(type.asSubclass(Event.class));
+        }
+    };
+
+    private static final ClassValue<ListenerType> LISTENER_TYPES = new ClassValue<>() {
+        @Override
+        protected ListenerType computeValue(@NotNull Class<?> type) {
+            return scanListenerType(type);
+        }
+    };
+
+    private EventMetadata() {
+    }
+
+    @NotNull
+    static EventType eventType(@NotNull Class<? extends Event> type) {
+        return EVENT_TYPES.get(type);
+    }
+
+    /**
+     * @throws NoClassDefFoundError if the listener references a class that is not
+     *                              present, in which case nothing is cached
+     */
+    @NotNull
+    static ListenerType listenerType(@NotNull Class<?> type) {
+        return LISTENER_TYPES.get(type);
+    }
+
+    /**
+     * @param registrationClass the class declaring {@code getHandlerList}, null if there is none
+     * @param deprecatedClass   the first {@code @Deprecated} class from the event up to {@link Event}
+     */
+    record EventType(
+        @Nullable Class<? extends Event> registrationClass,
+        @Nullable HandlerList handlers,
+        @Nullable String error,
+        @Nullable Class<?> deprecatedClass,
+        @Nullable Warning warning
+    ) {
+        @NotNull
+        HandlerList handlerList() {
+            if (this.error != null) {
+                throw new IllegalPluginAccessException(this.error);
+            }
+            return this.handlers;
+        }
+    }
+
+    record HandlerMethod(
+        @NotNull Method method,
+        @NotNull Class<? extends Event> eventClass,
+        @NotNull EventPriority priority,
+        boolean ignoreCancelled,
+        @NotNull EventExecutor executor,
+        @Nullable EventFilter filter
+    ) {
+    }
+
+    /**
+     * @param invalid {@code @EventHandler} methods whose signature is not a single event parameter
+     */
+    record ListenerType(@NotNull List<HandlerMethod> handlers, @NotNull List<Method> invalid) {
+    }
+
+    private static EventType resolveEventType(Class<? extends Event> type) {
+        Class<?> deprecatedClass = null;
+        Warning warning = null;
+        for (Class<?> clazz = type; Event.class.isAssignableFrom(clazz); clazz = clazz.getSuperclass()) {
+            if (clazz.getAnnotation(Deprecated.class) != null) {
+                deprecatedClass = clazz;
+                warning = clazz.getAnnotation(Warning.class);
+                break;
+            }
+        }
+
+        try {
+            Method method = type.getDeclaredMethod("getHandlerList");
+            method.setAccessible(true);
+            HandlerList handlers = (HandlerList) method.invoke(null);
+            return new EventType(type, handlers, null, deprecatedClass, warning);
+        } catch (NoSuchMethodException e) {
+            Class<?> superclass = type.getSuperclass();
+            if (superclass != null && !superclass.equals(Event.class) && Event.class.isAssignableFrom(superclass)) {
+                EventType parent = EVENT_TYPES.get(superclass);
+                return new EventType(parent.registrationClass(), parent.handlers(), parent.error(), deprecatedClass, warning);
+            }
+            return new EventType(null, null, "Unable to find handler list for event " + type.getName()
+                + ". Static getHandlerList method required!", deprecatedClass, warning);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return new EventType(null, null, e.toString(), deprecatedClass, warning);
+        }
+    }
+
+    private static ListenerType scanListenerType(Class<?> type) {
+        Set<Method> methods = new LinkedHashSet<>();
+        methods.addAll(List.of(type.getMethods()));
+        methods.addAll(List.of(type.getDeclaredMethods()));
+
+        List<HandlerMethod> handlers = new ArrayList<>();
+        List<Method> invalid = new ArrayList<>();
+        for (Method method : methods) {
+            EventHandler eh = method.getAnnotation(EventHandler.class);
+            if (eh == null) continue;
+            // Do not register bridge or synthetic methods to avoid event duplication
+            // Fixes SPIGOT-893
+            if (method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+            if (method.getParameterTypes().length != 1 || !Event.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                invalid.add(method);
+                continue;
+            }
+
+            Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+            method.setAccessible(true);
+            BridgeFilter filter = method.getAnnotation(BridgeFilter.class);
+            handlers.add(new HandlerMethod(
+                method,
+                eventClass,
+                eh.priority(),
+                eh.ignoreCancelled(),
+                EventExecutors.create(method, eventClass),
+                filter != null ? encodeFilter(filter) : null
+            ));
+        }
+        return new ListenerType(List.copyOf(handlers), List.copyOf(invalid));
+    }
+
+    private static EventFilter encodeFilter(BridgeFilter filter) {
+        return EventFilter.newBuilder()
+            .setBlockChange(filter.blockChange())
+            .setMinDistance(filter.minDistance())
+            .setMinRotation(filter.minRotation())
+            .setCoalesce(filter.coalesce())
+            .build();
+    }
+}
@@ -0,0 +1,113 @@
+package org.patchbukkit.events;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.jetbrains.annotations.NotNull;
+
+import patchbukkit.bridge.NativeBridgeFfi;
+import patchbukkit.events.RegisterEventRequest;
+import patchbukkit.events.UnregisterEventRequest;
+
+/**
+ * The listeners Rust has been told about, so it can be told again when they go away.
+ * <p>
+ * Rust keeps a listener count per event type and priority band and skips the JVM
+ * entirely while it is zero. Every registered listener is announced with a
+ * {@link RegisterEventRequest}; listeners can leave their {@link HandlerList} through
+ * any of its static methods without us noticing, so {@link #reconcile} compares what
+ * was announced with what is still registered and sends the difference as an
+ * {@link UnregisterEventRequest}, along with the filters the removed listeners were
+ * registered with.
+ */
+final class EventSubscriptions {
+    private final Map<HandlerList, Map<Subscription, Set<RegisteredListener>>> subscriptions = new IdentityHashMap<>();
+
+    synchronized void add(
+        @NotNull HandlerList handlers,
+        @NotNull Class<? extends Event> event,
+        @NotNull RegisteredListener listener,
+        @NotNull Plugin plugin
+    ) {
+        int band = PatchBukkitEventManager.priorityBand(listener.getPriority());
+        this.subscriptions
+            .computeIfAbsent(handlers, k -> new HashMap<>())
+            .computeIfAbsent(new Subscription(event.getName(), band), k -> Collections.newSetFromMap(new IdentityHashMap<>()))
+            .add(listener);
+
+        var request = RegisterEventRequest.newBuilder()
+            .setEventType(event.getName())
+            .setPluginName(plugin.getName())
+            .setPriority(band)
+            .setBlocking(PatchBukkitEventManager.requiresBlocking(event, listener.getPriority()));
+        if (listener instanceof FilteredRegisteredListener filtered) {
+            request.setFilter(filtered.filter());
+        }
+        NativeBridgeFfi.registerEvent(request.build());
+    }
+
+    /**
+     * Unregisters the listeners that are no longer part of {@code handlers} from Rust.
+     */
+    synchronized void reconcile(@NotNull HandlerList handlers) {
+        Map<Subscription, Set<RegisteredListener>> bySubscription = this.subscriptions.get(handlers);
+        if (bySubscription == null) {
+            return;
+        }
+
+        Set<RegisteredListener> registered = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(registered, handlers.getRegisteredListeners());
+
+        Iterator<Map.Entry<Subscription, Set<RegisteredListener>>> it = bySubscription.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Subscription, Set<RegisteredListener>> entry = it.next();
+            Set<RegisteredListener> listeners = entry.getValue();
+
+            var request = UnregisterEventRequest.newBuilder()
+                .setEventType(entry.getKey().eventType())
+                .setPriority(entry.getKey().band());
+            int removed = 0;
+            for (Iterator<RegisteredListener> listenerIt = listeners.iterator(); listenerIt.hasNext(); ) {
+                RegisteredListener listener = listenerIt.next();
+                if (registered.contains(listener)) {
+                    continue;
+                }
+                listenerIt.remove();
+                removed++;
+                if (listener instanceof FilteredRegisteredListener filtered) {
+                    request.addFilters(filtered.filter());
+                }
+            }
+            if (removed > 0) {
+                NativeBridgeFfi.unregisterEvent(request.setCount(removed).build());
+            }
+            if (listeners.isEmpty()) {
+                it.remove();
+            }
+        }
+        if (bySubscription.isEmpty()) {
+            this.subscriptions.remove(handlers);
+        }
+    }
+
+    synchronized void reconcileAll() {
+        for (HandlerList handlers : this.subscriptions.keySet().toArray(new HandlerList[0])) {
+            this.reconcile(handlers);
+        }
+    }
+
+    /**
+     * @param eventType the event class the listener was registered for, which is
+     *                  not necessarily the class owning the HandlerList
+     */
+    private record Subscription(@NotNull String eventType, int band) {
+    }
+}
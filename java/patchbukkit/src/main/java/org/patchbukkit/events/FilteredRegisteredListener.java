@@ -0,0 +1,35 @@
+package org.patchbukkit.events;
+
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.jetbrains.annotations.NotNull;
+
+import patchbukkit.events.EventFilter;
+
+/**
+ * A listener whose handler method is annotated with {@link BridgeFilter}, carrying
+ * the filter to its {@code RegisterEvent} request.
+ */
+final class FilteredRegisteredListener extends RegisteredListener {
+    private final EventFilter filter;
+
+    FilteredRegisteredListener(
+        @NotNull Listener listener,
+        @NotNull EventExecutor executor,
+        @NotNull EventPriority priority,
+        @NotNull Plugin plugin,
+        boolean ignoreCancelled,
+        @NotNull EventFilter filter
+    ) {
+        super(listener, executor, priority, plugin, ignoreCancelled);
+        this.filter = filter;
+    }
+
+    @NotNull
+    EventFilter filter() {
+        return this.filter;
+    }
+}
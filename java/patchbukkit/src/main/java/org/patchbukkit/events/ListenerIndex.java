@@ -0,0 +1,68 @@
+package org.patchbukkit.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.RegisteredListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listeners of each {@link HandlerList} split by priority band, so firing a band
+ * only walks the listeners that belong to it.
+ * <p>
+ * {@link HandlerList#getRegisteredListeners()} hands out the same baked array
+ * until a listener is registered or unregistered, so an entry stays valid for as
+ * long as the array it was built from is still the baked one. Disabling a plugin
+ * unregisters its listeners, which invalidates the entries it appeared in.
+ * <p>
+ * A rebuild is also how listeners that left through {@link HandlerList#unregister}
+ * are noticed, so it is reported to the {@code onRebuild} callback.
+ */
+final class ListenerIndex {
+    private static final int BANDS = EventPriority.values().length;
+
+    private final Map<HandlerList, Entry> entries = new ConcurrentHashMap<>();
+    private final Consumer<HandlerList> onRebuild;
+
+    ListenerIndex(@NotNull Consumer<HandlerList> onRebuild) {
+        this.onRebuild = onRebuild;
+    }
+
+    @NotNull
+    RegisteredListener[] listeners(@NotNull HandlerList handlers, int band) {
+        RegisteredListener[] baked = handlers.getRegisteredListeners();
+        Entry entry = this.entries.get(handlers);
+        if (entry == null || entry.source != baked) {
+            entry = new Entry(baked);
+            this.entries.put(handlers, entry);
+            this.onRebuild.accept(handlers);
+        }
+        return entry.bands[band];
+    }
+
+    private static final class Entry {
+        private final RegisteredListener[] source;
+        private final RegisteredListener[][] bands = new RegisteredListener[BANDS][];
+
+        private Entry(RegisteredListener[] source) {
+            this.source = source;
+
+            List<List<RegisteredListener>> grouped = new ArrayList<>(BANDS);
+            for (int i = 0; i < BANDS; i++) {
+                grouped.add(new ArrayList<>());
+            }
+            // The baked array is already in priority order, which each band keeps
+            for (RegisteredListener listener : source) {
+                grouped.get(PatchBukkitEventManager.priorityBand(listener.getPriority())).add(listener);
+            }
+            for (int i = 0; i < BANDS; i++) {
+                this.bands[i] = grouped.get(i).toArray(new RegisteredListener[0]);
+            }
+        }
+    }
+}
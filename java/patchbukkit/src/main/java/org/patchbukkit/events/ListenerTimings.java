@@ -0,0 +1,163 @@
+package org.patchbukkit.events;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.patchbukkit.bridge.LatencyHistogram;
+import org.patchbukkit.bridge.SlowCallWatchdog;
+
+/**
+ * Timings of every registered listener, kept per plugin, event class and handler.
+ * <p>
+ * Switched on with {@code -Dpatchbukkit.timings=true}, which the Rust side passes
+ * when {@code listener-timings = true} is set in the PatchBukkit config. Executors
+ * are then wrapped at registration and record each call into a
+ * {@link LatencyHistogram}. The {@link SlowCallWatchdog} additionally logs a stack
+ * sample of any listener that has been running for longer than
+ * {@code -Dpatchbukkit.timings.slow-listener-threshold} milliseconds (50 by default,
+ * 0 disables it).
+ */
+public final class ListenerTimings {
+    private static final Logger LOGGER = Logger.getLogger("PatchBukkit");
+
+    public static final String ENABLED_PROPERTY = "patchbukkit.timings";
+    public static final String THRESHOLD_PROPERTY = "patchbukkit.timings.slow-listener-threshold";
+
+    public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong(THRESHOLD_PROPERTY, 50));
+
+    private static final Map<Key, Timing> TIMINGS = new ConcurrentHashMap<>();
+
+    private ListenerTimings() {
+    }
+
+    /**
+     * Returns {@code executor} wrapped so its calls are timed, or as is when timings
+     * are disabled.
+     *
+     * @param handler the handler method, or whatever identifies the listener best
+     */
+    @NotNull
+    static EventExecutor wrap(
+        @NotNull EventExecutor executor,
+        @NotNull Plugin plugin,
+        @NotNull Class<? extends Event> eventClass,
+        @NotNull String handler
+    ) {
+        if (!ENABLED) {
+            return executor;
+        }
+        Key key = new Key(plugin.getName(), eventClass.getName(), handler);
+        return new TimedExecutor(executor, TIMINGS.computeIfAbsent(key, Timing::new));
+    }
+
+    /**
+     * Returns the timings of every listener that was called at least once, the
+     * ones with the highest total time first.
+     */
+    @NotNull
+    public static List<ListenerSnapshot> snapshot() {
+        List<ListenerSnapshot> snapshots = new ArrayList<>(TIMINGS.size());
+        for (Timing timing : TIMINGS.values()) {
+            LatencyHistogram.Snapshot latency = timing.latency.snapshot();
+            if (latency.count() > 0) {
+                snapshots.add(new ListenerSnapshot(
+                    timing.key.plugin(),
+                    timing.key.eventClass(),
+                    timing.key.handler(),
+                    latency.count(),
+                    timing.totalNanos.sum(),
+                    latency
+                ));
+            }
+        }
+        snapshots.sort(Comparator.comparingLong(ListenerSnapshot::totalNanos).reversed());
+        return snapshots;
+    }
+
+    private record Key(String plugin, String eventClass, String handler) {
+    }
+
+    public record ListenerSnapshot(
+        String plugin,
+        String eventClass,
+        String handler,
+        long calls,
+        long totalNanos,
+        LatencyHistogram.Snapshot latency
+    ) {
+    }
+
+    private static final class Timing {
+        private final Key key;
+        private final LongAdder totalNanos = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private Timing(Key key) {
+            this.key = key;
+        }
+    }
+
+    private static final class ListenerCall extends SlowCallWatchdog.Call {
+        private final Timing timing;
+
+        private ListenerCall(Timing timing, long start) {
+            super(start, THRESHOLD_NANOS);
+            this.timing = timing;
+        }
+
+        @Override
+        protected @NotNull String describe() {
+            return "Listener " + this.timing.key.handler() + " of " + this.timing.key.plugin()
+                + " for " + this.timing.key.eventClass();
+        }
+    }
+
+    private static final class TimedExecutor implements EventExecutor {
+        private final EventExecutor delegate;
+        private final Timing timing;
+
+        private TimedExecutor(EventExecutor delegate, Timing timing) {
+            this.delegate = delegate;
+            this.timing = timing;
+        }
+
+        @Override
+        public void execute(@NotNull Listener listener, @NotNull Event event) throws EventException {
+            long start = System.nanoTime();
+            ListenerCall call = null;
+            if (THRESHOLD_NANOS > 0) {
+                call = new ListenerCall(this.timing, start);
+                SlowCallWatchdog.begin(call);
+            }
+            try {
+                this.delegate.execute(listener, event);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                if (call != null) {
+                    SlowCallWatchdog.end(call);
+                }
+
+                this.timing.totalNanos.add(elapsed);
+                this.timing.latency.record(elapsed);
+                if (THRESHOLD_NANOS > 0 && elapsed >= THRESHOLD_NANOS) {
+                    LOGGER.warning("Listener " + this.timing.key.handler() + " of " + this.timing.key.plugin()
+                        + " took " + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms to handle "
+                        + event.getEventName());
+                }
+            }
+        }
+    }
+}
@@ -1,79 +1,53 @@
 package org.patchbukkit.events;
 
-import com.google.protobuf.InvalidProtocolBufferException;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.patchbukkit.bridge.BridgeUtils;
 import patchbukkit.common.UUID;
 import patchbukkit.events.Event;
 import patchbukkit.events.FireEventResponse;
-import patchbukkit.events.PlayerJoinEvent;
 
 import java.util.logging.Logger;
 
+/**
+ * Entry points around the generated {@link BridgedEvents}, which holds the per-event
+ * conversions for every message marked with {@code (patchbukkit.ffi.bukkit_event)}.
+ */
 public class PatchBukkitEventFactory {
     private static final Logger LOGGER = Logger.getLogger("PatchBukkit");
 
     @Nullable
-    public static org.bukkit.event.Event createEventFromBytes(byte[] data) {
-        try {
-            Event event = Event.parseFrom(data);
-            return createEvent(event);
-        } catch (InvalidProtocolBufferException e) {
-            LOGGER.severe("Failed to parse Event: " + e.getMessage());
+    public static org.bukkit.event.Event createEvent(@NotNull Event event) {
+        if (event.getDataCase() == Event.DataCase.DATA_NOT_SET) {
+            LOGGER.warning("EventFactory: Received Event with no data");
             return null;
         }
-    }
-
-    @Nullable
-    public static org.bukkit.event.Event createEvent(@NotNull Event event) {
-        Event.DataCase dataCase = event.getDataCase();
-
-        return switch (dataCase) {
-            case PLAYER_JOIN -> {
-                PlayerJoinEvent joinEvent = event.getPlayerJoin();
-                Player player = getPlayer(joinEvent.getPlayerUuid().getValue());
-                if (player == null) yield null;
-
-                Component joinMessage = GsonComponentSerializer.gson().deserialize(joinEvent.getJoinMessage());
-                yield new org.bukkit.event.player.PlayerJoinEvent(player, joinMessage);
-            }
-            case DATA_NOT_SET -> {
-                LOGGER.warning("EventFactory: Received Event with no data");
-                yield null;
-            }
-        };
+        return BridgedEvents.create(event);
     }
 
     @NotNull
-    public static byte[] toFireEventResponse(@NotNull org.bukkit.event.Event event) {
+    public static FireEventResponse toFireEventResponse(@NotNull org.bukkit.event.Event event) {
         boolean cancelled = event instanceof org.bukkit.event.Cancellable c && c.isCancelled();
 
         FireEventResponse.Builder builder = FireEventResponse.newBuilder()
             .setCancelled(cancelled);
 
-        Event.Builder eventBuilder = Event.newBuilder();
-
-        if (event instanceof org.bukkit.event.player.PlayerJoinEvent joinEvent) {
-            String joinMessage = GsonComponentSerializer.gson().serialize(joinEvent.joinMessage());
-
-            eventBuilder.setPlayerJoin(
-                PlayerJoinEvent.newBuilder()
-                    .setPlayerUuid(UUID.newBuilder()
-                        .setValue(joinEvent.getPlayer().getUniqueId().toString())
-                        .build())
-                    .setJoinMessage(joinMessage)
-                    .build()
-            );
+        // Events fired from Pumpkin are always created by BridgedEvents
+        if (event instanceof BridgedEvent bridged) {
+            builder.setData(bridged.toChanges());
         }
 
-        builder.setData(eventBuilder.build());
+        return builder.build();
+    }
 
-        return builder.build().toByteArray();
+    /**
+     * Whether Rust applies changes to events of this type back to the Pumpkin event,
+     * see {@link #toFireEventResponse}.
+     */
+    public static boolean isModifiable(@NotNull Class<? extends org.bukkit.event.Event> eventClass) {
+        return BridgedEvents.isModifiable(eventClass);
     }
 
     public static boolean isCancellable(@NotNull org.bukkit.event.Event event) {
@@ -81,16 +55,16 @@ public class PatchBukkitEventFactory {
     }
 
     @Nullable
-    private static Player getPlayer(@NotNull String uuidStr) {
+    static Player getPlayer(@NotNull UUID bridgeUuid) {
         try {
-            java.util.UUID uuid = java.util.UUID.fromString(uuidStr);
+            java.util.UUID uuid = BridgeUtils.convertUuid(bridgeUuid);
             Player player = Bukkit.getServer().getPlayer(uuid);
             if (player == null) {
-                LOGGER.warning("EventFactory: Player not found for UUID " + uuidStr);
+                LOGGER.warning("EventFactory: Player not found for UUID " + uuid);
             }
             return player;
         } catch (IllegalArgumentException e) {
-            LOGGER.severe("EventFactory: Invalid UUID string: " + uuidStr);
+            LOGGER.severe("EventFactory: Invalid UUID string: " + bridgeUuid.getValue());
             return null;
         }
     }
@@ -2,8 +2,8 @@ package org.patchbukkit.events;
 
 import org.bukkit.Server;
 import org.bukkit.Warning;
+import org.bukkit.event.Cancellable;
 import org.bukkit.event.Event;
-import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
@@ -12,17 +12,8 @@ import org.bukkit.plugin.EventExecutor;
 import org.bukkit.plugin.IllegalPluginAccessException;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.RegisteredListener;
-import org.patchbukkit.bridge.BridgeUtils;
-
-import com.google.common.collect.Sets;
-
-import co.aikar.timings.TimedEventExecutor;
 
 import org.jetbrains.annotations.NotNull;
-import patchbukkit.bridge.NativeBridgeFfi;
-import patchbukkit.events.CallEventRequest;
-import patchbukkit.events.PlayerJoinEvent;
-import patchbukkit.events.RegisterEventRequest;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
@@ -30,11 +21,15 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
 public class PatchBukkitEventManager {
 
     private final Server server;
+    private final EventSubscriptions subscriptions = new EventSubscriptions();
+    private final ListenerIndex listenerIndex = new ListenerIndex(this.subscriptions::reconcile);
+    private final AsyncEventDispatcher asyncEvents = new AsyncEventDispatcher();
 
     public PatchBukkitEventManager(Server server) {
         this.server = server;
@@ -47,34 +42,16 @@ public class PatchBukkitEventManager {
             throw new IllegalStateException(event.getEventName() + " may only be triggered synchronously.");
         }
 
-        var request = CallEventRequest.newBuilder();
-        switch (event.getEventName()) {
-            case "org.bukkit.event.player.PlayerJoinEvent":
-                var castedEvent = (org.bukkit.event.player.PlayerJoinEvent) event;
-                request.setEvent(
-                    patchbukkit.events.Event.newBuilder().setPlayerJoin(
-                        PlayerJoinEvent.newBuilder()
-                            .setJoinMessage(castedEvent.joinMessage().toString())
-                            .setPlayerUuid(BridgeUtils.convertUuid(castedEvent.getPlayer().getUniqueId())).build()
-                    ).build()
-                );
-                break;
-        }
-        var response = NativeBridgeFfi.callEvent(request.build());
-
-        boolean handledByPumpkin;
-        if (response == null) handledByPumpkin = false;
-        else handledByPumpkin = response.getHandled();
-
-        if (!handledByPumpkin) {
-            // Pumpkin doesn't know this event type, dispatch Java-only
-            callEventJavaOnly(event);
-        }
+        // Plugin-fired events stay in Java, even the ones Pumpkin has a counterpart for.
+        // Firing them through Pumpkin would block the JVM worker on handlers that need
+        // the worker to answer, and the listeners would see a bridged copy instead of
+        // this event, so cancellation and changes would never reach the caller.
+        callEventJavaOnly(event);
     }
 
     /**
-    * Java-only event dispatch for events that don't have Pumpkin equivalents.
-    * Used for custom plugin events or unsupported Bukkit events.
+    * Java-only event dispatch, which runs the listeners of every band on the
+    * caller's thread with the caller's event object.
     */
     private void callEventJavaOnly(@NotNull Event event) {
         HandlerList handlers = event.getHandlers();
@@ -112,22 +89,26 @@ public class PatchBukkitEventManager {
     }
 
     /**
-     * Called from Rust (via j4rs) when a Pumpkin event fires for a specific plugin.
+     * Called from Rust (via {@link EventBridge}) when a Pumpkin event fires for a
+     * priority band.
      *
-     * Iterates PatchBukkitEvent's HandlerList, filters to the target plugin
-     * by name, and invokes its executors. Cancellation state is set on the
-     * event and read back by Rust after this returns.
+     * Rust registers a single handler per event type and band, so this runs the
+     * listeners of every plugin in that band, in the HandlerList's priority order.
+     * Cancellation state is set on the event and read back by Rust after this returns.
      *
-     * @param event      The PatchBukkitEvent populated by Rust
-     * @param pluginName The plugin whose handlers should execute
+     * @param event    The PatchBukkitEvent populated by Rust
+     * @param priority The priority band whose listeners should execute, see {@link #priorityBand}
      */
-    public void fireEvent(@NotNull Event event, @NotNull String pluginName) {
-        for (RegisteredListener listener : event.getHandlers().getRegisteredListeners()) {
-            if (!listener.getPlugin().getName().equals(pluginName)) continue;
+    public void fireEvent(@NotNull Event event, int priority) {
+        for (RegisteredListener listener : this.listenerIndex.listeners(event.getHandlers(), priority)) {
             if (!listener.getPlugin().isEnabled()) continue;
 
             try {
-                listener.callEvent(event);
+                if (event.isAsynchronous()) {
+                    this.asyncEvents.call(listener, event);
+                } else {
+                    listener.callEvent(event);
+                }
             } catch (Throwable ex) {
                 this.server.getLogger().log(
                     Level.SEVERE,
@@ -139,18 +120,27 @@ public class PatchBukkitEventManager {
         }
     }
 
+    /**
+     * Runs {@link #fireEvent} for an asynchronous event on a virtual thread, see
+     * {@link AsyncEventDispatcher}. The returned future completes once every listener
+     * of the band has run.
+     */
+    @NotNull
+    public CompletableFuture<Void> fireAsyncEvent(@NotNull Event event, int priority) {
+        return this.asyncEvents.submit(() -> this.fireEvent(event, priority));
+    }
+
     public void registerEvents(@NotNull Listener listener, @NotNull Plugin plugin) {
         if (!plugin.isEnabled()) {
             throw new IllegalPluginAccessException("Plugin attempted to register " + listener + " while not enabled");
         }
 
         for (Map.Entry<Class<? extends Event>, Set<RegisteredListener>> entry : this.createRegisteredListeners(listener, plugin).entrySet()) {
-            this.getEventListeners(this.getRegistrationClass(entry.getKey())).registerAll(entry.getValue());
+            HandlerList handlers = EventMetadata.eventType(entry.getKey()).handlerList();
+            handlers.registerAll(entry.getValue());
 
             for (RegisteredListener rl : entry.getValue()) {
-                int priorityOrdinal = Math.min(rl.getPriority().ordinal(), 4);
-                var request = RegisterEventRequest.newBuilder().setEventType(entry.getKey().getName()).setPluginName(plugin.getName()).setPriority(priorityOrdinal).setBlocking(true).build();
-                NativeBridgeFfi.registerEvent(request);
+                this.subscriptions.add(handlers, entry.getKey(), rl, plugin);
             }
         }
     }
@@ -164,104 +154,99 @@ public class PatchBukkitEventManager {
             throw new IllegalPluginAccessException("Plugin attempted to register " + event + " while not enabled");
         }
 
-        executor = new TimedEventExecutor(executor, plugin, null, event);
-        this.getEventListeners(event).register(new RegisteredListener(listener, executor, priority, plugin, ignoreCancelled));
-
-        int priorityOrdinal = Math.min(priority.ordinal(), 4);
-        var request = RegisterEventRequest.newBuilder().setEventType(event.getName()).setPluginName(plugin.getName()).setPriority(priorityOrdinal).setBlocking(true).build();
-        NativeBridgeFfi.registerEvent(request);
+        HandlerList handlers = EventMetadata.eventType(event).handlerList();
+        EventExecutor timed = ListenerTimings.wrap(executor, plugin, event, executor.getClass().getName());
+        RegisteredListener registration = new RegisteredListener(listener, timed, priority, plugin, ignoreCancelled);
+        handlers.register(registration);
 
+        this.subscriptions.add(handlers, event, registration, plugin);
     }
 
-    @NotNull
-    private HandlerList getEventListeners(@NotNull Class<? extends Event> type) {
-        try {
-            Method method = this.getRegistrationClass(type).getDeclaredMethod("getHandlerList");
-            method.setAccessible(true);
-            return (HandlerList) method.invoke(null);
-        } catch (Exception e) {
-            throw new IllegalPluginAccessException(e.toString());
-        }
+    /**
+     * Every priority is its own band. Pumpkin has no MONITOR priority, so Rust
+     * registers the MONITOR band at HIGHEST as well.
+     */
+    static int priorityBand(@NotNull EventPriority priority) {
+        return priority.ordinal();
     }
 
-    @NotNull
-    private Class<? extends Event> getRegistrationClass(@NotNull Class<? extends Event> clazz) {
-        try {
-            clazz.getDeclaredMethod("getHandlerList");
-            return clazz;
-        } catch (NoSuchMethodException e) {
-            if (clazz.getSuperclass() != null
-                && !clazz.getSuperclass().equals(Event.class)
-                && Event.class.isAssignableFrom(clazz.getSuperclass())) {
-                return this.getRegistrationClass(clazz.getSuperclass().asSubclass(Event.class));
-            } else {
-                throw new IllegalPluginAccessException("Unable to find handler list for event " + clazz.getName() + ". Static getHandlerList method required!");
-            }
+    /**
+     * Pumpkin only has to wait for the JVM when a listener can change the outcome.
+     * MONITOR listeners must not touch the event, and events that are neither
+     * cancellable nor carry data Rust applies back cannot be changed at all, so
+     * those are delivered while Pumpkin carries on.
+     */
+    static boolean requiresBlocking(@NotNull Class<? extends Event> event, @NotNull EventPriority priority) {
+        if (priority == EventPriority.MONITOR) {
+            return false;
         }
+        return Cancellable.class.isAssignableFrom(event) || PatchBukkitEventFactory.isModifiable(event);
     }
 
     @NotNull
     public Map<Class<? extends Event>, Set<RegisteredListener>> createRegisteredListeners(@NotNull Listener listener, @NotNull final Plugin plugin) {
         Map<Class<? extends Event>, Set<RegisteredListener>> ret = new HashMap<>();
 
-        Set<Method> methods;
+        EventMetadata.ListenerType listenerType;
         try {
-            Class<?> listenerClazz = listener.getClass();
-            methods = Sets.union(
-                Set.of(listenerClazz.getMethods()),
-                Set.of(listenerClazz.getDeclaredMethods())
-            );
+            listenerType = EventMetadata.listenerType(listener.getClass());
         } catch (NoClassDefFoundError e) {
             plugin.getLogger().severe("Failed to register events for " + listener.getClass() + " because " + e.getMessage() + " does not exist.");
             return ret;
         }
 
-        for (final Method method : methods) {
-            final EventHandler eh = method.getAnnotation(EventHandler.class);
-            if (eh == null) continue;
-            // Do not register bridge or synthetic methods to avoid event duplication
-            // Fixes SPIGOT-893
-            if (method.isBridge() || method.isSynthetic()) {
-                continue;
-            }
-            final Class<?> checkClass;
-            if (method.getParameterTypes().length != 1 || !Event.class.isAssignableFrom(checkClass = method.getParameterTypes()[0])) {
-                plugin.getLogger().severe(plugin.getPluginMeta().getDisplayName() + " attempted to register an invalid EventHandler method signature \"" + method.toGenericString() + "\" in " + listener.getClass());
-                continue;
-            }
-            final Class<? extends Event> eventClass = checkClass.asSubclass(Event.class);
-            method.setAccessible(true);
-            Set<RegisteredListener> eventSet = ret.computeIfAbsent(eventClass, k -> new HashSet<>());
-
-            for (Class<?> clazz = eventClass; Event.class.isAssignableFrom(clazz); clazz = clazz.getSuperclass()) {
-                // This loop checks for extending deprecated events
-                if (clazz.getAnnotation(Deprecated.class) != null) {
-                    Warning warning = clazz.getAnnotation(Warning.class);
-                    Warning.WarningState warningState = this.server.getWarningState();
-                    if (!warningState.printFor(warning)) {
-                        break;
-                    }
+        for (Method method : listenerType.invalid()) {
+            plugin.getLogger().severe(plugin.getPluginMeta().getDisplayName() + " attempted to register an invalid EventHandler method signature \"" + method.toGenericString() + "\" in " + listener.getClass());
+        }
+
+        for (EventMetadata.HandlerMethod handler : listenerType.handlers()) {
+            Set<RegisteredListener> eventSet = ret.computeIfAbsent(handler.eventClass(), k -> new HashSet<>());
+
+            EventMetadata.EventType eventType = EventMetadata.eventType(handler.eventClass());
+            if (eventType.deprecatedClass() != null) {
+                // This checks for extending deprecated events
+                Warning warning = eventType.warning();
+                Warning.WarningState warningState = this.server.getWarningState();
+                if (warningState.printFor(warning)) {
                     plugin.getLogger().log(
                         Level.WARNING,
                         String.format(
                             "\"%s\" has registered a listener for %s on method \"%s\", but the event is Deprecated. \"%s\"; please notify the authors %s.",
                             plugin.getPluginMeta().getDisplayName(),
-                            clazz.getName(),
-                            method.toGenericString(),
+                            eventType.deprecatedClass().getName(),
+                            handler.method().toGenericString(),
                             (warning != null && warning.reason().length() != 0) ? warning.reason() : "Server performance will be affected",
                             Arrays.toString(plugin.getPluginMeta().getAuthors().toArray())),
                         warningState == Warning.WarningState.ON ? new AuthorNagException(null) : null);
-                    break;
                 }
             }
 
-            EventExecutor executor = new TimedEventExecutor(EventExecutor.create(method, eventClass), plugin, method, eventClass);
-            eventSet.add(new RegisteredListener(listener, executor, eh.priority(), plugin, eh.ignoreCancelled()));
+            EventExecutor executor = ListenerTimings.wrap(
+                handler.executor(),
+                plugin,
+                handler.eventClass(),
+                listener.getClass().getName() + "#" + handler.method().getName()
+            );
+            if (handler.filter() != null) {
+                eventSet.add(new FilteredRegisteredListener(listener, executor, handler.priority(), plugin, handler.ignoreCancelled(), handler.filter()));
+            } else {
+                eventSet.add(new RegisteredListener(listener, executor, handler.priority(), plugin, handler.ignoreCancelled()));
+            }
         }
         return ret;
     }
 
+    /**
+     * Unregisters every listener of {@code plugin} and tells Rust which bands lost them.
+     */
+    public void unregisterEvents(@NotNull Plugin plugin) {
+        HandlerList.unregisterAll(plugin);
+        this.subscriptions.reconcileAll();
+        this.asyncEvents.forget(plugin);
+    }
+
     public void clearEvents() {
         HandlerList.unregisterAll();
+        this.subscriptions.reconcileAll();
     }
 }
@@ -0,0 +1,48 @@
+package org.patchbukkit.scheduler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs asynchronous scheduler tasks on virtual threads.
+ * <p>
+ * Async tasks mostly wait on databases and HTTP, so each run gets its own virtual
+ * thread instead of a slot in a platform thread pool, and a blocked task only parks
+ * its virtual thread. At most {@code -Dpatchbukkit.scheduler.async.plugin-concurrency}
+ * (256 by default) tasks of a single plugin run at once; the others wait for a
+ * permit on their own virtual thread.
+ */
+final class AsyncTaskExecutor {
+    private static final int PLUGIN_CONCURRENCY = Math.max(1, Integer.getInteger("patchbukkit.scheduler.async.plugin-concurrency", 256));
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("PatchBukkit Async Task-", 0).factory()
+    );
+    private final Map<Plugin, Semaphore> pluginPermits = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code task} on a virtual thread once {@code plugin} is below its
+     * concurrency limit. Never blocks the caller.
+     */
+    void execute(@NotNull Plugin plugin, @NotNull Runnable task) {
+        this.executor.execute(() -> {
+            Semaphore permits = this.pluginPermits.computeIfAbsent(plugin, k -> new Semaphore(PLUGIN_CONCURRENCY));
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    void forget(@NotNull Plugin plugin) {
+        this.pluginPermits.remove(plugin);
+    }
+}
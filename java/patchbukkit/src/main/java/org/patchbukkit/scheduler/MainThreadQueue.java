@@ -0,0 +1,130 @@
+package org.patchbukkit.scheduler;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.patchbukkit.bridge.LatencyHistogram;
+import org.patchbukkit.bridge.SlowCallWatchdog;
+
+/**
+ * Work handed to the primary thread through {@link PatchBukkitScheduler#callSyncMethod}
+ * and {@link PatchBukkitScheduler#getMainThreadExecutor}.
+ * <p>
+ * Any thread adds to an {@link MpscQueue}, and the primary thread drains it once per
+ * tick, after the tasks due on that tick. A drain stops once it has run for
+ * {@code -Dpatchbukkit.scheduler.main-thread-budget-nanos} (10ms by default) and
+ * leaves the rest for the next tick, so a flood of async completions delays them
+ * instead of stretching the tick. Each drain runs at least one entry, so the queue
+ * keeps moving even if a single entry takes longer than the budget. With
+ * {@link TaskTimings#ENABLED}, every entry is timed like a sync task of its plugin.
+ */
+public final class MainThreadQueue {
+    private static final long BUDGET_NANOS = Math.max(0, Long.getLong("patchbukkit.scheduler.main-thread-budget-nanos", 10_000_000L));
+
+    private final MpscQueue<Entry> queue = new MpscQueue<>();
+    private final LongAdder submitted = new LongAdder();
+    private final LatencyHistogram drainTimes = new LatencyHistogram();
+    private final TaskTimings timings;
+    /** Only written by the primary thread */
+    private volatile long drained;
+    private volatile long spilledTicks;
+
+    MainThreadQueue(@NotNull TaskTimings timings) {
+        this.timings = timings;
+    }
+
+    /**
+     * @param taskClass what the entry is reported as in the timings, e.g. the class of
+     *     the {@code Callable} behind a {@code FutureTask}
+     */
+    void submit(@NotNull Plugin plugin, @NotNull Runnable task, @NotNull Class<?> taskClass) {
+        this.queue.offer(new Entry(plugin, task, taskClass));
+        this.submitted.increment();
+    }
+
+    /**
+     * Runs queued entries until the queue is empty or the budget of this tick is
+     * spent. Only called on the primary thread.
+     */
+    void drain(long tick) {
+        if (this.queue.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long ran = 0;
+        Entry entry;
+        while ((ran == 0 || System.nanoTime() - start < BUDGET_NANOS) && (entry = this.queue.poll()) != null) {
+            this.run(entry, tick);
+            ran++;
+        }
+
+        this.drainTimes.record(System.nanoTime() - start);
+        this.drained += ran;
+        if (!this.queue.isEmpty()) {
+            this.spilledTicks++;
+        }
+    }
+
+    /**
+     * Number of entries waiting for the primary thread.
+     */
+    public long depth() {
+        return Math.max(0, this.submitted.sum() - this.drained);
+    }
+
+    /**
+     * Number of ticks that ran out of budget before the queue was empty.
+     */
+    public long spilledTicks() {
+        return this.spilledTicks;
+    }
+
+    /**
+     * Time spent per tick running queued entries, for ticks that had any.
+     */
+    @NotNull
+    public LatencyHistogram.Snapshot drainTimes() {
+        return this.drainTimes.snapshot();
+    }
+
+    private void run(@NotNull Entry entry, long tick) {
+        // Plugins that were disabled while their work was queued don't get to run it
+        if (!entry.plugin().isEnabled()) {
+            if (entry.task() instanceof Future<?> future) {
+                future.cancel(false);
+            }
+            return;
+        }
+        if (!TaskTimings.ENABLED) {
+            entry.runCatching();
+            return;
+        }
+
+        long start = System.nanoTime();
+        SlowCallWatchdog.Call call = this.timings.begin(entry.plugin(), entry.taskClass(), 0, start, tick);
+        try {
+            entry.runCatching();
+        } finally {
+            this.timings.end(call);
+            this.timings.record(entry.plugin(), entry.taskClass(), true, System.nanoTime() - start, tick);
+        }
+    }
+
+    private record Entry(Plugin plugin, Runnable task, Class<?> taskClass) {
+        void runCatching() {
+            try {
+                this.task.run();
+            } catch (Throwable t) {
+                this.plugin.getLogger().log(
+                    Level.WARNING,
+                    "Main thread task for " + this.plugin.getPluginMeta().getDisplayName() + " generated an exception",
+                    t
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.patchbukkit.scheduler;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Unbounded lock-free queue for many producers and a single consumer.
+ * <p>
+ * A producer swaps itself in as the tail with one atomic exchange and then links the
+ * previous tail to its node, so producers never retry against each other and the
+ * consumer never takes a lock. In the short window between those two steps the
+ * consumer sees the queue end early and picks the element up on its next poll.
+ * <p>
+ * {@link #offer} may be called from any thread, {@link #poll} only from the consumer.
+ */
+final class MpscQueue<E> {
+    private static final VarHandle TAIL;
+    private static final VarHandle NEXT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TAIL = lookup.findVarHandle(MpscQueue.class, "tail", Node.class);
+            NEXT = lookup.findVarHandle(Node.class, "next", Node.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** Last node, swapped by producers */
+    @SuppressWarnings("unused")
+    private volatile Node<E> tail;
+    /** Already consumed node before the first element, only touched by the consumer */
+    private Node<E> head;
+
+    MpscQueue() {
+        Node<E> stub = new Node<>(null);
+        this.head = stub;
+        this.tail = stub;
+    }
+
+    void offer(@NotNull E element) {
+        Node<E> node = new Node<>(element);
+        @SuppressWarnings("unchecked")
+        Node<E> previous = (Node<E>) TAIL.getAndSet(this, node);
+        NEXT.setRelease(previous, node);
+    }
+
+    @Nullable
+    E poll() {
+        @SuppressWarnings("unchecked")
+        Node<E> next = (Node<E>) NEXT.getAcquire(this.head);
+        if (next == null) {
+            return null;
+        }
+        E element = next.element;
+        // The node becomes the new head, drop the element so it can be collected
+        next.element = null;
+        this.head = next;
+        return element;
+    }
+
+    boolean isEmpty() {
+        return NEXT.getAcquire(this.head) == null;
+    }
+
+    private static final class Node<E> {
+        private E element;
+        @SuppressWarnings("unused")
+        private volatile Node<E> next;
+
+        private Node(E element) {
+            this.element = element;
+        }
+    }
+}
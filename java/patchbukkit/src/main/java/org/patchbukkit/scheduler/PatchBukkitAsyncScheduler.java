@@ -0,0 +1,210 @@
+package org.patchbukkit.scheduler;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import io.papermc.paper.threadedregions.scheduler.AsyncScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Folia's async scheduler, which counts in wall-clock time rather than ticks.
+ * <p>
+ * A single daemon timer thread waits out the delays and hands each run to the
+ * {@link AsyncTaskExecutor}, so runs get a virtual thread of their own and count
+ * towards the same per-plugin limit as Bukkit's async tasks. A repeating task is
+ * queued again once its run returns, so it never overlaps itself, and skips the
+ * runs it missed instead of catching up on them.
+ */
+final class PatchBukkitAsyncScheduler implements AsyncScheduler {
+    private final AsyncTaskExecutor executor;
+    private final TaskTimings timings;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("PatchBukkit Async Timer").daemon().factory()
+    );
+    private final Set<Task> tasks = ConcurrentHashMap.newKeySet();
+
+    PatchBukkitAsyncScheduler(@NotNull AsyncTaskExecutor executor, @NotNull TaskTimings timings) {
+        this.executor = executor;
+        this.timings = timings;
+    }
+
+    @Override
+    public @NotNull ScheduledTask runNow(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> task) {
+        return this.schedule(plugin, task, 0, 0);
+    }
+
+    @Override
+    public @NotNull ScheduledTask runDelayed(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> task, long delay,
+            @NotNull TimeUnit unit) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Delay may not be < 0");
+        }
+        return this.schedule(plugin, task, unit.toNanos(delay), 0);
+    }
+
+    @Override
+    public @NotNull ScheduledTask runAtFixedRate(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> task,
+            long initialDelay, long period, @NotNull TimeUnit unit) {
+        if (initialDelay < 0) {
+            throw new IllegalArgumentException("Initial delay may not be < 0");
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period may not be <= 0");
+        }
+        return this.schedule(plugin, task, unit.toNanos(initialDelay), unit.toNanos(period));
+    }
+
+    @Override
+    public void cancelTasks(@NotNull Plugin plugin) {
+        for (Task task : this.tasks) {
+            if (task.owner.equals(plugin)) {
+                task.cancel();
+            }
+        }
+    }
+
+    @NotNull
+    private ScheduledTask schedule(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> consumer, long delayNanos,
+            long periodNanos) {
+        PatchBukkitScheduler.checkEnabled(plugin);
+        Task task = new Task(plugin, consumer, periodNanos);
+        this.tasks.add(task);
+        task.nextRun = System.nanoTime() + delayNanos;
+        task.queue(delayNanos);
+        return task;
+    }
+
+    private final class Task implements ScheduledTask {
+        private final Plugin owner;
+        private final Consumer<ScheduledTask> consumer;
+        /** 0 for tasks that run once */
+        private final long periodNanos;
+        /** Guarded by this, as is everything below */
+        private ExecutionState state = ExecutionState.IDLE;
+        private ScheduledFuture<?> pending;
+        private long nextRun;
+
+        private Task(@NotNull Plugin owner, @NotNull Consumer<ScheduledTask> consumer, long periodNanos) {
+            this.owner = owner;
+            this.consumer = consumer;
+            this.periodNanos = periodNanos;
+        }
+
+        private void queue(long delayNanos) {
+            if (delayNanos <= 0) {
+                PatchBukkitAsyncScheduler.this.executor.execute(this.owner, this::run);
+                return;
+            }
+            ScheduledFuture<?> pending = PatchBukkitAsyncScheduler.this.timer.schedule(
+                () -> PatchBukkitAsyncScheduler.this.executor.execute(this.owner, this::run),
+                delayNanos,
+                TimeUnit.NANOSECONDS
+            );
+            synchronized (this) {
+                this.pending = pending;
+            }
+        }
+
+        private void run() {
+            synchronized (this) {
+                // Cancelled while it was handed over
+                if (this.state != ExecutionState.IDLE) {
+                    return;
+                }
+                this.state = ExecutionState.RUNNING;
+            }
+
+            long start = System.nanoTime();
+            try {
+                this.consumer.accept(this);
+            } catch (Throwable t) {
+                this.owner.getLogger().log(
+                    Level.WARNING,
+                    "Async task for " + this.owner.getPluginMeta().getDisplayName() + " generated an exception",
+                    t
+                );
+            }
+            if (TaskTimings.ENABLED) {
+                PatchBukkitAsyncScheduler.this.timings.record(
+                    this.owner, this.consumer.getClass(), false, System.nanoTime() - start, -1
+                );
+            }
+
+            long delayNanos = 0;
+            boolean done;
+            synchronized (this) {
+                done = this.state == ExecutionState.CANCELLED_RUNNING || !this.isRepeatingTask();
+                if (this.state == ExecutionState.CANCELLED_RUNNING) {
+                    this.state = ExecutionState.CANCELLED;
+                } else if (done) {
+                    this.state = ExecutionState.FINISHED;
+                } else {
+                    this.state = ExecutionState.IDLE;
+                    long now = System.nanoTime();
+                    this.nextRun = Math.max(this.nextRun + this.periodNanos, now);
+                    delayNanos = this.nextRun - now;
+                }
+            }
+            if (done) {
+                PatchBukkitAsyncScheduler.this.tasks.remove(this);
+            } else {
+                this.queue(delayNanos);
+            }
+        }
+
+        @Override
+        public @NotNull Plugin getOwningPlugin() {
+            return this.owner;
+        }
+
+        @Override
+        public boolean isRepeatingTask() {
+            return this.periodNanos > 0;
+        }
+
+        @Override
+        public @NotNull CancelledState cancel() {
+            synchronized (this) {
+                switch (this.state) {
+                    case IDLE -> {
+                        this.state = ExecutionState.CANCELLED;
+                        if (this.pending != null) {
+                            this.pending.cancel(false);
+                        }
+                    }
+                    case RUNNING -> {
+                        if (!this.isRepeatingTask()) {
+                            return CancelledState.RUNNING;
+                        }
+                        this.state = ExecutionState.CANCELLED_RUNNING;
+                        return CancelledState.NEXT_RUNS_CANCELLED;
+                    }
+                    case CANCELLED_RUNNING -> {
+                        return CancelledState.NEXT_RUNS_CANCELLED_ALREADY;
+                    }
+                    case CANCELLED -> {
+                        return CancelledState.CANCELLED_ALREADY;
+                    }
+                    default -> {
+                        return CancelledState.ALREADY_EXECUTED;
+                    }
+                }
+            }
+            PatchBukkitAsyncScheduler.this.tasks.remove(this);
+            return CancelledState.CANCELLED_BY_CALLER;
+        }
+
+        @Override
+        public synchronized @NotNull ExecutionState getExecutionState() {
+            return this.state;
+        }
+    }
+}
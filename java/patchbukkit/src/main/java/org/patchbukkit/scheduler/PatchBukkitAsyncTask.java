@@ -0,0 +1,28 @@
+package org.patchbukkit.scheduler;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitWorker;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A task of the {@link PatchBukkitScheduler} that runs on a virtual thread once its
+ * tick comes. While it runs, it is its own {@link BukkitWorker}.
+ */
+final class PatchBukkitAsyncTask extends PatchBukkitTask implements BukkitWorker {
+    /** The thread running the task, null while it waits */
+    volatile Thread thread;
+
+    PatchBukkitAsyncTask(@NotNull PatchBukkitScheduler scheduler, int taskId, @NotNull Plugin owner, @NotNull Object task, long period) {
+        super(scheduler, taskId, owner, task, period);
+    }
+
+    @Override
+    public boolean isSync() {
+        return false;
+    }
+
+    @Override
+    public @NotNull Thread getThread() {
+        return this.thread;
+    }
+}
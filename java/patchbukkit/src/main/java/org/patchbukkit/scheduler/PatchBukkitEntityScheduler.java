@@ -0,0 +1,64 @@
+package org.patchbukkit.scheduler;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import io.papermc.paper.threadedregions.scheduler.EntityScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Folia's scheduler of a single entity. Its tasks run on the primary thread wherever
+ * the entity is, and are retired instead of run once the entity is gone.
+ */
+final class PatchBukkitEntityScheduler implements EntityScheduler {
+    private final PatchBukkitScheduler scheduler;
+    private final BooleanSupplier retired;
+
+    PatchBukkitEntityScheduler(@NotNull PatchBukkitScheduler scheduler, @NotNull BooleanSupplier retired) {
+        this.scheduler = scheduler;
+        this.retired = retired;
+    }
+
+    @Override
+    public boolean execute(@NotNull Plugin plugin, @NotNull Runnable run, @Nullable Runnable retired, long delay) {
+        return this.schedule(plugin, task -> run.run(), retired, Math.max(delay, 1), PatchBukkitTask.NO_REPEATING) != null;
+    }
+
+    @Override
+    public @Nullable ScheduledTask run(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> task,
+            @Nullable Runnable retired) {
+        return this.schedule(plugin, task, retired, 1, PatchBukkitTask.NO_REPEATING);
+    }
+
+    @Override
+    public @Nullable ScheduledTask runDelayed(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> task,
+            @Nullable Runnable retired, long delayTicks) {
+        PatchBukkitScheduledTask.checkTicks(delayTicks, "Delay ticks");
+        return this.schedule(plugin, task, retired, delayTicks, PatchBukkitTask.NO_REPEATING);
+    }
+
+    @Override
+    public @Nullable ScheduledTask runAtFixedRate(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> task,
+            @Nullable Runnable retired, long initialDelayTicks, long periodTicks) {
+        PatchBukkitScheduledTask.checkTicks(initialDelayTicks, "Initial delay ticks");
+        PatchBukkitScheduledTask.checkTicks(periodTicks, "Period ticks");
+        return this.schedule(plugin, task, retired, initialDelayTicks, periodTicks);
+    }
+
+    /**
+     * Returns null without scheduling anything if the entity is already gone.
+     */
+    @Nullable
+    private ScheduledTask schedule(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> task,
+            @Nullable Runnable retired, long delayTicks, long periodTicks) {
+        if (this.retired.getAsBoolean()) {
+            return null;
+        }
+        return PatchBukkitScheduledTask.schedule(
+            this.scheduler, plugin, task, delayTicks, periodTicks, false, this.retired, retired
+        );
+    }
+}
@@ -0,0 +1,55 @@
+package org.patchbukkit.scheduler;
+
+import java.util.function.Consumer;
+
+import io.papermc.paper.threadedregions.scheduler.GlobalRegionScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Folia's global region scheduler, whose tasks run on the primary thread like every
+ * other sync task.
+ */
+final class PatchBukkitGlobalRegionScheduler implements GlobalRegionScheduler {
+    private final PatchBukkitScheduler scheduler;
+
+    PatchBukkitGlobalRegionScheduler(@NotNull PatchBukkitScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void execute(@NotNull Plugin plugin, @NotNull Runnable run) {
+        this.run(plugin, task -> run.run());
+    }
+
+    @Override
+    public @NotNull ScheduledTask run(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> task) {
+        return this.runDelayed(plugin, task, 1);
+    }
+
+    @Override
+    public @NotNull ScheduledTask runDelayed(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> task,
+            long delayTicks) {
+        PatchBukkitScheduledTask.checkTicks(delayTicks, "Delay ticks");
+        return PatchBukkitScheduledTask.schedule(
+            this.scheduler, plugin, task, delayTicks, PatchBukkitTask.NO_REPEATING, true
+        );
+    }
+
+    @Override
+    public @NotNull ScheduledTask runAtFixedRate(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> task,
+            long initialDelayTicks, long periodTicks) {
+        PatchBukkitScheduledTask.checkTicks(initialDelayTicks, "Initial delay ticks");
+        PatchBukkitScheduledTask.checkTicks(periodTicks, "Period ticks");
+        return PatchBukkitScheduledTask.schedule(this.scheduler, plugin, task, initialDelayTicks, periodTicks, true);
+    }
+
+    @Override
+    public void cancelTasks(@NotNull Plugin plugin) {
+        this.scheduler.cancelTasks(
+            plugin,
+            task -> task.task() instanceof PatchBukkitScheduledTask scheduledTask && scheduledTask.isGlobal()
+        );
+    }
+}
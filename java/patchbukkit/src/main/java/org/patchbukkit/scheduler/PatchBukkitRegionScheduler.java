@@ -0,0 +1,88 @@
+package org.patchbukkit.scheduler;
+
+import java.util.function.Consumer;
+
+import io.papermc.paper.threadedregions.scheduler.RegionScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Folia's region scheduler. Every region is owned by the primary thread, so the
+ * world and chunk a task is scheduled for don't change where it runs.
+ */
+final class PatchBukkitRegionScheduler implements RegionScheduler {
+    private final PatchBukkitScheduler scheduler;
+
+    PatchBukkitRegionScheduler(@NotNull PatchBukkitScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void execute(@NotNull Plugin plugin, @NotNull World world, int chunkX, int chunkZ, @NotNull Runnable run) {
+        this.schedule(plugin, task -> run.run(), 1, PatchBukkitTask.NO_REPEATING);
+    }
+
+    @Override
+    public void execute(@NotNull Plugin plugin, @NotNull Location location, @NotNull Runnable run) {
+        this.schedule(plugin, task -> run.run(), 1, PatchBukkitTask.NO_REPEATING);
+    }
+
+    @Override
+    public @NotNull ScheduledTask run(@NotNull Plugin plugin, @NotNull World world, int chunkX, int chunkZ,
+            @NotNull Consumer<ScheduledTask> task) {
+        return this.schedule(plugin, task, 1, PatchBukkitTask.NO_REPEATING);
+    }
+
+    @Override
+    public @NotNull ScheduledTask run(@NotNull Plugin plugin, @NotNull Location location,
+            @NotNull Consumer<ScheduledTask> task) {
+        return this.schedule(plugin, task, 1, PatchBukkitTask.NO_REPEATING);
+    }
+
+    @Override
+    public @NotNull ScheduledTask runDelayed(@NotNull Plugin plugin, @NotNull World world, int chunkX, int chunkZ,
+            @NotNull Consumer<ScheduledTask> task, long delayTicks) {
+        return this.runDelayed(plugin, task, delayTicks);
+    }
+
+    @Override
+    public @NotNull ScheduledTask runDelayed(@NotNull Plugin plugin, @NotNull Location location,
+            @NotNull Consumer<ScheduledTask> task, long delayTicks) {
+        return this.runDelayed(plugin, task, delayTicks);
+    }
+
+    @Override
+    public @NotNull ScheduledTask runAtFixedRate(@NotNull Plugin plugin, @NotNull World world, int chunkX, int chunkZ,
+            @NotNull Consumer<ScheduledTask> task, long initialDelayTicks, long periodTicks) {
+        return this.runAtFixedRate(plugin, task, initialDelayTicks, periodTicks);
+    }
+
+    @Override
+    public @NotNull ScheduledTask runAtFixedRate(@NotNull Plugin plugin, @NotNull Location location,
+            @NotNull Consumer<ScheduledTask> task, long initialDelayTicks, long periodTicks) {
+        return this.runAtFixedRate(plugin, task, initialDelayTicks, periodTicks);
+    }
+
+    @NotNull
+    private ScheduledTask runDelayed(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> task, long delayTicks) {
+        PatchBukkitScheduledTask.checkTicks(delayTicks, "Delay ticks");
+        return this.schedule(plugin, task, delayTicks, PatchBukkitTask.NO_REPEATING);
+    }
+
+    @NotNull
+    private ScheduledTask runAtFixedRate(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> task,
+            long initialDelayTicks, long periodTicks) {
+        PatchBukkitScheduledTask.checkTicks(initialDelayTicks, "Initial delay ticks");
+        PatchBukkitScheduledTask.checkTicks(periodTicks, "Period ticks");
+        return this.schedule(plugin, task, initialDelayTicks, periodTicks);
+    }
+
+    @NotNull
+    private ScheduledTask schedule(@NotNull Plugin plugin, @NotNull Consumer<ScheduledTask> task, long delayTicks,
+            long periodTicks) {
+        return PatchBukkitScheduledTask.schedule(this.scheduler, plugin, task, delayTicks, periodTicks, false);
+    }
+}
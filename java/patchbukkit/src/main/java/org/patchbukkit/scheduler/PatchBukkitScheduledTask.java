@@ -0,0 +1,108 @@
+package org.patchbukkit.scheduler;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A task of the region, entity or global scheduler, a Folia view of the
+ * {@link PatchBukkitTask} that runs it on the primary thread.
+ */
+final class PatchBukkitScheduledTask implements ScheduledTask, Runnable {
+    private final PatchBukkitScheduler scheduler;
+    private final Consumer<ScheduledTask> task;
+    private final boolean global;
+    /** Whether the entity the task belongs to is gone, null for other tasks */
+    private final @Nullable BooleanSupplier entityRetired;
+    private final @Nullable Runnable retired;
+    private PatchBukkitTask scheduled;
+
+    private PatchBukkitScheduledTask(@NotNull PatchBukkitScheduler scheduler, @NotNull Consumer<ScheduledTask> task,
+            boolean global, @Nullable BooleanSupplier entityRetired, @Nullable Runnable retired) {
+        this.scheduler = scheduler;
+        this.task = task;
+        this.global = global;
+        this.entityRetired = entityRetired;
+        this.retired = retired;
+    }
+
+    @NotNull
+    static PatchBukkitScheduledTask schedule(@NotNull PatchBukkitScheduler scheduler, @NotNull Plugin plugin,
+            @NotNull Consumer<ScheduledTask> task, long delayTicks, long periodTicks, boolean global) {
+        return schedule(scheduler, plugin, task, delayTicks, periodTicks, global, null, null);
+    }
+
+    @NotNull
+    static PatchBukkitScheduledTask schedule(@NotNull PatchBukkitScheduler scheduler, @NotNull Plugin plugin,
+            @NotNull Consumer<ScheduledTask> task, long delayTicks, long periodTicks, boolean global,
+            @Nullable BooleanSupplier entityRetired, @Nullable Runnable retired) {
+        PatchBukkitScheduledTask scheduledTask = new PatchBukkitScheduledTask(scheduler, task, global, entityRetired, retired);
+        // Bound before it is queued, so it can be cancelled from its first run on
+        scheduledTask.scheduled = scheduler.newTask(plugin, scheduledTask, periodTicks, true);
+        scheduler.submit(scheduledTask.scheduled, delayTicks);
+        return scheduledTask;
+    }
+
+    /**
+     * Folia rejects delays and periods below one tick instead of rounding them up.
+     */
+    static long checkTicks(long ticks, @NotNull String what) {
+        if (ticks <= 0) {
+            throw new IllegalArgumentException(what + " may not be <= 0");
+        }
+        return ticks;
+    }
+
+    /**
+     * The class of the scheduled code, for reports.
+     */
+    @NotNull
+    Class<?> taskClass() {
+        return this.task.getClass();
+    }
+
+    boolean isGlobal() {
+        return this.global;
+    }
+
+    @Override
+    public void run() {
+        if (this.entityRetired != null && this.entityRetired.getAsBoolean()) {
+            this.scheduler.cancel(this.scheduled);
+            if (this.retired != null) {
+                this.retired.run();
+            }
+            return;
+        }
+        this.task.accept(this);
+    }
+
+    @Override
+    public @NotNull Plugin getOwningPlugin() {
+        return this.scheduled.getOwner();
+    }
+
+    @Override
+    public boolean isRepeatingTask() {
+        return this.scheduled.isRepeating();
+    }
+
+    @Override
+    public @NotNull CancelledState cancel() {
+        return this.scheduler.cancelScheduled(this.scheduled);
+    }
+
+    @Override
+    public @NotNull ExecutionState getExecutionState() {
+        return switch (this.scheduled.state) {
+            case SCHEDULED -> ExecutionState.IDLE;
+            case RUNNING -> ExecutionState.RUNNING;
+            case CANCELLED -> ExecutionState.CANCELLED;
+            case DONE -> ExecutionState.FINISHED;
+        };
+    }
+}
@@ -1,246 +1,547 @@
 package org.patchbukkit.scheduler;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
-
+import java.util.function.Predicate;
+import java.util.logging.Level;
+
+import io.papermc.paper.threadedregions.scheduler.AsyncScheduler;
+import io.papermc.paper.threadedregions.scheduler.EntityScheduler;
+import io.papermc.paper.threadedregions.scheduler.GlobalRegionScheduler;
+import io.papermc.paper.threadedregions.scheduler.RegionScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.plugin.IllegalPluginAccessException;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitScheduler;
 import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.scheduler.BukkitWorker;
 import org.jetbrains.annotations.NotNull;
-
+import org.patchbukkit.bridge.SlowCallWatchdog;
+
+/**
+ * Bukkit scheduler driven by the server tick.
+ * <p>
+ * Rust calls {@link SchedulerBridge} once per tick (every 50ms) on the JVM worker
+ * thread, which is the Bukkit primary thread. Sync tasks wait in a
+ * {@link TimingWheel}, so scheduling and cancelling are O(1) and a tick only looks
+ * at the tasks due on it, however many repeating tasks are waiting. Like Bukkit, a
+ * task runs no earlier than on the tick after it was scheduled, and tasks due on
+ * the same tick run in the order they were created.
+ * <p>
+ * Async tasks wait in the same wheel, so a delay never holds a thread, and are
+ * handed to an {@link AsyncTaskExecutor} on their tick.
+ * <p>
+ * The Folia schedulers Paper plugins use are views over this one. Java code only
+ * ever runs on the JVM worker thread, not on Pumpkin's world threads, so region,
+ * entity and global tasks all run on the primary thread and every region is owned
+ * by it. Only the {@link AsyncScheduler} runs in parallel, on virtual threads.
+ */
 public class PatchBukkitScheduler implements BukkitScheduler {
+    private final AtomicInteger nextTaskId = new AtomicInteger(1);
+    private final Map<Integer, PatchBukkitTask> tasks = new ConcurrentHashMap<>();
+    /** Guarded by itself, as are the states of the tasks in it */
+    private final TimingWheel<PatchBukkitTask> wheel = new TimingWheel<>();
+    private final List<PatchBukkitTask> due = new ArrayList<>();
+    private final AsyncTaskExecutor asyncTasks = new AsyncTaskExecutor();
+    private final TaskTimings timings = new TaskTimings();
+    private final MainThreadQueue mainThread = new MainThreadQueue(this.timings);
+    private final PatchBukkitGlobalRegionScheduler globalRegionScheduler = new PatchBukkitGlobalRegionScheduler(this);
+    private final PatchBukkitRegionScheduler regionScheduler = new PatchBukkitRegionScheduler(this);
+    private final PatchBukkitAsyncScheduler asyncScheduler = new PatchBukkitAsyncScheduler(this.asyncTasks, this.timings);
+    private volatile long currentTick;
+
+    /**
+     * Runs the sync tasks due on the next tick, hands the async ones to their
+     * virtual threads and then drains the {@link MainThreadQueue}. Only called on the
+     * primary thread.
+     */
+    void tick() {
+        long start = System.nanoTime();
+        synchronized (this.wheel) {
+            this.wheel.advance(this.due);
+            this.currentTick = this.wheel.tick();
+        }
+        if (this.due.size() > 1) {
+            this.due.sort(Comparator.comparingInt(PatchBukkitTask::getTaskId));
+        }
+
+        for (PatchBukkitTask task : this.due) {
+            if (task instanceof PatchBukkitAsyncTask asyncTask) {
+                this.asyncTasks.execute(asyncTask.getOwner(), () -> this.runAsync(asyncTask));
+            } else if (this.begin(task)) {
+                this.execute(task);
+                this.finish(task);
+            }
+        }
+        this.due.clear();
+
+        this.mainThread.drain(this.currentTick);
+
+        if (TaskTimings.ENABLED) {
+            this.timings.recordTick(this.currentTick, System.nanoTime() - start);
+        }
+    }
+
+    private void runAsync(@NotNull PatchBukkitAsyncTask task) {
+        task.thread = Thread.currentThread();
+        if (!this.begin(task)) {
+            // Cancelled while it waited for a permit
+            return;
+        }
+        this.execute(task);
+        this.finish(task);
+    }
+
+    /**
+     * Marks a due task as running, returns false if it was cancelled in the meantime.
+     */
+    private boolean begin(@NotNull PatchBukkitTask task) {
+        synchronized (this.wheel) {
+            if (task.state != PatchBukkitTask.State.SCHEDULED) {
+                return false;
+            }
+            task.state = PatchBukkitTask.State.RUNNING;
+            return true;
+        }
+    }
+
+    private void execute(@NotNull PatchBukkitTask task) {
+        if (!TaskTimings.ENABLED) {
+            this.runCatching(task);
+            return;
+        }
+
+        long tick = this.currentTick;
+        boolean sync = task.isSync();
+        long start = System.nanoTime();
+        SlowCallWatchdog.Call call = sync
+            ? this.timings.begin(task.getOwner(), task.taskClass(), task.getTaskId(), start, tick)
+            : null;
+        try {
+            this.runCatching(task);
+        } finally {
+            this.timings.end(call);
+            this.timings.record(task.getOwner(), task.taskClass(), sync, System.nanoTime() - start, tick);
+        }
+    }
+
+    private void runCatching(@NotNull PatchBukkitTask task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            task.getOwner().getLogger().log(
+                Level.WARNING,
+                "Task #" + task.getTaskId() + " for " + task.getOwner().getPluginMeta().getDisplayName()
+                    + " generated an exception",
+                t
+            );
+        }
+    }
+
+    /**
+     * Queues a repeating task again, {@code period} ticks after the tick it was due
+     * on. An async task that outlasted its period is due on the next tick instead, so
+     * it never runs twice at once.
+     */
+    private void finish(@NotNull PatchBukkitTask task) {
+        boolean done;
+        synchronized (this.wheel) {
+            done = task.state != PatchBukkitTask.State.RUNNING || !task.isRepeating();
+            if (!done) {
+                task.state = PatchBukkitTask.State.SCHEDULED;
+                this.wheel.schedule(task, task.deadline() + task.period());
+            } else if (task.state == PatchBukkitTask.State.RUNNING) {
+                task.state = PatchBukkitTask.State.DONE;
+            }
+        }
+        if (done) {
+            this.tasks.remove(task.getTaskId(), task);
+        }
+    }
+
+    @NotNull
+    public GlobalRegionScheduler globalRegionScheduler() {
+        return this.globalRegionScheduler;
+    }
+
+    @NotNull
+    public RegionScheduler regionScheduler() {
+        return this.regionScheduler;
+    }
+
+    @NotNull
+    public AsyncScheduler asyncScheduler() {
+        return this.asyncScheduler;
+    }
+
+    /**
+     * Creates the scheduler of one entity, see {@link PatchBukkitEntityScheduler}.
+     */
+    @NotNull
+    public EntityScheduler entityScheduler(@NotNull BooleanSupplier retired) {
+        return new PatchBukkitEntityScheduler(this, retired);
+    }
+
+    /**
+     * Run counts and times of the tasks that ran so far, recorded while
+     * {@link TaskTimings#ENABLED}.
+     */
+    @NotNull
+    public TaskTimings timings() {
+        return this.timings;
+    }
+
+    /**
+     * Work other threads handed to the primary thread.
+     */
+    @NotNull
+    public MainThreadQueue mainThreadQueue() {
+        return this.mainThread;
+    }
+
+    /**
+     * Number of ticks run since the server started.
+     */
+    public int currentTick() {
+        return (int) this.currentTick;
+    }
+
+    @NotNull
+    private PatchBukkitTask schedule(@NotNull Plugin plugin, @NotNull Object task, long delay, long period, boolean sync) {
+        PatchBukkitTask scheduled = this.newTask(plugin, task, period, sync);
+        this.submit(scheduled, delay);
+        return scheduled;
+    }
+
+    /**
+     * Creates a task without queueing it yet, so wrappers can hold on to it before
+     * it can run.
+     */
+    @NotNull
+    PatchBukkitTask newTask(@NotNull Plugin plugin, @NotNull Object task, long period, boolean sync) {
+        checkEnabled(plugin);
+        if (period == 0) {
+            period = 1;
+        } else if (period < PatchBukkitTask.NO_REPEATING) {
+            period = PatchBukkitTask.NO_REPEATING;
+        }
+
+        int taskId = this.nextTaskId();
+        return sync
+            ? new PatchBukkitTask(this, taskId, plugin, task, period)
+            : new PatchBukkitAsyncTask(this, taskId, plugin, task, period);
+    }
+
+    void submit(@NotNull PatchBukkitTask task, long delay) {
+        this.tasks.put(task.getTaskId(), task);
+        synchronized (this.wheel) {
+            // A delay of 0 is the next tick as well, the wheel never schedules into the past
+            this.wheel.schedule(task, this.wheel.tick() + Math.max(delay, 0));
+        }
+    }
+
+    static void checkEnabled(@NotNull Plugin plugin) {
+        if (!plugin.isEnabled()) {
+            throw new IllegalPluginAccessException("Plugin attempted to register task while disabled");
+        }
+    }
+
+    private int nextTaskId() {
+        int id;
+        do {
+            id = this.nextTaskId.getAndUpdate(current -> current == Integer.MAX_VALUE ? 1 : current + 1);
+        } while (this.tasks.containsKey(id));
+        return id;
+    }
+
+    void cancel(@NotNull PatchBukkitTask task) {
+        synchronized (this.wheel) {
+            switch (task.state) {
+                case SCHEDULED -> this.wheel.cancel(task);
+                case RUNNING -> {
+                }
+                default -> {
+                    return;
+                }
+            }
+            task.state = PatchBukkitTask.State.CANCELLED;
+        }
+        this.tasks.remove(task.getTaskId(), task);
+    }
+
+    /**
+     * Cancels a task the way Folia's {@link ScheduledTask#cancel()} does: a task that
+     * runs once can no longer be cancelled once it started.
+     */
+    @NotNull
+    ScheduledTask.CancelledState cancelScheduled(@NotNull PatchBukkitTask task) {
+        ScheduledTask.CancelledState cancelled;
+        synchronized (this.wheel) {
+            switch (task.state) {
+                case SCHEDULED -> {
+                    this.wheel.cancel(task);
+                    cancelled = ScheduledTask.CancelledState.CANCELLED_BY_CALLER;
+                }
+                case RUNNING -> {
+                    if (!task.isRepeating()) {
+                        return ScheduledTask.CancelledState.RUNNING;
+                    }
+                    cancelled = ScheduledTask.CancelledState.NEXT_RUNS_CANCELLED;
+                }
+                case CANCELLED -> {
+                    return ScheduledTask.CancelledState.CANCELLED_ALREADY;
+                }
+                default -> {
+                    return ScheduledTask.CancelledState.ALREADY_EXECUTED;
+                }
+            }
+            task.state = PatchBukkitTask.State.CANCELLED;
+        }
+        this.tasks.remove(task.getTaskId(), task);
+        return cancelled;
+    }
 
     @Override
     public int scheduleSyncDelayedTask(@NotNull Plugin plugin, @NotNull Runnable task, long delay) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'scheduleSyncDelayedTask'");
+        return this.runTaskLater(plugin, task, delay).getTaskId();
     }
 
     @Override
     public int scheduleSyncDelayedTask(@NotNull Plugin plugin, @NotNull BukkitRunnable task, long delay) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'scheduleSyncDelayedTask'");
+        return this.scheduleSyncDelayedTask(plugin, (Runnable) task, delay);
     }
 
     @Override
     public int scheduleSyncDelayedTask(@NotNull Plugin plugin, @NotNull Runnable task) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'scheduleSyncDelayedTask'");
+        return this.scheduleSyncDelayedTask(plugin, task, 0);
     }
 
     @Override
     public int scheduleSyncDelayedTask(@NotNull Plugin plugin, @NotNull BukkitRunnable task) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'scheduleSyncDelayedTask'");
+        return this.scheduleSyncDelayedTask(plugin, (Runnable) task);
     }
 
     @Override
     public int scheduleSyncRepeatingTask(@NotNull Plugin plugin, @NotNull Runnable task, long delay, long period) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'scheduleSyncRepeatingTask'");
+        return this.runTaskTimer(plugin, task, delay, period).getTaskId();
     }
 
     @Override
     public int scheduleSyncRepeatingTask(@NotNull Plugin plugin, @NotNull BukkitRunnable task, long delay,
             long period) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'scheduleSyncRepeatingTask'");
+        return this.scheduleSyncRepeatingTask(plugin, (Runnable) task, delay, period);
     }
 
     @Override
     public int scheduleAsyncDelayedTask(@NotNull Plugin plugin, @NotNull Runnable task, long delay) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'scheduleAsyncDelayedTask'");
+        return this.runTaskLaterAsynchronously(plugin, task, delay).getTaskId();
     }
 
     @Override
     public int scheduleAsyncDelayedTask(@NotNull Plugin plugin, @NotNull Runnable task) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'scheduleAsyncDelayedTask'");
+        return this.scheduleAsyncDelayedTask(plugin, task, 0);
     }
 
     @Override
     public int scheduleAsyncRepeatingTask(@NotNull Plugin plugin, @NotNull Runnable task, long delay, long period) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'scheduleAsyncRepeatingTask'");
+        return this.runTaskTimerAsynchronously(plugin, task, delay, period).getTaskId();
     }
 
     @Override
     public <T> @NotNull Future<T> callSyncMethod(@NotNull Plugin plugin, @NotNull Callable<T> task) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'callSyncMethod'");
+        checkEnabled(plugin);
+        FutureTask<T> future = new FutureTask<>(task);
+        this.mainThread.submit(plugin, future, task.getClass());
+        return future;
     }
 
     @Override
     public void cancelTask(int taskId) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'cancelTask'");
+        PatchBukkitTask task = this.tasks.get(taskId);
+        if (task != null) {
+            this.cancel(task);
+        }
     }
 
     @Override
     public void cancelTasks(@NotNull Plugin plugin) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'cancelTasks'");
+        this.cancelTasks(plugin, task -> true);
+        this.asyncScheduler.cancelTasks(plugin);
+        this.asyncTasks.forget(plugin);
+    }
+
+    void cancelTasks(@NotNull Plugin plugin, @NotNull Predicate<PatchBukkitTask> filter) {
+        for (PatchBukkitTask task : this.tasks.values()) {
+            if (task.getOwner().equals(plugin) && filter.test(task)) {
+                this.cancel(task);
+            }
+        }
     }
 
     @Override
     public boolean isCurrentlyRunning(int taskId) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'isCurrentlyRunning'");
+        PatchBukkitTask task = this.tasks.get(taskId);
+        return task != null && task.state == PatchBukkitTask.State.RUNNING;
     }
 
     @Override
     public boolean isQueued(int taskId) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'isQueued'");
+        PatchBukkitTask task = this.tasks.get(taskId);
+        if (task == null) {
+            return false;
+        }
+        // A running repeating task is queued again once it returns
+        PatchBukkitTask.State state = task.state;
+        return state == PatchBukkitTask.State.SCHEDULED
+            || (state == PatchBukkitTask.State.RUNNING && task.isRepeating());
     }
 
     @Override
     public @NotNull List<BukkitWorker> getActiveWorkers() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getActiveWorkers'");
+        List<BukkitWorker> workers = new ArrayList<>();
+        for (PatchBukkitTask task : this.tasks.values()) {
+            if (task instanceof PatchBukkitAsyncTask asyncTask && asyncTask.state == PatchBukkitTask.State.RUNNING) {
+                workers.add(asyncTask);
+            }
+        }
+        return workers;
     }
 
     @Override
     public @NotNull List<BukkitTask> getPendingTasks() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getPendingTasks'");
+        List<BukkitTask> pending = new ArrayList<>();
+        for (PatchBukkitTask task : this.tasks.values()) {
+            if (!task.isCancelled()) {
+                pending.add(task);
+            }
+        }
+        return pending;
     }
 
     @Override
     public @NotNull BukkitTask runTask(@NotNull Plugin plugin, @NotNull Runnable task) throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTask'");
+        return this.runTaskLater(plugin, task, 0);
     }
 
     @Override
     public void runTask(@NotNull Plugin plugin, @NotNull Consumer<? super BukkitTask> task)
             throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTask'");
+        this.runTaskLater(plugin, task, 0);
     }
 
     @Override
     public @NotNull BukkitTask runTask(@NotNull Plugin plugin, @NotNull BukkitRunnable task)
             throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTask'");
+        return this.runTask(plugin, (Runnable) task);
     }
 
     @Override
     public @NotNull BukkitTask runTaskAsynchronously(@NotNull Plugin plugin, @NotNull Runnable task)
             throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskAsynchronously'");
+        return this.runTaskLaterAsynchronously(plugin, task, 0);
     }
 
     @Override
     public void runTaskAsynchronously(@NotNull Plugin plugin, @NotNull Consumer<? super BukkitTask> task)
             throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskAsynchronously'");
+        this.runTaskLaterAsynchronously(plugin, task, 0);
     }
 
     @Override
     public @NotNull BukkitTask runTaskAsynchronously(@NotNull Plugin plugin, @NotNull BukkitRunnable task)
             throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskAsynchronously'");
+        return this.runTaskAsynchronously(plugin, (Runnable) task);
     }
 
     @Override
     public @NotNull BukkitTask runTaskLater(@NotNull Plugin plugin, @NotNull Runnable task, long delay)
             throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskLater'");
+        return this.schedule(plugin, task, delay, PatchBukkitTask.NO_REPEATING, true);
     }
 
     @Override
     public void runTaskLater(@NotNull Plugin plugin, @NotNull Consumer<? super BukkitTask> task, long delay)
             throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskLater'");
+        this.schedule(plugin, task, delay, PatchBukkitTask.NO_REPEATING, true);
     }
 
     @Override
     public @NotNull BukkitTask runTaskLater(@NotNull Plugin plugin, @NotNull BukkitRunnable task, long delay)
             throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskLater'");
+        return this.runTaskLater(plugin, (Runnable) task, delay);
     }
 
     @Override
     public @NotNull BukkitTask runTaskLaterAsynchronously(@NotNull Plugin plugin, @NotNull Runnable task, long delay)
             throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskLaterAsynchronously'");
+        return this.schedule(plugin, task, delay, PatchBukkitTask.NO_REPEATING, false);
     }
 
     @Override
     public void runTaskLaterAsynchronously(@NotNull Plugin plugin, @NotNull Consumer<? super BukkitTask> task,
             long delay) throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskLaterAsynchronously'");
+        this.schedule(plugin, task, delay, PatchBukkitTask.NO_REPEATING, false);
     }
 
     @Override
     public @NotNull BukkitTask runTaskLaterAsynchronously(@NotNull Plugin plugin, @NotNull BukkitRunnable task,
             long delay) throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskLaterAsynchronously'");
+        return this.runTaskLaterAsynchronously(plugin, (Runnable) task, delay);
     }
 
     @Override
     public @NotNull BukkitTask runTaskTimer(@NotNull Plugin plugin, @NotNull Runnable task, long delay, long period)
             throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskTimer'");
+        return this.schedule(plugin, task, delay, period, true);
     }
 
     @Override
     public void runTaskTimer(@NotNull Plugin plugin, @NotNull Consumer<? super BukkitTask> task, long delay,
             long period) throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskTimer'");
+        this.schedule(plugin, task, delay, period, true);
     }
 
     @Override
     public @NotNull BukkitTask runTaskTimer(@NotNull Plugin plugin, @NotNull BukkitRunnable task, long delay,
             long period) throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskTimer'");
+        return this.runTaskTimer(plugin, (Runnable) task, delay, period);
     }
 
     @Override
     public @NotNull BukkitTask runTaskTimerAsynchronously(@NotNull Plugin plugin, @NotNull Runnable task, long delay,
             long period) throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskTimerAsynchronously'");
+        return this.schedule(plugin, task, delay, period, false);
     }
 
     @Override
     public void runTaskTimerAsynchronously(@NotNull Plugin plugin, @NotNull Consumer<? super BukkitTask> task,
             long delay, long period) throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskTimerAsynchronously'");
+        this.schedule(plugin, task, delay, period, false);
     }
 
     @Override
     public @NotNull BukkitTask runTaskTimerAsynchronously(@NotNull Plugin plugin, @NotNull BukkitRunnable task,
             long delay, long period) throws IllegalArgumentException {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'runTaskTimerAsynchronously'");
+        return this.runTaskTimerAsynchronously(plugin, (Runnable) task, delay, period);
     }
 
     @Override
     public @NotNull Executor getMainThreadExecutor(@NotNull Plugin plugin) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getMainThreadExecutor'");
+        return command -> {
+            checkEnabled(plugin);
+            this.mainThread.submit(plugin, command, command.getClass());
+        };
     }
-    
+
 }
@@ -0,0 +1,102 @@
+package org.patchbukkit.scheduler;
+
+import java.util.function.Consumer;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A task of the {@link PatchBukkitScheduler}, linked into its timing wheel while it
+ * waits for its tick.
+ */
+class PatchBukkitTask extends TimingWheel.Entry implements BukkitTask {
+    /** Period of tasks that run once */
+    static final long NO_REPEATING = -1;
+
+    enum State {
+        SCHEDULED,
+        RUNNING,
+        CANCELLED,
+        DONE
+    }
+
+    private final PatchBukkitScheduler scheduler;
+    private final int taskId;
+    private final Plugin owner;
+    private final Object task;
+    private final long period;
+    /** Written under the scheduler's lock, read anywhere */
+    volatile State state = State.SCHEDULED;
+
+    /**
+     * @param task a {@link Runnable} or a {@code Consumer<? super BukkitTask>}
+     */
+    PatchBukkitTask(@NotNull PatchBukkitScheduler scheduler, int taskId, @NotNull Plugin owner, @NotNull Object task, long period) {
+        this.scheduler = scheduler;
+        this.taskId = taskId;
+        this.owner = owner;
+        this.task = task;
+        this.period = period;
+    }
+
+    @SuppressWarnings("unchecked")
+    void run() {
+        if (this.task instanceof Runnable runnable) {
+            runnable.run();
+        } else {
+            ((Consumer<? super BukkitTask>) this.task).accept(this);
+        }
+    }
+
+    long period() {
+        return this.period;
+    }
+
+    boolean isRepeating() {
+        return this.period > 0;
+    }
+
+    /**
+     * The {@link Runnable} or {@link Consumer} this task runs.
+     */
+    @NotNull
+    Object task() {
+        return this.task;
+    }
+
+    /**
+     * The class of the scheduled code, for reports.
+     */
+    @NotNull
+    Class<?> taskClass() {
+        return this.task instanceof PatchBukkitScheduledTask scheduledTask
+            ? scheduledTask.taskClass()
+            : this.task.getClass();
+    }
+
+    @Override
+    public int getTaskId() {
+        return this.taskId;
+    }
+
+    @Override
+    public @NotNull Plugin getOwner() {
+        return this.owner;
+    }
+
+    @Override
+    public boolean isSync() {
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return this.state == State.CANCELLED;
+    }
+
+    @Override
+    public void cancel() {
+        this.scheduler.cancel(this);
+    }
+}
@@ -0,0 +1,60 @@
+package org.patchbukkit.scheduler;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+
+/**
+ * Entry point Rust drives the server tick through.
+ * <p>
+ * Like {@code EventBridge}, Rust looks up the address of an FFM upcall stub once and
+ * calls it on every tick from the JVM worker thread, so a tick costs one native call
+ * no matter how many tasks are due.
+ */
+public final class SchedulerBridge {
+    private static final Logger LOGGER = Logger.getLogger("PatchBukkit");
+
+    private static MemorySegment upcallStub;
+
+    private SchedulerBridge() {
+    }
+
+    /**
+     * Returns the address of the upcall stub, with the native signature
+     * {@code void tick(void)}. Called once from Rust after the JVM is initialized.
+     */
+    public static synchronized long tickAddress() throws ReflectiveOperationException {
+        if (upcallStub == null) {
+            var handle = MethodHandles.lookup().findStatic(
+                SchedulerBridge.class,
+                "tick",
+                MethodType.methodType(void.class)
+            );
+            upcallStub = Linker.nativeLinker().upcallStub(
+                handle,
+                FunctionDescriptor.ofVoid(),
+                Arena.global()
+            );
+        }
+        return upcallStub.address();
+    }
+
+    /**
+     * Nothing may escape from here, an exception thrown out of an upcall takes down
+     * the whole JVM.
+     */
+    private static void tick() {
+        try {
+            ((PatchBukkitScheduler) Bukkit.getScheduler()).tick();
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, "Failed to run server tick", t);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package org.patchbukkit.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.patchbukkit.bridge.LatencyHistogram;
+import org.patchbukkit.bridge.SlowCallWatchdog;
+import org.patchbukkit.events.ListenerTimings;
+
+/**
+ * Timings of scheduler tasks and of the ticks they run on.
+ * <p>
+ * Switched on together with the {@link ListenerTimings}. Every task run, including
+ * the work drained from the {@link MainThreadQueue}, is recorded per plugin and task
+ * class into a {@link LatencyHistogram}, and so is every whole tick. A tick that
+ * takes longer than 50ms overruns, and the overrun is charged to the longest sync
+ * task that ran on it. The {@link SlowCallWatchdog} logs a stack sample of the
+ * primary thread while a sync task has been running for longer than
+ * {@code -Dpatchbukkit.scheduler.slow-task-threshold} milliseconds (50 by default, 0
+ * disables it), so the warning shows where the task stalls the tick.
+ */
+public final class TaskTimings {
+    private static final Logger LOGGER = Logger.getLogger("PatchBukkit");
+
+    public static final String THRESHOLD_PROPERTY = "patchbukkit.scheduler.slow-task-threshold";
+
+    public static final boolean ENABLED = Boolean.getBoolean(ListenerTimings.ENABLED_PROPERTY);
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong(THRESHOLD_PROPERTY, 50));
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    /** Overrun ticks remembered per task class and for the server */
+    private static final int RECENT_OVERRUNS = 8;
+
+    private final Map<Key, Timing> timings = new ConcurrentHashMap<>();
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private final Overruns tickOverruns = new Overruns();
+
+    /** The longest sync run of the current tick, only touched by the primary thread */
+    private Timing tickLongest;
+    private long tickLongestNanos;
+
+    TaskTimings() {
+    }
+
+    /**
+     * Hands a sync run that starts on the current thread to the watchdog.
+     *
+     * @param taskId 0 for work from the {@link MainThreadQueue}
+     * @return what to pass to {@link #end}
+     */
+    @Nullable
+    SlowCallWatchdog.Call begin(@NotNull Plugin plugin, @NotNull Class<?> taskClass, int taskId, long start, long tick) {
+        if (THRESHOLD_NANOS <= 0) {
+            return null;
+        }
+        TaskCall call = new TaskCall(plugin, taskClass, taskId, start, tick);
+        SlowCallWatchdog.begin(call);
+        return call;
+    }
+
+    void end(@Nullable SlowCallWatchdog.Call call) {
+        if (call != null) {
+            SlowCallWatchdog.end(call);
+        }
+    }
+
+    /**
+     * Records one run of a task.
+     *
+     * @param tick the tick a sync task ran on
+     */
+    void record(@NotNull Plugin plugin, @NotNull Class<?> taskClass, boolean sync, long elapsedNanos, long tick) {
+        Key key = new Key(plugin.getName(), nameOf(taskClass), sync);
+        Timing timing = this.timings.computeIfAbsent(key, Timing::new);
+        timing.totalNanos.add(elapsedNanos);
+        timing.latency.record(elapsedNanos);
+
+        if (!sync) {
+            return;
+        }
+        if (elapsedNanos > this.tickLongestNanos) {
+            this.tickLongest = timing;
+            this.tickLongestNanos = elapsedNanos;
+        }
+        if (THRESHOLD_NANOS > 0 && elapsedNanos >= THRESHOLD_NANOS) {
+            LOGGER.warning("Task " + key.taskClass() + " of " + key.plugin() + " took "
+                + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + "ms on tick " + tick);
+        }
+    }
+
+    /**
+     * Records how long a whole tick took, from the first task due on it to the end of
+     * the main thread queue drain. Only called on the primary thread.
+     */
+    void recordTick(long tick, long elapsedNanos) {
+        Timing longest = this.tickLongest;
+        long longestNanos = this.tickLongestNanos;
+        this.tickLongest = null;
+        this.tickLongestNanos = 0;
+
+        this.tickTimes.record(elapsedNanos);
+        if (elapsedNanos <= TICK_NANOS) {
+            return;
+        }
+
+        this.tickOverruns.add(tick);
+        StringBuilder message = new StringBuilder()
+            .append("Tick ").append(tick)
+            .append(" took ").append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append("ms");
+        if (longest != null) {
+            longest.overruns.add(tick);
+            message.append(", longest task ").append(longest.key.taskClass())
+                .append(" of ").append(longest.key.plugin())
+                .append(" took ").append(TimeUnit.NANOSECONDS.toMillis(longestNanos)).append("ms");
+        }
+        LOGGER.warning(message.toString());
+    }
+
+    /**
+     * Returns how long whole ticks took and which ones overran.
+     */
+    @NotNull
+    public TickSnapshot tickSnapshot() {
+        synchronized (this.tickOverruns) {
+            return new TickSnapshot(
+                this.tickOverruns.count,
+                List.copyOf(this.tickOverruns.recentTicks),
+                this.tickTimes.snapshot()
+            );
+        }
+    }
+
+    /**
+     * Returns the timings of every task class that ran at least once, the ones with
+     * the highest total time first.
+     */
+    @NotNull
+    public List<TaskSnapshot> snapshot() {
+        List<TaskSnapshot> snapshots = new ArrayList<>(this.timings.size());
+        for (Timing timing : this.timings.values()) {
+            LatencyHistogram.Snapshot latency = timing.latency.snapshot();
+            if (latency.count() == 0) {
+                continue;
+            }
+            long overruns;
+            List<Long> overrunTicks;
+            synchronized (timing.overruns) {
+                overruns = timing.overruns.count;
+                overrunTicks = List.copyOf(timing.overruns.recentTicks);
+            }
+            snapshots.add(new TaskSnapshot(
+                timing.key.plugin(),
+                timing.key.taskClass(),
+                timing.key.sync(),
+                latency.count(),
+                timing.totalNanos.sum(),
+                overruns,
+                overrunTicks,
+                latency
+            ));
+        }
+        snapshots.sort(Comparator.comparingLong(TaskSnapshot::totalNanos).reversed());
+        return snapshots;
+    }
+
+    /**
+     * Returns the timings of {@link #snapshot()} summed up per plugin, the ones with
+     * the highest total time first.
+     */
+    @NotNull
+    public List<PluginSnapshot> pluginSnapshot() {
+        Map<String, PluginSnapshot> plugins = new LinkedHashMap<>();
+        for (TaskSnapshot task : this.snapshot()) {
+            long lastOverrunTick = task.overrunTicks().isEmpty() ? -1 : task.overrunTicks().getLast();
+            plugins.merge(
+                task.plugin(),
+                new PluginSnapshot(task.plugin(), task.runs(), task.totalNanos(), task.latency().max(), task.overruns(), lastOverrunTick),
+                (a, b) -> new PluginSnapshot(
+                    a.plugin(),
+                    a.runs() + b.runs(),
+                    a.totalNanos() + b.totalNanos(),
+                    Math.max(a.maxNanos(), b.maxNanos()),
+                    a.overruns() + b.overruns(),
+                    Math.max(a.lastOverrunTick(), b.lastOverrunTick())
+                )
+            );
+        }
+        List<PluginSnapshot> snapshots = new ArrayList<>(plugins.values());
+        snapshots.sort(Comparator.comparingLong(PluginSnapshot::totalNanos).reversed());
+        return snapshots;
+    }
+
+    /**
+     * Lambdas are hidden classes named after their enclosing class plus an address,
+     * the address is dropped so reports stay readable.
+     */
+    @NotNull
+    private static String nameOf(@NotNull Class<?> taskClass) {
+        String name = taskClass.getName();
+        int address = taskClass.isHidden() ? name.indexOf('/') : -1;
+        return address < 0 ? name : name.substring(0, address);
+    }
+
+    private record Key(String plugin, String taskClass, boolean sync) {
+    }
+
+    /**
+     * @param overrunTicks the most recent overrun ticks the task was the longest on, oldest first
+     */
+    public record TaskSnapshot(
+        String plugin,
+        String taskClass,
+        boolean sync,
+        long runs,
+        long totalNanos,
+        long overruns,
+        List<Long> overrunTicks,
+        LatencyHistogram.Snapshot latency
+    ) {
+    }
+
+    /**
+     * @param lastOverrunTick -1 if no task of the plugin was the longest on an overrun tick
+     */
+    public record PluginSnapshot(
+        String plugin,
+        long runs,
+        long totalNanos,
+        long maxNanos,
+        long overruns,
+        long lastOverrunTick
+    ) {
+    }
+
+    /**
+     * @param overrunTicks the most recent ticks that overran, oldest first
+     * @param tickTimes how long each tick took
+     */
+    public record TickSnapshot(
+        long overruns,
+        List<Long> overrunTicks,
+        LatencyHistogram.Snapshot tickTimes
+    ) {
+    }
+
+    private static final class Timing {
+        private final Key key;
+        private final LongAdder totalNanos = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Overruns overruns = new Overruns();
+
+        private Timing(Key key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Overrun count and the most recent overrun ticks, guarded by the instance.
+     */
+    private static final class Overruns {
+        private final ArrayDeque<Long> recentTicks = new ArrayDeque<>(RECENT_OVERRUNS);
+        private long count;
+
+        private synchronized void add(long tick) {
+            this.count++;
+            if (this.recentTicks.size() == RECENT_OVERRUNS) {
+                this.recentTicks.removeFirst();
+            }
+            this.recentTicks.addLast(tick);
+        }
+    }
+
+    private static final class TaskCall extends SlowCallWatchdog.Call {
+        private final Plugin plugin;
+        private final Class<?> taskClass;
+        private final int taskId;
+        private final long tick;
+
+        private TaskCall(Plugin plugin, Class<?> taskClass, int taskId, long start, long tick) {
+            super(start, THRESHOLD_NANOS);
+            this.plugin = plugin;
+            this.taskClass = taskClass;
+            this.taskId = taskId;
+            this.tick = tick;
+        }
+
+        @Override
+        protected @NotNull String describe() {
+            return (this.taskId > 0 ? "Task #" + this.taskId : "Main thread task")
+                + " (" + nameOf(this.taskClass) + ") of " + this.plugin.getName() + " on tick " + this.tick;
+        }
+    }
+}
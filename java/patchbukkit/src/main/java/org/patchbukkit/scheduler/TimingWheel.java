@@ -0,0 +1,169 @@
+package org.patchbukkit.scheduler;
+
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Hierarchical timing wheel counting in server ticks.
+ * <p>
+ * Level {@code n} has 64 slots of {@code 64^n} ticks each, so five levels cover
+ * 2^30 ticks. An entry goes into the lowest level its deadline fits in, in the slot
+ * its deadline falls into, and moves down a level each time the wheel reaches the
+ * start of that slot. Inserting and cancelling only link or unlink the entry, and a
+ * tick only touches the slots whose time has come, no matter how many entries are
+ * waiting in the others.
+ * <p>
+ * Not thread-safe, the scheduler guards it with its own lock.
+ */
+final class TimingWheel<T extends TimingWheel.Entry> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+    /** Deadlines further away are parked in the top level and placed again once reached */
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final Entry[][] slots = new Entry[LEVELS][SLOTS];
+    private long tick;
+    private int size;
+
+    /**
+     * The last tick {@link #advance} reached.
+     */
+    long tick() {
+        return this.tick;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Schedules {@code entry}, which must not be scheduled already, for
+     * {@code deadline}. Deadlines that are not after the current tick are due on the
+     * next one.
+     */
+    void schedule(@NotNull T entry, long deadline) {
+        Entry scheduled = entry;
+        scheduled.deadline = Math.max(deadline, this.tick + 1);
+        this.place(scheduled);
+        this.size++;
+    }
+
+    /**
+     * Removes {@code entry} from the wheel, returns false if it was not scheduled.
+     */
+    boolean cancel(@NotNull T entry) {
+        if (!entry.isScheduled()) {
+            return false;
+        }
+        this.unlink(entry);
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Moves to the next tick and adds the entries due on it to {@code due}, which no
+     * longer count as scheduled.
+     */
+    @SuppressWarnings("unchecked")
+    void advance(@NotNull List<? super T> due) {
+        long tick = ++this.tick;
+
+        // Higher levels first, what they cascade may land in a lower slot due right now
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = SLOT_BITS * level;
+            if ((tick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+            Entry entry = this.detach(level, (int) ((tick >>> shift) & SLOT_MASK));
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.next = null;
+                this.place(entry);
+                entry = next;
+            }
+        }
+
+        Entry entry = this.detach(0, (int) (tick & SLOT_MASK));
+        while (entry != null) {
+            Entry next = entry.next;
+            entry.next = null;
+            if (entry.deadline > tick) {
+                this.place(entry);
+            } else {
+                this.size--;
+                due.add((T) entry);
+            }
+            entry = next;
+        }
+    }
+
+    private void place(Entry entry) {
+        long delta = Math.min(entry.deadline - this.tick, MAX_DELTA);
+        long target = this.tick + delta;
+        int level = (63 - Long.numberOfLeadingZeros(delta)) / SLOT_BITS;
+        int slot = (int) ((target >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        Entry head = this.slots[level][slot];
+        entry.level = level;
+        entry.slot = slot;
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        this.slots[level][slot] = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            this.slots[entry.level][entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.level = -1;
+    }
+
+    /**
+     * Empties a slot and returns its entries, which are marked as unscheduled and
+     * still chained through {@link Entry#next}.
+     */
+    private Entry detach(int level, int slot) {
+        Entry head = this.slots[level][slot];
+        this.slots[level][slot] = null;
+        for (Entry entry = head; entry != null; entry = entry.next) {
+            entry.prev = null;
+            entry.level = -1;
+        }
+        return head;
+    }
+
+    /**
+     * Links an entry into its slot. Subclasses carry the scheduled work.
+     */
+    abstract static class Entry {
+        private Entry prev;
+        private Entry next;
+        private int level = -1;
+        private int slot;
+        private long deadline;
+
+        /**
+         * The tick this entry is scheduled for.
+         */
+        final long deadline() {
+            return this.deadline;
+        }
+
+        final boolean isScheduled() {
+            return this.level >= 0;
+        }
+    }
+}
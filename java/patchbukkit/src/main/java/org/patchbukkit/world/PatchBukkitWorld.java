@@ -28,6 +28,9 @@ import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jspecify.annotations.NonNull;
+import org.patchbukkit.bridge.BridgeUtils;
+import patchbukkit.bridge.NativeBridgeFfi;
+import patchbukkit.common.EntityLocation;
 
 public class PatchBukkitWorld
     extends PatchBukkitRegionAccessor
@@ -491,10 +494,26 @@ public class PatchBukkitWorld
 
     @Override
     public @NotNull List<Player> getPlayers() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException(
-            "Unimplemented method 'getPlayers'"
-        );
+        List<Player> online = new ArrayList<>(Bukkit.getOnlinePlayers());
+        List<patchbukkit.common.UUID> requests = new ArrayList<>(online.size());
+        for (Player player : online) {
+            requests.add(BridgeUtils.convertUuid(player.getUniqueId()));
+        }
+
+        // Every player's location in a single downcall
+        List<EntityLocation> locations = NativeBridgeFfi.getLocationBatch(requests);
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < online.size(); i++) {
+            EntityLocation location = locations.get(i);
+            if (
+                location != null &&
+                location.getWorldMostSignificantBits() == this.uuid.getMostSignificantBits() &&
+                location.getWorldLeastSignificantBits() == this.uuid.getLeastSignificantBits()
+            ) {
+                players.add(online.get(i));
+            }
+        }
+        return players;
     }
 
     @Override
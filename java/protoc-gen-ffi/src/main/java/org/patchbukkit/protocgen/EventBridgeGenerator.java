@@ -0,0 +1,424 @@
+package org.patchbukkit.protocgen;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.DescriptorProtos.*;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnknownFieldSet;
+
+import java.util.*;
+
+/**
+ * Generates the Bukkit side of the messages marked with {@code (patchbukkit.ffi.bukkit_event)}:
+ * a lazily decoded {@code Bridged<Message>} subclass of the Bukkit event per message, and
+ * {@code BridgedEvents}, which creates them from the envelope through a table indexed by
+ * its oneof case. The classes are package-private and emitted into the package given by the {@code event_package} option,
+ * next to {@code BridgedEvent} and {@code PatchBukkitEventFactory}.
+ * <p>
+ * {@code rust/build/protobufs.rs} generates the matching {@code PatchBukkitEvent} impls.
+ */
+final class EventBridgeGenerator {
+
+    // Extension field numbers from proto/patchbukkit/ffi/options.proto
+    private static final int BUKKIT_EVENT_FIELD = 50102;
+    private static final int EVENT_FIELD_FIELD = 50201;
+
+    // patchbukkit.ffi.EventField.Kind
+    private static final int KIND_VALUE = 0;
+    private static final int KIND_PLAYER = 1;
+    private static final int KIND_COMPONENT = 2;
+
+    private static final String COMPONENT = "net.kyori.adventure.text.Component";
+    private static final String GSON = "net.kyori.adventure.text.serializer.gson.GsonComponentSerializer.gson()";
+    private static final String LEGACY = "net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacySection()";
+
+    private record EventField(FieldDescriptorProto descriptor, int kind, String accessor, String legacyAccessor) {
+    }
+
+    private record EventMessage(String protoType, DescriptorProto message, String bukkitClass, List<EventField> fields) {
+    }
+
+    /**
+     * The oneof field carrying an event message inside its envelope.
+     */
+    private record EnvelopeCase(String envelopeType, String fileName, String oneofName, FieldDescriptorProto field) {
+    }
+
+    private static final List<EventMessage> events = new ArrayList<>();
+    private static final Map<String, List<EnvelopeCase>> envelopeCases = new HashMap<>();
+
+    private EventBridgeGenerator() {
+    }
+
+    static void register(FileDescriptorProto file) {
+        for (DescriptorProto message : file.getMessageTypeList()) {
+            String fullName = "." + file.getPackage() + "." + message.getName();
+            for (FieldDescriptorProto field : message.getFieldList()) {
+                if (field.hasOneofIndex() && !field.getProto3Optional() && field.getType() == Type.TYPE_MESSAGE) {
+                    String oneofName = message.getOneofDecl(field.getOneofIndex()).getName();
+                    envelopeCases.computeIfAbsent(field.getTypeName(), k -> new ArrayList<>())
+                        .add(new EnvelopeCase(fullName, file.getName(), oneofName, field));
+                }
+            }
+
+            UnknownFieldSet options = messageOption(message.getOptions().getUnknownFields(), BUKKIT_EVENT_FIELD);
+            if (options == null) {
+                continue;
+            }
+            List<EventField> fields = new ArrayList<>();
+            for (FieldDescriptorProto field : message.getFieldList()) {
+                UnknownFieldSet fieldOptions = messageOption(field.getOptions().getUnknownFields(), EVENT_FIELD_FIELD);
+                if (fieldOptions == null) {
+                    throw new IllegalArgumentException("bukkit_event message " + message.getName()
+                        + " field " + field.getName() + " has no event_field option");
+                }
+                fields.add(new EventField(
+                    field,
+                    (int) varint(fieldOptions, 1),
+                    string(fieldOptions, 2),
+                    string(fieldOptions, 3)
+                ));
+            }
+            events.add(new EventMessage(fullName, message, string(options, 1), fields));
+        }
+    }
+
+    /**
+     * Whether {@code file} declares the envelope, in which case the event classes are
+     * generated alongside it.
+     */
+    static boolean hasEnvelopeIn(FileDescriptorProto file) {
+        if (events.isEmpty()) {
+            return false;
+        }
+        List<EnvelopeCase> cases = envelopeCases.getOrDefault(events.get(0).protoType(), List.of());
+        return !cases.isEmpty() && cases.get(0).fileName().equals(file.getName());
+    }
+
+    static Map<String, String> generate(String eventPackage) {
+        String envelopeType = envelopeCase(events.get(0)).envelopeType();
+        for (EventMessage event : events) {
+            validate(event, envelopeType);
+        }
+
+        Map<String, String> files = new LinkedHashMap<>();
+        for (EventMessage event : events) {
+            files.put(bridgedClassName(event), generateBridgedClass(event, eventPackage));
+        }
+        files.put("BridgedEvents", generateDispatchClass(eventPackage, envelopeType));
+        return files;
+    }
+
+    private static void validate(EventMessage event, String envelopeType) {
+        EnvelopeCase envelopeCase = envelopeCase(event);
+        if (!envelopeCase.envelopeType().equals(envelopeType)) {
+            throw new IllegalArgumentException("bukkit_event messages must share one envelope, "
+                + event.message().getName() + " is sent in " + envelopeCase.envelopeType()
+                + " instead of " + envelopeType);
+        }
+        for (EventField field : event.fields()) {
+            FieldDescriptorProto descriptor = field.descriptor();
+            String where = event.message().getName() + "." + descriptor.getName();
+            switch (field.kind()) {
+                case KIND_PLAYER -> {
+                    if (!descriptor.getTypeName().equals(".patchbukkit.common.UUID")) {
+                        throw new IllegalArgumentException("PLAYER field " + where + " must be a patchbukkit.common.UUID");
+                    }
+                }
+                case KIND_COMPONENT -> {
+                    if (descriptor.getType() != Type.TYPE_STRING || !descriptor.getProto3Optional()) {
+                        throw new IllegalArgumentException("COMPONENT field " + where + " must be an optional string");
+                    }
+                }
+                case KIND_VALUE -> {
+                    if (descriptor.getType() == Type.TYPE_MESSAGE
+                        || descriptor.getLabel() == FieldDescriptorProto.Label.LABEL_REPEATED) {
+                        throw new IllegalArgumentException("VALUE field " + where + " must be a singular scalar");
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown event_field kind " + field.kind() + " on " + where);
+            }
+            if (field.accessor().isEmpty()) {
+                throw new IllegalArgumentException("event_field " + where + " needs an accessor");
+            }
+        }
+    }
+
+    private static String generateBridgedClass(EventMessage event, String eventPackage) {
+        String className = bridgedClassName(event);
+        String rawType = FfiGenerator.resolveJavaType(event.protoType());
+        EnvelopeCase envelopeCase = envelopeCase(event);
+        String envelopeClass = FfiGenerator.resolveJavaType(envelopeCase.envelopeType());
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(eventPackage).append(";\n\n");
+        sb.append("import org.jetbrains.annotations.NotNull;\n");
+        sb.append("import org.jetbrains.annotations.Nullable;\n\n");
+
+        sb.append("/**\n");
+        sb.append(" * {@link ").append(event.bukkitClass()).append("} backed by the {@link ").append(rawType).append("}\n");
+        sb.append(" * Rust fired it with. Generated by protoc-gen-ffi, do not edit.\n");
+        sb.append(" */\n");
+        sb.append("final class ").append(className).append(" extends ").append(event.bukkitClass())
+            .append(" implements BridgedEvent {\n");
+        sb.append("    private final ").append(rawType).append(" raw;\n");
+        for (EventField field : event.fields()) {
+            if (field.kind() == KIND_COMPONENT) {
+                sb.append("\n");
+                sb.append("    private ").append(COMPONENT).append(" ").append(field.accessor()).append(";\n");
+                sb.append("    private boolean ").append(field.accessor()).append("Decoded;\n");
+                sb.append("    private boolean ").append(field.accessor()).append("Dirty;\n");
+            }
+        }
+        sb.append("\n");
+
+        // Constructor: resolved players first, then the message
+        StringJoiner params = new StringJoiner(", ");
+        StringJoiner superArgs = new StringJoiner(", ");
+        for (EventField field : event.fields()) {
+            switch (field.kind()) {
+                case KIND_PLAYER -> {
+                    params.add("@NotNull org.bukkit.entity.Player " + parameterName(field));
+                    superArgs.add(parameterName(field));
+                }
+                case KIND_COMPONENT -> superArgs.add("(" + COMPONENT + ") null");
+                default -> superArgs.add("raw.get" + pascalName(field) + "()");
+            }
+        }
+        params.add("@NotNull " + rawType + " raw");
+        sb.append("    ").append(className).append("(").append(params).append(") {\n");
+        sb.append("        super(").append(superArgs).append(");\n");
+        sb.append("        this.raw = raw;\n");
+        sb.append("    }\n\n");
+
+        String simpleName = event.bukkitClass().substring(event.bukkitClass().lastIndexOf('.') + 1);
+        sb.append("    @Override\n");
+        sb.append("    @NotNull\n");
+        sb.append("    public String getEventName() {\n");
+        sb.append("        return \"").append(simpleName).append("\";\n");
+        sb.append("    }\n");
+
+        for (EventField field : event.fields()) {
+            if (field.kind() == KIND_COMPONENT) {
+                generateComponentAccessors(sb, field);
+            }
+        }
+
+        sb.append("\n");
+        sb.append("    @Override\n");
+        sb.append("    @NotNull\n");
+        sb.append("    public ").append(envelopeClass).append(" toChanges() {\n");
+        sb.append("        var changes = ").append(rawType).append(".newBuilder();\n");
+        for (EventField field : event.fields()) {
+            String pascal = pascalName(field);
+            switch (field.kind()) {
+                case KIND_PLAYER ->
+                    sb.append("        changes.set").append(pascal).append("(this.raw.get").append(pascal).append("());\n");
+                case KIND_COMPONENT -> {
+                    sb.append("        if (this.").append(field.accessor()).append("Dirty) {\n");
+                    sb.append("            // Pumpkin has no absent components, null is sent as an empty one\n");
+                    sb.append("            changes.set").append(pascal).append("(").append(GSON).append(".serialize(\n");
+                    sb.append("                this.").append(field.accessor()).append(" == null ? ").append(COMPONENT)
+                        .append(".empty() : this.").append(field.accessor()).append("));\n");
+                    sb.append("        }\n");
+                }
+                default -> {
+                    // VALUE fields are read only
+                }
+            }
+        }
+        sb.append("        return ").append(envelopeClass).append(".newBuilder().set")
+            .append(FfiGenerator.toPascalCase(envelopeCase.field().getName())).append("(changes).build();\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static void generateComponentAccessors(StringBuilder sb, EventField field) {
+        String name = field.accessor();
+        String pascal = pascalName(field);
+
+        sb.append("\n");
+        sb.append("    @Override\n");
+        sb.append("    @Nullable\n");
+        sb.append("    public ").append(COMPONENT).append(" ").append(name).append("() {\n");
+        sb.append("        if (!this.").append(name).append("Decoded) {\n");
+        sb.append("            this.").append(name).append(" = this.raw.has").append(pascal).append("()\n");
+        sb.append("                ? ").append(GSON).append(".deserialize(this.raw.get").append(pascal).append("())\n");
+        sb.append("                : null;\n");
+        sb.append("            this.").append(name).append("Decoded = true;\n");
+        sb.append("        }\n");
+        sb.append("        return this.").append(name).append(";\n");
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public void ").append(name).append("(@Nullable ").append(COMPONENT).append(" ").append(name).append(") {\n");
+        sb.append("        this.").append(name).append(" = ").append(name).append(";\n");
+        sb.append("        this.").append(name).append("Decoded = true;\n");
+        sb.append("        this.").append(name).append("Dirty = true;\n");
+        sb.append("    }\n");
+
+        if (field.legacyAccessor().isEmpty()) {
+            return;
+        }
+        String legacy = field.legacyAccessor();
+        sb.append("\n");
+        sb.append("    @Override\n");
+        sb.append("    @Nullable\n");
+        sb.append("    @Deprecated\n");
+        sb.append("    public String get").append(legacy).append("() {\n");
+        sb.append("        ").append(COMPONENT).append(" value = this.").append(name).append("();\n");
+        sb.append("        return value == null ? null : ").append(LEGACY).append(".serialize(value);\n");
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    @Deprecated\n");
+        sb.append("    public void set").append(legacy).append("(@Nullable String value) {\n");
+        sb.append("        this.").append(name).append("(value == null ? null : ").append(LEGACY).append(".deserialize(value));\n");
+        sb.append("    }\n");
+    }
+
+    private static String generateDispatchClass(String eventPackage, String envelopeType) {
+        String envelopeClass = FfiGenerator.resolveJavaType(envelopeType);
+        String caseEnum = envelopeClass + "." + FfiGenerator.toPascalCase(envelopeCase(events.get(0)).oneofName()) + "Case";
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(eventPackage).append(";\n\n");
+        sb.append("import java.util.HashSet;\n");
+        sb.append("import java.util.Set;\n\n");
+        sb.append("import org.bukkit.event.Event;\n");
+        sb.append("import org.jetbrains.annotations.NotNull;\n");
+        sb.append("import org.jetbrains.annotations.Nullable;\n\n");
+
+        sb.append("/**\n");
+        sb.append(" * Creates Bukkit events from {@link ").append(envelopeClass).append("} for every message marked\n");
+        sb.append(" * with {@code (patchbukkit.ffi.bukkit_event)}, looked up by the ordinal of their oneof case.\n");
+        sb.append(" * Generated by protoc-gen-ffi, do not edit.\n");
+        sb.append(" */\n");
+        sb.append("final class BridgedEvents {\n");
+        sb.append("    private static final Factory[] FACTORIES = new Factory[").append(caseEnum).append(".values().length];\n");
+        sb.append("    private static final Set<Class<?>> MODIFIABLE = new HashSet<>();\n\n");
+
+        sb.append("    static {\n");
+        for (EventMessage event : events) {
+            String caseName = envelopeCase(event).field().getName().toUpperCase(Locale.ROOT);
+            String suffix = FfiGenerator.toPascalCase(envelopeCase(event).field().getName());
+            sb.append("        FACTORIES[").append(caseEnum).append(".").append(caseName).append(".ordinal()] = BridgedEvents::create")
+                .append(suffix).append(";\n");
+            if (event.fields().stream().anyMatch(field -> field.kind() == KIND_COMPONENT)) {
+                sb.append("        MODIFIABLE.add(").append(event.bukkitClass()).append(".class);\n");
+            }
+        }
+        sb.append("    }\n\n");
+
+        sb.append("    private BridgedEvents() {\n");
+        sb.append("    }\n\n");
+
+        sb.append("    /**\n");
+        sb.append("     * Returns null if the case is not set or a player of the event is not online.\n");
+        sb.append("     */\n");
+        sb.append("    @Nullable\n");
+        sb.append("    static Event create(@NotNull ").append(envelopeClass).append(" event) {\n");
+        sb.append("        Factory factory = FACTORIES[event.get").append(FfiGenerator.toPascalCase(envelopeCase(events.get(0)).oneofName()))
+            .append("Case().ordinal()];\n");
+        sb.append("        return factory == null ? null : factory.create(event);\n");
+        sb.append("    }\n\n");
+
+
+        sb.append("    /**\n");
+        sb.append("     * Whether events of this type have fields Rust applies back to the Pumpkin event.\n");
+        sb.append("     */\n");
+        sb.append("    static boolean isModifiable(@NotNull Class<? extends Event> eventClass) {\n");
+        sb.append("        for (Class<?> clazz = eventClass; clazz != null; clazz = clazz.getSuperclass()) {\n");
+        sb.append("            if (MODIFIABLE.contains(clazz)) {\n");
+        sb.append("                return true;\n");
+        sb.append("            }\n");
+        sb.append("        }\n");
+        sb.append("        return false;\n");
+        sb.append("    }\n");
+
+        for (EventMessage event : events) {
+            generateFactory(sb, event, envelopeClass);
+        }
+
+        sb.append("\n");
+        sb.append("    private interface Factory {\n");
+        sb.append("        @Nullable\n");
+        sb.append("        Event create(@NotNull ").append(envelopeClass).append(" event);\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static void generateFactory(StringBuilder sb, EventMessage event, String envelopeClass) {
+        String caseField = FfiGenerator.toPascalCase(envelopeCase(event).field().getName());
+
+        sb.append("\n");
+        sb.append("    @Nullable\n");
+        sb.append("    private static Event create").append(caseField).append("(@NotNull ").append(envelopeClass).append(" event) {\n");
+        sb.append("        var raw = event.get").append(caseField).append("();\n");
+        StringJoiner args = new StringJoiner(", ");
+        for (EventField field : event.fields()) {
+            if (field.kind() == KIND_PLAYER) {
+                String name = parameterName(field);
+                sb.append("        org.bukkit.entity.Player ").append(name)
+                    .append(" = PatchBukkitEventFactory.getPlayer(raw.get").append(pascalName(field)).append("());\n");
+                sb.append("        if (").append(name).append(" == null) return null;\n");
+                args.add(name);
+            }
+        }
+        args.add("raw");
+        sb.append("        return new ").append(bridgedClassName(event)).append("(").append(args).append(");\n");
+        sb.append("    }\n");
+    }
+
+    private static EnvelopeCase envelopeCase(EventMessage event) {
+        List<EnvelopeCase> cases = envelopeCases.getOrDefault(event.protoType(), List.of());
+        if (cases.size() != 1) {
+            throw new IllegalArgumentException("bukkit_event message " + event.message().getName()
+                + " must be a case of exactly one oneof, found " + cases.size());
+        }
+        return cases.get(0);
+    }
+
+    private static String bridgedClassName(EventMessage event) {
+        return "Bridged" + event.message().getName();
+    }
+
+    private static String pascalName(EventField field) {
+        return FfiGenerator.toPascalCase(field.descriptor().getName());
+    }
+
+    /**
+     * {@code getPlayer} becomes {@code player}.
+     */
+    private static String parameterName(EventField field) {
+        String accessor = field.accessor();
+        if (accessor.startsWith("get") && accessor.length() > 3) {
+            return Character.toLowerCase(accessor.charAt(3)) + accessor.substring(4);
+        }
+        return accessor;
+    }
+
+    private static UnknownFieldSet messageOption(UnknownFieldSet options, int number) {
+        List<ByteString> values = options.getField(number).getLengthDelimitedList();
+        if (values.isEmpty()) {
+            return null;
+        }
+        try {
+            return UnknownFieldSet.parseFrom(values.get(values.size() - 1));
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalArgumentException("Malformed option " + number, e);
+        }
+    }
+
+    private static long varint(UnknownFieldSet fields, int number) {
+        List<Long> values = fields.getField(number).getVarintList();
+        return values.isEmpty() ? 0 : values.get(values.size() - 1);
+    }
+
+    private static String string(UnknownFieldSet fields, int number) {
+        List<ByteString> values = fields.getField(number).getLengthDelimitedList();
+        return values.isEmpty() ? "" : values.get(values.size() - 1).toStringUtf8();
+    }
+}
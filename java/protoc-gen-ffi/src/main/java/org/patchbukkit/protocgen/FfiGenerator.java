@@ -1,6 +1,7 @@
 package org.patchbukkit.protocgen;
 
 import com.google.protobuf.DescriptorProtos.*;
+import com.google.protobuf.UnknownFieldSet;
 import com.google.protobuf.compiler.PluginProtos.*;
 
 import java.io.IOException;
@@ -9,15 +10,84 @@ import java.util.*;
 public class FfiGenerator {
 
     private static final Map<String, String> typeMap = new HashMap<>();
+    private static final Map<String, DescriptorProto> messageTypes = new HashMap<>();
+    private static final Map<String, String> generatorOptions = new HashMap<>();
+
+    /**
+     * Serialize requests into growable native regions borrowed from a striped pool,
+     * and returned after the call, instead of opening an {@code Arena} per call.
+     * Enabled with {@code --ffi_opt=scratch_buffers}.
+     */
+    private static final String OPTION_SCRATCH_BUFFERS = "scratch_buffers";
+
+    /**
+     * Record per-RPC call counts, payload sizes and latency into {@link #METRICS_CLASS}.
+     * Enabled with {@code --ffi_opt=metrics}; recording is then switched at startup by
+     * the metrics class itself.
+     */
+    private static final String OPTION_METRICS = "metrics";
+    private static final String METRICS_CLASS = "org.patchbukkit.bridge.BridgeMetrics";
+
+    /**
+     * Parse {@code bytes} fields of responses as views into the native response instead
+     * of copies. The native memory is then released by the GC once every message and
+     * {@code ByteString} pointing into it is unreachable, rather than right after parsing.
+     * Only applies to responses that have {@code bytes} fields.
+     */
+    private static final String OPTION_ALIASING = "aliasing";
+
+    /**
+     * Appended to generated service class names, e.g. {@code class_suffix=Baseline} yields
+     * {@code NativeBridgeFfiBaseline}. Lets several variants live on one classpath.
+     */
+    private static final String OPTION_CLASS_SUFFIX = "class_suffix";
+
+    /**
+     * Skip the {@code <Message>Layout} classes, for variants generated next to a
+     * build that already has them.
+     */
+    private static final String OPTION_NO_LAYOUTS = "no_layouts";
+
+    /**
+     * Ignore {@code fire_and_forget} and {@code struct_layout}, generating every method
+     * as a serialized request/response downcall whose response is copied into a
+     * {@code byte[]} before it is parsed, the way the bridge originally worked.
+     */
+    private static final String OPTION_PLAIN_ABI = "plain_abi";
+
+    /**
+     * Package the {@code (patchbukkit.ffi.bukkit_event)} bridge classes are generated into,
+     * e.g. {@code event_package=org.patchbukkit.events}. Nothing is generated without it.
+     */
+    private static final String OPTION_EVENT_PACKAGE = "event_package";
+
+    // Extension field numbers from proto/patchbukkit/ffi/options.proto. They are read from the
+    // options' unknown fields so the generator does not need the compiled option classes.
+    private static final int FIRE_AND_FORGET_FIELD = 50001;
+
+    // Envelopes from proto/patchbukkit/ffi/batch.proto used by the <rpc>Batch entry points
+    private static final String BATCH_RESPONSE_CLASS = "patchbukkit.ffi.BatchResponse";
+    private static final String BATCH_RESULT_CLASS = "patchbukkit.ffi.BatchResult";
+
+    // Shared-memory queue layout, mirrored by rust/src/proto/queue.rs
+    private static final int QUEUE_HEADER_SIZE = 192;
+    private static final int QUEUE_TAIL_OFFSET = 64;
+    private static final int QUEUE_HEAD_OFFSET = 128;
+    private static final int QUEUE_WAITING_OFFSET = 136;
+    private static final int QUEUE_SLOT_HEADER_SIZE = 16;
 
     public static void main(String[] args) throws IOException {
         CodeGeneratorRequest request = CodeGeneratorRequest.parseFrom(System.in);
         CodeGeneratorResponse.Builder response = CodeGeneratorResponse.newBuilder();
         response.setSupportedFeatures(CodeGeneratorResponse.Feature.FEATURE_PROTO3_OPTIONAL_VALUE);
 
+        parseGeneratorOptions(request.getParameter());
+
         // Build type map from all proto files
         for (FileDescriptorProto file : request.getProtoFileList()) {
             buildTypeMap(file);
+            StructLayoutGenerator.register(file, getJavaPackage(file));
+            EventBridgeGenerator.register(file);
         }
 
         // Generate FFI classes for services
@@ -28,9 +98,34 @@ public class FfiGenerator {
 
             String javaPackage = getJavaPackage(file);
 
+            List<String> structTypes = hasOption(OPTION_NO_LAYOUTS)
+                ? List.of()
+                : StructLayoutGenerator.structTypesIn(file);
+            for (String structType : structTypes) {
+                String content;
+                try {
+                    content = StructLayoutGenerator.generateLayoutClass(structType, javaPackage);
+                } catch (IllegalArgumentException e) {
+                    response.setError(e.getMessage());
+                    break;
+                }
+                String className = structType.substring(structType.lastIndexOf('.') + 1) + "Layout";
+
+                response.addFile(CodeGeneratorResponse.File.newBuilder()
+                    .setName(javaPackage.replace('.', '/') + "/" + className + ".java")
+                    .setContent(content)
+                    .build());
+            }
+
             for (ServiceDescriptorProto service : file.getServiceList()) {
-                String className = service.getName() + "Ffi";
-                String content = generateFfiClass(service, javaPackage);
+                String className = toClassName(service);
+                String content;
+                try {
+                    content = generateFfiClass(service, javaPackage);
+                } catch (IllegalArgumentException e) {
+                    response.setError(e.getMessage());
+                    break;
+                }
                 String fileName = javaPackage.replace('.', '/') + "/" + className + ".java";
 
                 response.addFile(CodeGeneratorResponse.File.newBuilder()
@@ -38,11 +133,92 @@ public class FfiGenerator {
                     .setContent(content)
                     .build());
             }
+
+            if (hasOption(OPTION_EVENT_PACKAGE) && EventBridgeGenerator.hasEnvelopeIn(file)) {
+                String eventPackage = generatorOptions.get(OPTION_EVENT_PACKAGE);
+                Map<String, String> eventClasses;
+                try {
+                    eventClasses = EventBridgeGenerator.generate(eventPackage);
+                } catch (IllegalArgumentException e) {
+                    response.setError(e.getMessage());
+                    break;
+                }
+                for (Map.Entry<String, String> eventClass : eventClasses.entrySet()) {
+                    response.addFile(CodeGeneratorResponse.File.newBuilder()
+                        .setName(eventPackage.replace('.', '/') + "/" + eventClass.getKey() + ".java")
+                        .setContent(eventClass.getValue())
+                        .build());
+                }
+            }
         }
 
         response.build().writeTo(System.out);
     }
 
+    private static void parseGeneratorOptions(String parameter) {
+        for (String option : parameter.split(",")) {
+            if (!option.isBlank()) {
+                int separator = option.indexOf('=');
+                if (separator < 0) {
+                    generatorOptions.put(option.trim(), "");
+                } else {
+                    generatorOptions.put(option.substring(0, separator).trim(), option.substring(separator + 1).trim());
+                }
+            }
+        }
+    }
+
+    private static boolean hasOption(String option) {
+        return generatorOptions.containsKey(option);
+    }
+
+    private static String toClassName(ServiceDescriptorProto service) {
+        return service.getName() + "Ffi" + generatorOptions.getOrDefault(OPTION_CLASS_SUFFIX, "");
+    }
+
+    private static boolean isStructMethod(MethodDescriptorProto method) {
+        return !hasOption(OPTION_PLAIN_ABI) && StructLayoutGenerator.isStructType(method.getOutputType());
+    }
+
+    private static boolean isAliased(MethodDescriptorProto method) {
+        return hasOption(OPTION_ALIASING) && !isStructMethod(method)
+            && hasBytesField(method.getOutputType(), new HashSet<>());
+    }
+
+    private static boolean hasBytesField(String protoType, Set<String> visited) {
+        DescriptorProto message = messageTypes.get(protoType);
+        if (message == null || !visited.add(protoType)) {
+            return false;
+        }
+        for (FieldDescriptorProto field : message.getFieldList()) {
+            if (field.getType() == FieldDescriptorProto.Type.TYPE_BYTES) {
+                return true;
+            }
+            if (field.getType() == FieldDescriptorProto.Type.TYPE_MESSAGE
+                && hasBytesField(field.getTypeName(), visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFireAndForget(MethodDescriptorProto method) {
+        if (hasOption(OPTION_PLAIN_ABI)) {
+            return false;
+        }
+
+        UnknownFieldSet.Field field = method.getOptions().getUnknownFields().getField(FIRE_AND_FORGET_FIELD);
+        List<Long> values = field.getVarintList();
+        if (values.isEmpty() || values.get(values.size() - 1) == 0) {
+            return false;
+        }
+        if (!method.getOutputType().equals(".google.protobuf.Empty")) {
+            throw new IllegalArgumentException("fire_and_forget RPC " + method.getName()
+                + " must return google.protobuf.Empty");
+        }
+        return true;
+    }
+
     private static void buildTypeMap(FileDescriptorProto file) {
         String protoPackage = file.getPackage();
         String javaPackage = getJavaPackage(file);
@@ -54,6 +230,7 @@ public class FfiGenerator {
 
         for (DescriptorProto message : file.getMessageTypeList()) {
             mapType(protoPackage, message.getName(), javaPrefix);
+            messageTypes.put("." + protoPackage + "." + message.getName(), message);
             buildNestedTypeMap(message, "." + protoPackage + "." + message.getName(),
                               javaPrefix + message.getName());
         }
@@ -70,6 +247,7 @@ public class FfiGenerator {
     private static void buildNestedTypeMap(DescriptorProto parent, String protoPrefix, String javaPrefix) {
         for (DescriptorProto nested : parent.getNestedTypeList()) {
             typeMap.put(protoPrefix + "." + nested.getName(), javaPrefix + "." + nested.getName());
+            messageTypes.put(protoPrefix + "." + nested.getName(), nested);
             buildNestedTypeMap(nested, protoPrefix + "." + nested.getName(),
                               javaPrefix + "." + nested.getName());
         }
@@ -99,14 +277,28 @@ public class FfiGenerator {
 
     private static String generateFfiClass(ServiceDescriptorProto service, String javaPackage) {
         StringBuilder sb = new StringBuilder();
-        String className = service.getName() + "Ffi";
+        String className = toClassName(service);
         List<MethodDescriptorProto> methods = service.getMethodList();
+        boolean hasQueue = methods.stream().anyMatch(FfiGenerator::isFireAndForget);
+        boolean hasAliased = methods.stream().anyMatch(FfiGenerator::isAliased);
 
         // Package and imports
         sb.append("package ").append(javaPackage).append(";\n\n");
         sb.append("import java.lang.foreign.*;\n");
         sb.append("import java.lang.invoke.MethodHandle;\n");
-        sb.append("import com.google.protobuf.InvalidProtocolBufferException;\n\n");
+        if (hasQueue) {
+            sb.append("import java.lang.invoke.VarHandle;\n");
+        }
+        if (hasOption(OPTION_SCRATCH_BUFFERS)) {
+            sb.append("import java.nio.ByteBuffer;\n");
+        }
+        sb.append("import com.google.protobuf.CodedInputStream;\n");
+        sb.append("import com.google.protobuf.CodedOutputStream;\n");
+        sb.append("import com.google.protobuf.InvalidProtocolBufferException;\n");
+        if (hasAliased) {
+            sb.append("import com.google.protobuf.UnsafeByteOperations;\n");
+        }
+        sb.append("\n");
 
         // Class
         sb.append("public class ").append(className).append(" {\n\n");
@@ -116,15 +308,70 @@ public class FfiGenerator {
         for (MethodDescriptorProto method : methods) {
             sb.append("    private static MethodHandle ").append(toHandleName(method)).append(";\n");
         }
+        for (MethodDescriptorProto method : methods) {
+            sb.append("    private static MethodHandle ").append(toBatchHandleName(method)).append(";\n");
+        }
         sb.append("\n");
 
+        if (hasOption(OPTION_SCRATCH_BUFFERS)) {
+            generateScratchClass(sb);
+        }
+
+        if (hasQueue) {
+            generateQueueFields(sb, methods);
+        }
+
+        if (hasOption(OPTION_METRICS)) {
+            for (MethodDescriptorProto method : methods) {
+                sb.append("    private static final ").append(METRICS_CLASS).append(".Rpc ");
+                sb.append(toMetricsFieldName(method)).append(" =\n");
+                sb.append("        ").append(METRICS_CLASS).append(".rpc(\"");
+                sb.append(service.getName()).append(".").append(method.getName()).append("\");\n");
+            }
+            sb.append("\n");
+        }
+
         // Init methods
         generateInitMethod(sb, methods);
+        generateInitBatchMethod(sb, methods);
         generateInitFreeMethod(sb);
+        if (hasAliased) {
+            generateFreeAliasedMethod(sb);
+        }
+        if (hasQueue) {
+            generateInitQueueMethod(sb);
+            generateEnqueueMethod(sb);
+        }
 
-        // Service methods
+        // Service methods. With metrics, the public entry points wrap a private "Raw" variant.
+        boolean metrics = hasOption(OPTION_METRICS);
+        String visibility = metrics ? "private" : "public";
         for (MethodDescriptorProto method : methods) {
-            generateServiceMethod(sb, method);
+            String methodName = toCamelCase(method.getName());
+            String entryName = metrics ? methodName + "Raw" : methodName;
+            boolean struct = isStructMethod(method);
+
+            if (metrics) {
+                generateMetricsWrapper(sb, method, struct);
+            }
+
+            if (isFireAndForget(method)) {
+                generateFireAndForgetMethod(sb, method, visibility, entryName);
+                generateServiceMethod(sb, method, "private", methodName + "Direct");
+            } else if (struct) {
+                generateStructServiceMethod(sb, method, visibility, entryName);
+            } else {
+                generateServiceMethod(sb, method, visibility, entryName);
+            }
+        }
+
+        for (MethodDescriptorProto method : methods) {
+            if (isFireAndForget(method)) {
+                generateFireAndForgetBatchMethod(sb, method);
+                generateBatchMethod(sb, method, "private", toCamelCase(method.getName()) + "BatchDirect");
+            } else {
+                generateBatchMethod(sb, method, "public", toCamelCase(method.getName()) + "Batch");
+            }
         }
 
         sb.append("}\n");
@@ -144,14 +391,50 @@ public class FfiGenerator {
             String handleName = toHandleName(method);
             String addrName = toCamelCase(method.getName()) + "Addr";
 
+            // Struct returning methods fill the caller's struct and report success instead
+            String returnLayout = isStructMethod(method)
+                ? "ValueLayout.JAVA_BOOLEAN"
+                : "ValueLayout.ADDRESS";
+
             sb.append("        ").append(handleName).append(" = LINKER.downcallHandle(\n");
             sb.append("            MemorySegment.ofAddress(").append(addrName).append("),\n");
+            sb.append("            FunctionDescriptor.of(").append(returnLayout).append(", ValueLayout.ADDRESS, ");
+            sb.append("ValueLayout.JAVA_LONG, ValueLayout.ADDRESS));\n");
+        }
+        sb.append("    }\n\n");
+    }
+
+    private static void generateInitBatchMethod(StringBuilder sb, List<MethodDescriptorProto> methods) {
+        sb.append("    public static void initBatch(");
+
+        StringJoiner params = new StringJoiner(", ");
+        for (MethodDescriptorProto method : methods) {
+            params.add("long " + toCamelCase(method.getName()) + "BatchAddr");
+        }
+        sb.append(params).append(") {\n");
+
+        for (MethodDescriptorProto method : methods) {
+            sb.append("        ").append(toBatchHandleName(method)).append(" = LINKER.downcallHandle(\n");
+            sb.append("            MemorySegment.ofAddress(").append(toCamelCase(method.getName())).append("BatchAddr),\n");
             sb.append("            FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ");
             sb.append("ValueLayout.JAVA_LONG, ValueLayout.ADDRESS));\n");
         }
         sb.append("    }\n\n");
     }
 
+    private static void generateFreeAliasedMethod(StringBuilder sb) {
+        sb.append("    /**\n");
+        sb.append("     * Cleanup of responses parsed with aliasing, run once nothing references them.\n");
+        sb.append("     */\n");
+        sb.append("    private static void freeAliased(MemorySegment segment) {\n");
+        sb.append("        try {\n");
+        sb.append("            freeNative.invokeExact(segment, segment.byteSize());\n");
+        sb.append("        } catch (Throwable t) {\n");
+        sb.append("            throw new RuntimeException(\"Failed to free native response\", t);\n");
+        sb.append("        }\n");
+        sb.append("    }\n\n");
+    }
+
     private static void generateInitFreeMethod(StringBuilder sb) {
         sb.append("    public static void initFree(long freeAddr) {\n");
         sb.append("        freeNative = LINKER.downcallHandle(\n");
@@ -160,29 +443,342 @@ public class FfiGenerator {
         sb.append("    }\n\n");
     }
 
-    private static void generateServiceMethod(StringBuilder sb, MethodDescriptorProto method) {
+    private static void generateScratchClass(StringBuilder sb) {
+        sb.append("    private static final long INITIAL_SCRATCH_SIZE = 1024;\n");
+        sb.append("    private static final int SCRATCH_STRIPES =\n");
+        sb.append("        Math.max(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 4);\n");
+        sb.append("    private static final java.util.concurrent.atomic.AtomicReferenceArray<Scratch> SCRATCH =\n");
+        sb.append("        new java.util.concurrent.atomic.AtomicReferenceArray<>(SCRATCH_STRIPES);\n\n");
+
+        sb.append("    /**\n");
+        sb.append("     * Growable native region requests are serialized straight into, so steady-state\n");
+        sb.append("     * calls allocate nothing. A call borrows one from the stripe of its thread and\n");
+        sb.append("     * hands it back afterwards, so their number follows the calls running at once\n");
+        sb.append("     * rather than the number of threads, virtual ones included. A call that finds its\n");
+        sb.append("     * stripe empty, e.g. one made from an upcall during another call, creates a new\n");
+        sb.append("     * scratch, and one that finds it taken on release drops its own. Each segment\n");
+        sb.append("     * comes from its own automatic arena and is released once nothing references it.\n");
+        sb.append("     */\n");
+        sb.append("    private static final class Scratch {\n");
+        sb.append("        private final MemorySegment outputLen = Arena.ofAuto().allocate(ValueLayout.JAVA_LONG);\n");
+        sb.append("        private MemorySegment segment = Arena.ofAuto().allocate(INITIAL_SCRATCH_SIZE);\n");
+        sb.append("        private ByteBuffer buffer = segment.asByteBuffer();\n\n");
+
+        sb.append("        private static Scratch borrow() {\n");
+        sb.append("            Scratch scratch = SCRATCH.getAndSet(stripe(), null);\n");
+        sb.append("            return scratch != null ? scratch : new Scratch();\n");
+        sb.append("        }\n\n");
+
+        sb.append("        private void release() {\n");
+        sb.append("            SCRATCH.compareAndSet(stripe(), null, this);\n");
+        sb.append("        }\n\n");
+
+        sb.append("        private static int stripe() {\n");
+        sb.append("            return (int) Thread.currentThread().threadId() & (SCRATCH_STRIPES - 1);\n");
+        sb.append("        }\n\n");
+
+        sb.append("        private ByteBuffer reserve(int size) {\n");
+        sb.append("            if (size > segment.byteSize()) {\n");
+        sb.append("                long capacity = Math.max(size, Math.min(segment.byteSize() * 2, Integer.MAX_VALUE));\n");
+        sb.append("                segment = Arena.ofAuto().allocate(capacity);\n");
+        sb.append("                buffer = segment.asByteBuffer();\n");
+        sb.append("            }\n");
+        sb.append("            return buffer.clear();\n");
+        sb.append("        }\n");
+        sb.append("    }\n\n");
+    }
+
+    private static void generateQueueFields(StringBuilder sb, List<MethodDescriptorProto> methods) {
+        sb.append("    private static final long QUEUE_HEADER_SIZE = ").append(QUEUE_HEADER_SIZE).append(";\n");
+        sb.append("    private static final long QUEUE_TAIL_OFFSET = ").append(QUEUE_TAIL_OFFSET).append(";\n");
+        sb.append("    private static final long QUEUE_HEAD_OFFSET = ").append(QUEUE_HEAD_OFFSET).append(";\n");
+        sb.append("    private static final long QUEUE_WAITING_OFFSET = ").append(QUEUE_WAITING_OFFSET).append(";\n");
+        sb.append("    private static final long QUEUE_SLOT_HEADER_SIZE = ").append(QUEUE_SLOT_HEADER_SIZE).append(";\n");
+        sb.append("    private static final int QUEUE_SKIPPED_SLOT = -1;\n");
+        sb.append("    private static final long QUEUE_WAIT_NANOS = 50_000;\n");
+        sb.append("    private static final VarHandle QUEUE_LONG = ValueLayout.JAVA_LONG.varHandle();\n");
+        for (int i = 0; i < methods.size(); i++) {
+            if (isFireAndForget(methods.get(i))) {
+                sb.append("    private static final int ").append(toQueueIdName(methods.get(i)));
+                sb.append(" = ").append(i).append(";\n");
+            }
+        }
+        sb.append("    private static volatile MemorySegment queue;\n");
+        sb.append("    private static MethodHandle queueWake;\n");
+        sb.append("    private static long queueMask;\n");
+        sb.append("    private static long queueSlotSize;\n\n");
+    }
+
+    private static void generateInitQueueMethod(StringBuilder sb) {
+        sb.append("    public static void initQueue(long queueAddr, long wakeAddr) {\n");
+        sb.append("        queueWake = LINKER.downcallHandle(\n");
+        sb.append("            MemorySegment.ofAddress(wakeAddr),\n");
+        sb.append("            FunctionDescriptor.ofVoid(ValueLayout.JAVA_LONG));\n");
+        sb.append("        MemorySegment header = MemorySegment.ofAddress(queueAddr).reinterpret(QUEUE_HEADER_SIZE);\n");
+        sb.append("        long capacity = header.get(ValueLayout.JAVA_LONG, 0);\n");
+        sb.append("        queueSlotSize = header.get(ValueLayout.JAVA_LONG, 8);\n");
+        sb.append("        queueMask = capacity - 1;\n");
+        sb.append("        queue = MemorySegment.ofAddress(queueAddr).reinterpret(QUEUE_HEADER_SIZE + capacity * queueSlotSize);\n");
+        sb.append("    }\n\n");
+
+        sb.append("    /**\n");
+        sb.append("     * Stops queueing requests; later calls go through direct downcalls. Called by\n");
+        sb.append("     * Rust before it stops draining the queue.\n");
+        sb.append("     */\n");
+        sb.append("    public static void closeQueue() {\n");
+        sb.append("        queue = null;\n");
+        sb.append("    }\n\n");
+    }
+
+    private static void generateEnqueueMethod(StringBuilder sb) {
+        sb.append("    /**\n");
+        sb.append("     * Appends a request to the shared-memory queue drained by Rust. Slots are claimed\n");
+        sb.append("     * with a CAS on the tail and published through their sequence number, so any\n");
+        sb.append("     * number of plugin threads can enqueue without locking.\n");
+        sb.append("     * <p>\n");
+        sb.append("     * A full queue is waited on rather than bypassed. The drain thread only parks\n");
+        sb.append("     * once the queue is empty, so that wait only lasts until requests are dispatched.\n");
+        sb.append("     * When the request cannot be queued, this returns only once everything queued\n");
+        sb.append("     * before it was dispatched, so the direct call the caller falls back to does not\n");
+        sb.append("     * overtake those requests.\n");
+        sb.append("     *\n");
+        sb.append("     * @return false when the queue is not initialized or closed, the request does not\n");
+        sb.append("     *     fit in a slot, or it could not be serialized\n");
+        sb.append("     */\n");
+        sb.append("    private static boolean enqueue(int methodId, com.google.protobuf.MessageLite request) {\n");
+        sb.append("        MemorySegment ring = queue;\n");
+        sb.append("        if (ring == null) return false;\n\n");
+
+        sb.append("        int size = request.getSerializedSize();\n");
+        sb.append("        if (size > queueSlotSize - QUEUE_SLOT_HEADER_SIZE) {\n");
+        sb.append("            awaitDrained(ring);\n");
+        sb.append("            return false;\n");
+        sb.append("        }\n\n");
+
+        sb.append("        long pos = (long) QUEUE_LONG.getVolatile(ring, QUEUE_TAIL_OFFSET);\n");
+        sb.append("        while (true) {\n");
+        sb.append("            long slot = QUEUE_HEADER_SIZE + (pos & queueMask) * queueSlotSize;\n");
+        sb.append("            long diff = (long) QUEUE_LONG.getAcquire(ring, slot) - pos;\n");
+        sb.append("            if (diff == 0) {\n");
+        sb.append("                if (QUEUE_LONG.compareAndSet(ring, QUEUE_TAIL_OFFSET, pos, pos + 1)) {\n");
+        sb.append("                    boolean written = writeSlot(ring, slot, methodId, request, size);\n");
+        sb.append("                    QUEUE_LONG.setVolatile(ring, slot, pos + 1);\n");
+        sb.append("                    wakeDrainThread(ring);\n");
+        sb.append("                    if (written) return true;\n");
+        sb.append("                    awaitDrained(ring);\n");
+        sb.append("                    return false;\n");
+        sb.append("                }\n");
+        sb.append("            } else if (diff < 0) {\n");
+        sb.append("                // Full, wait for the drain thread unless the queue was closed meanwhile\n");
+        sb.append("                if (queue != ring) return false;\n");
+        sb.append("                java.util.concurrent.locks.LockSupport.parkNanos(QUEUE_WAIT_NANOS);\n");
+        sb.append("            }\n");
+        sb.append("            pos = (long) QUEUE_LONG.getVolatile(ring, QUEUE_TAIL_OFFSET);\n");
+        sb.append("        }\n");
+        sb.append("    }\n\n");
+
+        sb.append("    /**\n");
+        sb.append("     * Wakes the drain thread if it went idle. The read of the flag is volatile like the\n");
+        sb.append("     * publication before it, so the thread either sees the request or gets woken.\n");
+        sb.append("     */\n");
+        sb.append("    private static void wakeDrainThread(MemorySegment ring) {\n");
+        sb.append("        if ((long) QUEUE_LONG.getVolatile(ring, QUEUE_WAITING_OFFSET) != 0\n");
+        sb.append("            && QUEUE_LONG.compareAndSet(ring, QUEUE_WAITING_OFFSET, 1L, 0L)) {\n");
+        sb.append("            try {\n");
+        sb.append("                queueWake.invokeExact(ring.address());\n");
+        sb.append("            } catch (Throwable t) {\n");
+        sb.append("                // The request is queued either way, the drain thread wakes up on its own\n");
+        sb.append("            }\n");
+        sb.append("        }\n");
+        sb.append("    }\n\n");
+
+        sb.append("    /**\n");
+        sb.append("     * Waits until Rust dispatched every request claimed so far, or the queue was closed.\n");
+        sb.append("     */\n");
+        sb.append("    private static void awaitDrained(MemorySegment ring) {\n");
+        sb.append("        long tail = (long) QUEUE_LONG.getVolatile(ring, QUEUE_TAIL_OFFSET);\n");
+        sb.append("        while (queue == ring && (long) QUEUE_LONG.getAcquire(ring, QUEUE_HEAD_OFFSET) < tail) {\n");
+        sb.append("            java.util.concurrent.locks.LockSupport.parkNanos(QUEUE_WAIT_NANOS);\n");
+        sb.append("        }\n");
+        sb.append("    }\n\n");
+
+        sb.append("    private static boolean writeSlot(MemorySegment ring, long slot, int methodId,\n");
+        sb.append("                                     com.google.protobuf.MessageLite request, int size) {\n");
+        sb.append("        try {\n");
+        sb.append("            CodedOutputStream output = CodedOutputStream.newInstance(\n");
+        sb.append("                ring.asSlice(slot + QUEUE_SLOT_HEADER_SIZE, size).asByteBuffer());\n");
+        sb.append("            request.writeTo(output);\n");
+        sb.append("            output.flush();\n");
+        sb.append("            ring.set(ValueLayout.JAVA_INT, slot + 8, methodId);\n");
+        sb.append("            ring.set(ValueLayout.JAVA_INT, slot + 12, size);\n");
+        sb.append("            return true;\n");
+        sb.append("        } catch (Throwable t) {\n");
+        sb.append("            // The slot is already claimed and must still be published. The caller's\n");
+        sb.append("            // direct call then reports the failure\n");
+        sb.append("            ring.set(ValueLayout.JAVA_INT, slot + 8, QUEUE_SKIPPED_SLOT);\n");
+        sb.append("            ring.set(ValueLayout.JAVA_INT, slot + 12, 0);\n");
+        sb.append("            return false;\n");
+        sb.append("        }\n");
+        sb.append("    }\n\n");
+    }
+
+    private static void generateFireAndForgetMethod(StringBuilder sb, MethodDescriptorProto method,
+                                                    String visibility, String entryName) {
         String methodName = toCamelCase(method.getName());
         String inputType = resolveJavaType(method.getInputType());
         String outputType = resolveJavaType(method.getOutputType());
 
-        sb.append("    public static ").append(outputType).append(" ").append(methodName);
+        sb.append("    ").append(visibility).append(" static ").append(outputType).append(" ").append(entryName);
         sb.append("(").append(inputType).append(" request) {\n");
-        sb.append("        try (Arena arena = Arena.ofConfined()) {\n");
-        sb.append("            byte[] inputBytes = request.toByteArray();\n");
-        sb.append("            MemorySegment inputSegment = arena.allocate(inputBytes.length);\n");
-        sb.append("            inputSegment.copyFrom(MemorySegment.ofArray(inputBytes));\n");
-        sb.append("            MemorySegment outputLenSegment = arena.allocate(ValueLayout.JAVA_LONG);\n\n");
+        sb.append("        if (enqueue(").append(toQueueIdName(method)).append(", request)) {\n");
+        sb.append("            return ").append(outputType).append(".getDefaultInstance();\n");
+        sb.append("        }\n");
+        sb.append("        return ").append(methodName).append("Direct(request);\n");
+        sb.append("    }\n\n");
+    }
+
+    private static void generateServiceMethod(StringBuilder sb, MethodDescriptorProto method,
+                                              String visibility, String methodName) {
+        String inputType = resolveJavaType(method.getInputType());
+        String outputType = resolveJavaType(method.getOutputType());
+
+        sb.append("    ").append(visibility).append(" static ").append(outputType).append(" ").append(methodName);
+        sb.append("(").append(inputType).append(" request) {\n");
+
+        generateRequestPrologue(sb, true);
 
         sb.append("            MemorySegment resultPtr = (MemorySegment) ").append(toHandleName(method));
-        sb.append(".invokeExact(inputSegment, (long) inputBytes.length, outputLenSegment);\n\n");
+        sb.append(".invokeExact(inputSegment, (long) inputLen, outputLenSegment);\n\n");
 
         sb.append("            if (resultPtr.equals(MemorySegment.NULL)) return null;\n\n");
 
         sb.append("            long outputLen = outputLenSegment.get(ValueLayout.JAVA_LONG, 0);\n");
-        sb.append("            byte[] outputBytes = resultPtr.reinterpret(outputLen).toArray(ValueLayout.JAVA_BYTE);\n\n");
+        if (isAliased(method)) {
+            // The automatic arena is kept alive by every buffer sliced from the response,
+            // including the ones behind aliased ByteStrings
+            sb.append("            MemorySegment response = resultPtr.reinterpret(outputLen, Arena.ofAuto(), ");
+            sb.append("segment -> freeAliased(segment));\n");
+            sb.append("            CodedInputStream input = UnsafeByteOperations.unsafeWrap(response.asByteBuffer()).newCodedInput();\n");
+            sb.append("            input.enableAliasing(true);\n");
+            sb.append("            return ").append(outputType).append(".parseFrom(input);\n");
+            sb.append("        } catch (InvalidProtocolBufferException e) {\n");
+            sb.append("            throw new RuntimeException(\"Failed to parse response\", e);\n");
+            sb.append("        } catch (Throwable t) {\n");
+            sb.append("            throw new RuntimeException(\"FFI call failed\", t);\n");
+            generateTryEnd(sb);
+            sb.append("    }\n\n");
+            return;
+        }
+        if (hasOption(OPTION_PLAIN_ABI)) {
+            sb.append("            byte[] outputBytes = resultPtr.reinterpret(outputLen).toArray(ValueLayout.JAVA_BYTE);\n\n");
+            sb.append("            try {\n");
+            sb.append("                return ").append(outputType).append(".parseFrom(outputBytes);\n");
+        } else {
+            sb.append("            try {\n");
+            sb.append("                return ").append(outputType).append(".parseFrom(\n");
+            sb.append("                    CodedInputStream.newInstance(resultPtr.reinterpret(outputLen).asByteBuffer()));\n");
+        }
+        sb.append("            } finally {\n");
+        sb.append("                freeNative.invokeExact(resultPtr, outputLen);\n");
+        sb.append("            }\n");
+        sb.append("        } catch (InvalidProtocolBufferException e) {\n");
+        sb.append("            throw new RuntimeException(\"Failed to parse response\", e);\n");
+        sb.append("        } catch (Throwable t) {\n");
+        sb.append("            throw new RuntimeException(\"FFI call failed\", t);\n");
+        generateTryEnd(sb);
+        sb.append("    }\n\n");
+    }
+
+    /**
+     * Fire-and-forget batches are queued one request at a time so they stay ordered
+     * with single calls; only what cannot be queued goes through one downcall, once
+     * the queue caught up.
+     */
+    private static void generateFireAndForgetBatchMethod(StringBuilder sb, MethodDescriptorProto method) {
+        String methodName = toCamelCase(method.getName());
+        String inputType = resolveJavaType(method.getInputType());
+        String outputType = resolveJavaType(method.getOutputType());
+
+        sb.append("    public static java.util.List<").append(outputType).append("> ").append(methodName);
+        sb.append("Batch(java.util.List<").append(inputType).append("> requests) {\n");
+        sb.append("        java.util.List<").append(outputType).append("> responses = new java.util.ArrayList<>(requests.size());\n");
+        sb.append("        for (int i = 0; i < requests.size(); i++) {\n");
+        sb.append("            if (!enqueue(").append(toQueueIdName(method)).append(", requests.get(i))) {\n");
+        sb.append("                responses.addAll(").append(methodName);
+        sb.append("BatchDirect(requests.subList(i, requests.size())));\n");
+        sb.append("                break;\n");
+        sb.append("            }\n");
+        sb.append("            responses.add(").append(outputType).append(".getDefaultInstance());\n");
+        sb.append("        }\n");
+        sb.append("        return responses;\n");
+        sb.append("    }\n\n");
+    }
+
+    /**
+     * Sends every request in one downcall. The requests are written as the repeated
+     * field of a {@code BatchRequest} directly, without serializing them separately
+     * first. Entries of the returned list are null where the single call would have
+     * returned null, all of them when Rust could not decode the batch.
+     */
+    private static void generateBatchMethod(StringBuilder sb, MethodDescriptorProto method,
+                                            String visibility, String methodName) {
+        String inputType = resolveJavaType(method.getInputType());
+        String outputType = resolveJavaType(method.getOutputType());
+
+        sb.append("    ").append(visibility).append(" static java.util.List<").append(outputType).append("> ");
+        sb.append(methodName).append("(java.util.List<").append(inputType).append("> requests) {\n");
+        sb.append("        if (requests.isEmpty()) return java.util.List.of();\n\n");
+
+        if (hasOption(OPTION_SCRATCH_BUFFERS)) {
+            sb.append("        Scratch scratch = Scratch.borrow();\n");
+            sb.append("        try {\n");
+            sb.append("            int inputLen = 0;\n");
+            sb.append("            for (").append(inputType).append(" request : requests) {\n");
+            sb.append("                inputLen += CodedOutputStream.computeMessageSize(1, request);\n");
+            sb.append("            }\n");
+            sb.append("            CodedOutputStream output = CodedOutputStream.newInstance(scratch.reserve(inputLen));\n");
+            sb.append("            for (").append(inputType).append(" request : requests) {\n");
+            sb.append("                output.writeMessage(1, request);\n");
+            sb.append("            }\n");
+            sb.append("            output.flush();\n");
+            sb.append("            MemorySegment inputSegment = scratch.segment;\n");
+            sb.append("            MemorySegment outputLenSegment = scratch.outputLen;\n\n");
+        } else {
+            sb.append("        try (Arena arena = Arena.ofConfined()) {\n");
+            sb.append("            int size = 0;\n");
+            sb.append("            for (").append(inputType).append(" request : requests) {\n");
+            sb.append("                size += CodedOutputStream.computeMessageSize(1, request);\n");
+            sb.append("            }\n");
+            sb.append("            byte[] inputBytes = new byte[size];\n");
+            sb.append("            CodedOutputStream output = CodedOutputStream.newInstance(inputBytes);\n");
+            sb.append("            for (").append(inputType).append(" request : requests) {\n");
+            sb.append("                output.writeMessage(1, request);\n");
+            sb.append("            }\n");
+            sb.append("            output.checkNoSpaceLeft();\n");
+            sb.append("            long inputLen = inputBytes.length;\n");
+            sb.append("            MemorySegment inputSegment = arena.allocate(inputBytes.length);\n");
+            sb.append("            inputSegment.copyFrom(MemorySegment.ofArray(inputBytes));\n");
+            sb.append("            MemorySegment outputLenSegment = arena.allocate(ValueLayout.JAVA_LONG);\n\n");
+        }
+
+        sb.append("            MemorySegment resultPtr = (MemorySegment) ").append(toBatchHandleName(method));
+        sb.append(".invokeExact(inputSegment, (long) inputLen, outputLenSegment);\n\n");
+
+        sb.append("            if (resultPtr.equals(MemorySegment.NULL)) {\n");
+        sb.append("                return java.util.Collections.nCopies(requests.size(), null);\n");
+        sb.append("            }\n\n");
 
+        sb.append("            long outputLen = outputLenSegment.get(ValueLayout.JAVA_LONG, 0);\n");
         sb.append("            try {\n");
-        sb.append("                return ").append(outputType).append(".parseFrom(outputBytes);\n");
+        sb.append("                ").append(BATCH_RESPONSE_CLASS).append(" batch = ").append(BATCH_RESPONSE_CLASS);
+        sb.append(".parseFrom(resultPtr.reinterpret(outputLen).asByteBuffer());\n");
+        sb.append("                java.util.List<").append(outputType).append("> responses = ");
+        sb.append("new java.util.ArrayList<>(batch.getResultsCount());\n");
+        sb.append("                for (").append(BATCH_RESULT_CLASS).append(" result : batch.getResultsList()) {\n");
+        sb.append("                    responses.add(result.getOk() ? ").append(outputType);
+        sb.append(".parseFrom(result.getPayload()) : null);\n");
+        sb.append("                }\n");
+        sb.append("                return responses;\n");
         sb.append("            } finally {\n");
         sb.append("                freeNative.invokeExact(resultPtr, outputLen);\n");
         sb.append("            }\n");
@@ -190,11 +786,139 @@ public class FfiGenerator {
         sb.append("            throw new RuntimeException(\"Failed to parse response\", e);\n");
         sb.append("        } catch (Throwable t) {\n");
         sb.append("            throw new RuntimeException(\"FFI call failed\", t);\n");
+        generateTryEnd(sb);
+        sb.append("    }\n\n");
+    }
+
+    /**
+     * Closes the {@code try} block opened by {@link #generateRequestPrologue}, handing
+     * the scratch back.
+     */
+    private static void generateTryEnd(StringBuilder sb) {
+        if (hasOption(OPTION_SCRATCH_BUFFERS)) {
+            sb.append("        } finally {\n");
+            sb.append("            scratch.release();\n");
+        }
+        sb.append("        }\n");
+    }
+
+    /**
+     * Opens the {@code try} block of a service method and serializes {@code request}
+     * into {@code inputSegment}/{@code inputLen}.
+     */
+    private static void generateRequestPrologue(StringBuilder sb, boolean needsOutputLen) {
+        if (hasOption(OPTION_SCRATCH_BUFFERS)) {
+            sb.append("        Scratch scratch = Scratch.borrow();\n");
+            sb.append("        try {\n");
+            sb.append("            int inputLen = request.getSerializedSize();\n");
+            sb.append("            CodedOutputStream output = CodedOutputStream.newInstance(scratch.reserve(inputLen));\n");
+            sb.append("            request.writeTo(output);\n");
+            sb.append("            output.flush();\n");
+            sb.append("            MemorySegment inputSegment = scratch.segment;\n");
+            if (needsOutputLen) {
+                sb.append("            MemorySegment outputLenSegment = scratch.outputLen;\n");
+            }
+        } else {
+            sb.append("        try (Arena arena = Arena.ofConfined()) {\n");
+            sb.append("            byte[] inputBytes = request.toByteArray();\n");
+            sb.append("            long inputLen = inputBytes.length;\n");
+            sb.append("            MemorySegment inputSegment = arena.allocate(inputBytes.length);\n");
+            sb.append("            inputSegment.copyFrom(MemorySegment.ofArray(inputBytes));\n");
+            if (needsOutputLen) {
+                sb.append("            MemorySegment outputLenSegment = arena.allocate(ValueLayout.JAVA_LONG);\n");
+            }
+        }
+        sb.append("\n");
+    }
+
+    /**
+     * Struct returning methods get two overloads: one filling a caller provided
+     * segment with no allocation at all, and a convenience one returning the message.
+     */
+    private static void generateStructServiceMethod(StringBuilder sb, MethodDescriptorProto method,
+                                                    String visibility, String entryName) {
+        String methodName = toCamelCase(method.getName());
+        String inputType = resolveJavaType(method.getInputType());
+        String outputType = resolveJavaType(method.getOutputType());
+        String layoutClass = StructLayoutGenerator.layoutClass(method.getOutputType());
+
+        if (visibility.equals("public")) {
+            generateStructMethodDoc(sb, layoutClass);
+        }
+        sb.append("    ").append(visibility).append(" static boolean ").append(entryName);
+        sb.append("(").append(inputType).append(" request, MemorySegment out) {\n");
+        generateRequestPrologue(sb, false);
+        sb.append("            return (boolean) ").append(toHandleName(method));
+        sb.append(".invokeExact(inputSegment, (long) inputLen, out);\n");
+        sb.append("        } catch (Throwable t) {\n");
+        sb.append("            throw new RuntimeException(\"FFI call failed\", t);\n");
+        generateTryEnd(sb);
+        sb.append("    }\n\n");
+
+        sb.append("    public static ").append(outputType).append(" ").append(methodName);
+        sb.append("(").append(inputType).append(" request) {\n");
+        sb.append("        MemorySegment out = ").append(layoutClass).append(".borrow();\n");
+        sb.append("        try {\n");
+        sb.append("            return ").append(methodName).append("(request, out) ? ");
+        sb.append(layoutClass).append(".toMessage(out) : null;\n");
+        sb.append("        } finally {\n");
+        sb.append("            ").append(layoutClass).append(".release(out);\n");
+        sb.append("        }\n");
+        sb.append("    }\n\n");
+    }
+
+    private static void generateStructMethodDoc(StringBuilder sb, String layoutClass) {
+        sb.append("    /**\n");
+        sb.append("     * Fills {@code out}, laid out as {@link ").append(layoutClass).append("#LAYOUT}.\n");
+        sb.append("     *\n");
+        sb.append("     * @return false when the native side has no result, leaving {@code out} untouched\n");
+        sb.append("     */\n");
+    }
+
+    /**
+     * Emits the public entry point recording into {@code BridgeMetrics}. The
+     * {@code ENABLED} check is a static final, so with metrics switched off at
+     * startup the JIT reduces the wrapper to the plain call.
+     */
+    private static void generateMetricsWrapper(StringBuilder sb, MethodDescriptorProto method, boolean struct) {
+        String methodName = toCamelCase(method.getName());
+        String inputType = resolveJavaType(method.getInputType());
+        String outputType = resolveJavaType(method.getOutputType());
+        String metricsField = toMetricsFieldName(method);
+
+        if (struct) {
+            String layoutClass = StructLayoutGenerator.layoutClass(method.getOutputType());
+            generateStructMethodDoc(sb, layoutClass);
+            sb.append("    public static boolean ").append(methodName);
+            sb.append("(").append(inputType).append(" request, MemorySegment out) {\n");
+            sb.append("        if (!").append(METRICS_CLASS).append(".ENABLED) return ").append(methodName);
+            sb.append("Raw(request, out);\n");
+            sb.append("        long start = System.nanoTime();\n");
+            sb.append("        try {\n");
+            sb.append("            boolean filled = ").append(methodName).append("Raw(request, out);\n");
+            sb.append("            ").append(metricsField).append(".record(System.nanoTime() - start, ");
+            sb.append("request.getSerializedSize(), filled ? ").append(layoutClass).append(".LAYOUT.byteSize() : 0);\n");
+            sb.append("            return filled;\n");
+        } else {
+            sb.append("    public static ").append(outputType).append(" ").append(methodName);
+            sb.append("(").append(inputType).append(" request) {\n");
+            sb.append("        if (!").append(METRICS_CLASS).append(".ENABLED) return ").append(methodName);
+            sb.append("Raw(request);\n");
+            sb.append("        long start = System.nanoTime();\n");
+            sb.append("        try {\n");
+            sb.append("            ").append(outputType).append(" response = ").append(methodName).append("Raw(request);\n");
+            sb.append("            ").append(metricsField).append(".record(System.nanoTime() - start, ");
+            sb.append("request.getSerializedSize(), response == null ? 0 : response.getSerializedSize());\n");
+            sb.append("            return response;\n");
+        }
+        sb.append("        } catch (RuntimeException e) {\n");
+        sb.append("            ").append(metricsField).append(".recordFailure(System.nanoTime() - start);\n");
+        sb.append("            throw e;\n");
         sb.append("        }\n");
         sb.append("    }\n\n");
     }
 
-    private static String resolveJavaType(String protoType) {
+    static String resolveJavaType(String protoType) {
         if (typeMap.containsKey(protoType)) {
             return typeMap.get(protoType);
         }
@@ -208,11 +932,35 @@ public class FfiGenerator {
         return toCamelCase(method.getName()) + "Native";
     }
 
+    private static String toBatchHandleName(MethodDescriptorProto method) {
+        return toCamelCase(method.getName()) + "BatchNative";
+    }
+
+    private static String toMetricsFieldName(MethodDescriptorProto method) {
+        return toUpperSnakeCase(method.getName()) + "_METRICS";
+    }
+
+    private static String toQueueIdName(MethodDescriptorProto method) {
+        return toUpperSnakeCase(method.getName()) + "_QUEUE_ID";
+    }
+
+    private static String toUpperSnakeCase(String name) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) {
+                result.append('_');
+            }
+            result.append(Character.toUpperCase(c));
+        }
+        return result.toString();
+    }
+
     private static String toCamelCase(String name) {
         return name.isEmpty() ? name : Character.toLowerCase(name.charAt(0)) + name.substring(1);
     }
 
-    private static String toPascalCase(String name) {
+    static String toPascalCase(String name) {
         StringBuilder result = new StringBuilder();
         boolean capitalizeNext = true;
         for (char c : name.toCharArray()) {
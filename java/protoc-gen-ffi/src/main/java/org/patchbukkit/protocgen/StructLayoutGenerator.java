@@ -0,0 +1,261 @@
+package org.patchbukkit.protocgen;
+
+import com.google.protobuf.DescriptorProtos.*;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import com.google.protobuf.UnknownFieldSet;
+
+import java.util.*;
+
+/**
+ * Generates {@code MemoryLayout} bindings for messages marked with
+ * {@code (patchbukkit.ffi.struct_layout)}. Fields are laid out in declaration order
+ * with C alignment rules, matching the {@code #[repr(C)]} structs emitted by
+ * {@code rust/build/protobufs.rs}.
+ */
+final class StructLayoutGenerator {
+
+    // (patchbukkit.ffi.struct_layout) from proto/patchbukkit/ffi/options.proto
+    private static final int STRUCT_LAYOUT_FIELD = 50101;
+
+    private static final Map<String, DescriptorProto> messages = new HashMap<>();
+    private static final Map<String, String> layoutClasses = new HashMap<>();
+    private static final Map<String, long[]> sizeAndAlignment = new HashMap<>();
+
+    private StructLayoutGenerator() {
+    }
+
+    static void register(FileDescriptorProto file, String javaPackage) {
+        for (DescriptorProto message : file.getMessageTypeList()) {
+            String fullName = "." + file.getPackage() + "." + message.getName();
+            messages.put(fullName, message);
+            if (isStructLayout(message)) {
+                layoutClasses.put(fullName, javaPackage + "." + message.getName() + "Layout");
+            }
+        }
+    }
+
+    static boolean isStructType(String protoType) {
+        return layoutClasses.containsKey(protoType);
+    }
+
+    static String layoutClass(String protoType) {
+        return layoutClasses.get(protoType);
+    }
+
+    private static boolean isStructLayout(DescriptorProto message) {
+        UnknownFieldSet.Field field = message.getOptions().getUnknownFields().getField(STRUCT_LAYOUT_FIELD);
+        List<Long> values = field.getVarintList();
+        return !values.isEmpty() && values.get(values.size() - 1) != 0;
+    }
+
+    static List<String> structTypesIn(FileDescriptorProto file) {
+        List<String> result = new ArrayList<>();
+        for (DescriptorProto message : file.getMessageTypeList()) {
+            String fullName = "." + file.getPackage() + "." + message.getName();
+            if (isStructType(fullName)) {
+                result.add(fullName);
+            }
+        }
+        return result;
+    }
+
+    static String generateLayoutClass(String protoType, String javaPackage) {
+        DescriptorProto message = messages.get(protoType);
+        String messageType = FfiGenerator.resolveJavaType(protoType);
+        String className = message.getName() + "Layout";
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(javaPackage).append(";\n\n");
+        sb.append("import java.lang.foreign.*;\n");
+        sb.append("import java.lang.foreign.MemoryLayout.PathElement;\n");
+        sb.append("import java.lang.invoke.VarHandle;\n");
+        sb.append("import java.util.concurrent.atomic.AtomicReferenceArray;\n\n");
+
+        sb.append("/**\n");
+        sb.append(" * Native struct layout of {@link ").append(messageType).append("}, filled in place by\n");
+        sb.append(" * struct returning FFI calls. Mirrors {@code ").append(message.getName()).append("FFI} on the Rust side.\n");
+        sb.append(" */\n");
+        sb.append("public final class ").append(className).append(" {\n\n");
+
+        // Layout with explicit padding
+        sb.append("    public static final StructLayout LAYOUT = MemoryLayout.structLayout(\n");
+        StringJoiner elements = new StringJoiner(",\n");
+        long offset = 0;
+        for (FieldDescriptorProto field : message.getFieldList()) {
+            long[] fieldLayout = fieldSizeAndAlignment(message, field);
+            long padding = padding(offset, fieldLayout[1]);
+            if (padding > 0) {
+                elements.add("        MemoryLayout.paddingLayout(" + padding + ")");
+            }
+            elements.add("        " + layoutExpression(field) + ".withName(\"" + field.getName() + "\")");
+            offset += padding + fieldLayout[0];
+        }
+        long trailing = padding(offset, sizeAndAlignment(protoType)[1]);
+        if (trailing > 0) {
+            elements.add("        MemoryLayout.paddingLayout(" + trailing + ")");
+        }
+        sb.append(elements).append(");\n\n");
+
+        for (FieldDescriptorProto field : message.getFieldList()) {
+            if (field.getType() == Type.TYPE_MESSAGE) {
+                sb.append("    private static final long ").append(constantName(field)).append("_OFFSET = ");
+                sb.append("LAYOUT.byteOffset(PathElement.groupElement(\"").append(field.getName()).append("\"));\n");
+            } else {
+                sb.append("    private static final VarHandle ").append(constantName(field)).append(" = ");
+                sb.append("LAYOUT.varHandle(PathElement.groupElement(\"").append(field.getName()).append("\"));\n");
+            }
+        }
+        sb.append("    private static final int SCRATCH_STRIPES =\n");
+        sb.append("        Math.max(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 4);\n");
+        sb.append("    private static final AtomicReferenceArray<MemorySegment> SCRATCH = new AtomicReferenceArray<>(SCRATCH_STRIPES);\n\n");
+
+        sb.append("    private ").append(className).append("() {\n");
+        sb.append("    }\n\n");
+
+        sb.append("    /**\n");
+        sb.append("     * Borrows a struct from the stripe of the calling thread, or allocates one when the\n");
+        sb.append("     * stripe is empty. Hand it back with {@link #release} once it was read, so only\n");
+        sb.append("     * as many structs exist as calls use them at once, however many threads there are.\n");
+        sb.append("     */\n");
+        sb.append("    public static MemorySegment borrow() {\n");
+        sb.append("        MemorySegment segment = SCRATCH.getAndSet(stripe(), null);\n");
+        sb.append("        return segment != null ? segment : Arena.ofAuto().allocate(LAYOUT);\n");
+        sb.append("    }\n\n");
+
+        sb.append("    /**\n");
+        sb.append("     * Returns a struct from {@link #borrow}. It must not be used afterwards.\n");
+        sb.append("     */\n");
+        sb.append("    public static void release(MemorySegment segment) {\n");
+        sb.append("        SCRATCH.compareAndSet(stripe(), null, segment);\n");
+        sb.append("    }\n\n");
+
+        sb.append("    private static int stripe() {\n");
+        sb.append("        return (int) Thread.currentThread().threadId() & (SCRATCH_STRIPES - 1);\n");
+        sb.append("    }\n\n");
+
+        for (FieldDescriptorProto field : message.getFieldList()) {
+            String getter = "get" + pascalFieldName(field);
+            if (field.getType() == Type.TYPE_MESSAGE) {
+                sb.append("    public static MemorySegment ").append(getter).append("(MemorySegment segment) {\n");
+                sb.append("        return segment.asSlice(").append(constantName(field)).append("_OFFSET, ");
+                sb.append(layoutClass(field.getTypeName())).append(".LAYOUT);\n");
+            } else {
+                String javaType = javaPrimitive(field);
+                sb.append("    public static ").append(javaType).append(" ").append(getter).append("(MemorySegment segment) {\n");
+                sb.append("        return (").append(javaType).append(") ").append(constantName(field)).append(".get(segment, 0L);\n");
+            }
+            sb.append("    }\n\n");
+        }
+
+        sb.append("    public static ").append(messageType).append(" toMessage(MemorySegment segment) {\n");
+        sb.append("        return ").append(messageType).append(".newBuilder()\n");
+        for (FieldDescriptorProto field : message.getFieldList()) {
+            String name = pascalFieldName(field);
+            if (field.getType() == Type.TYPE_MESSAGE) {
+                sb.append("            .set").append(name).append("(").append(layoutClass(field.getTypeName()));
+                sb.append(".toMessage(get").append(name).append("(segment)))\n");
+            } else if (field.getType() == Type.TYPE_ENUM) {
+                sb.append("            .set").append(name).append("Value(get").append(name).append("(segment))\n");
+            } else {
+                sb.append("            .set").append(name).append("(get").append(name).append("(segment))\n");
+            }
+        }
+        sb.append("            .build();\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Returns {@code [size, alignment]} of a struct message, validating that every
+     * field has a fixed size.
+     */
+    static long[] sizeAndAlignment(String protoType) {
+        long[] cached = sizeAndAlignment.get(protoType);
+        if (cached != null) {
+            return cached;
+        }
+
+        DescriptorProto message = messages.get(protoType);
+        long offset = 0;
+        long alignment = 1;
+        for (FieldDescriptorProto field : message.getFieldList()) {
+            long[] fieldLayout = fieldSizeAndAlignment(message, field);
+            offset += padding(offset, fieldLayout[1]) + fieldLayout[0];
+            alignment = Math.max(alignment, fieldLayout[1]);
+        }
+        long[] result = {offset + padding(offset, alignment), alignment};
+        sizeAndAlignment.put(protoType, result);
+        return result;
+    }
+
+    private static long[] fieldSizeAndAlignment(DescriptorProto message, FieldDescriptorProto field) {
+        if (field.getLabel() == Label.LABEL_REPEATED || field.hasOneofIndex()) {
+            throw new IllegalArgumentException("struct_layout message " + message.getName()
+                + " cannot contain repeated, optional or oneof field " + field.getName());
+        }
+
+        return switch (field.getType()) {
+            case TYPE_DOUBLE, TYPE_INT64, TYPE_UINT64, TYPE_FIXED64, TYPE_SFIXED64, TYPE_SINT64 ->
+                new long[] {8, 8};
+            case TYPE_FLOAT, TYPE_INT32, TYPE_UINT32, TYPE_FIXED32, TYPE_SFIXED32, TYPE_SINT32, TYPE_ENUM ->
+                new long[] {4, 4};
+            case TYPE_BOOL -> new long[] {1, 1};
+            case TYPE_MESSAGE -> {
+                if (!isStructType(field.getTypeName())) {
+                    throw new IllegalArgumentException("struct_layout message " + message.getName()
+                        + " field " + field.getName() + " must reference another struct_layout message");
+                }
+                yield sizeAndAlignment(field.getTypeName());
+            }
+            default -> throw new IllegalArgumentException("struct_layout message " + message.getName()
+                + " cannot contain variable length field " + field.getName());
+        };
+    }
+
+    private static long padding(long offset, long alignment) {
+        return (alignment - offset % alignment) % alignment;
+    }
+
+    private static String layoutExpression(FieldDescriptorProto field) {
+        return switch (field.getType()) {
+            case TYPE_DOUBLE -> "ValueLayout.JAVA_DOUBLE";
+            case TYPE_FLOAT -> "ValueLayout.JAVA_FLOAT";
+            case TYPE_BOOL -> "ValueLayout.JAVA_BOOLEAN";
+            case TYPE_INT64, TYPE_UINT64, TYPE_FIXED64, TYPE_SFIXED64, TYPE_SINT64 -> "ValueLayout.JAVA_LONG";
+            case TYPE_MESSAGE -> layoutClass(field.getTypeName()) + ".LAYOUT";
+            default -> "ValueLayout.JAVA_INT";
+        };
+    }
+
+    private static String javaPrimitive(FieldDescriptorProto field) {
+        return switch (field.getType()) {
+            case TYPE_DOUBLE -> "double";
+            case TYPE_FLOAT -> "float";
+            case TYPE_BOOL -> "boolean";
+            case TYPE_INT64, TYPE_UINT64, TYPE_FIXED64, TYPE_SFIXED64, TYPE_SINT64 -> "long";
+            default -> "int";
+        };
+    }
+
+    private static String constantName(FieldDescriptorProto field) {
+        return field.getName().toUpperCase(Locale.ROOT);
+    }
+
+    private static String pascalFieldName(FieldDescriptorProto field) {
+        StringBuilder result = new StringBuilder();
+        boolean capitalizeNext = true;
+        for (char c : field.getName().toCharArray()) {
+            if (c == '_') {
+                capitalizeNext = true;
+            } else if (capitalizeNext) {
+                result.append(Character.toUpperCase(c));
+                capitalizeNext = false;
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -14,3 +14,4 @@ rootProject.name = "patchbukkit"
 include("patchbukkit")
 include("protoc-gen-ffi")
 include("patchbukkit-test-plugin")
+include("patchbukkit-jmh")
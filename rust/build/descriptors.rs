@@ -0,0 +1,248 @@
+//! Minimal descriptor messages used to read PatchBukkit's custom proto options.
+//!
+//! `prost_types` drops extension fields when decoding, so the raw descriptor set
+//! is decoded a second time with these structs, which declare the extensions from
+//! `proto/patchbukkit/ffi/options.proto` as regular fields.
+
+use std::collections::HashMap;
+
+#[derive(Clone, PartialEq, prost::Message)]
+pub struct FileDescriptorSet {
+    #[prost(message, repeated, tag = "1")]
+    pub file: Vec<FileDescriptorProto>,
+}
+
+#[derive(Clone, PartialEq, prost::Message)]
+pub struct FileDescriptorProto {
+    #[prost(string, optional, tag = "2")]
+    pub package: Option<String>,
+    #[prost(message, repeated, tag = "4")]
+    pub message_type: Vec<DescriptorProto>,
+    #[prost(message, repeated, tag = "6")]
+    pub service: Vec<ServiceDescriptorProto>,
+}
+
+#[derive(Clone, PartialEq, prost::Message)]
+pub struct DescriptorProto {
+    #[prost(string, optional, tag = "1")]
+    pub name: Option<String>,
+    #[prost(message, repeated, tag = "2")]
+    pub field: Vec<FieldDescriptorProto>,
+    #[prost(message, optional, tag = "7")]
+    pub options: Option<MessageOptions>,
+    #[prost(message, repeated, tag = "8")]
+    pub oneof_decl: Vec<OneofDescriptorProto>,
+}
+
+#[derive(Clone, PartialEq, prost::Message)]
+pub struct OneofDescriptorProto {
+    #[prost(string, optional, tag = "1")]
+    pub name: Option<String>,
+}
+
+#[derive(Clone, PartialEq, prost::Message)]
+pub struct FieldDescriptorProto {
+    #[prost(string, optional, tag = "1")]
+    pub name: Option<String>,
+    #[prost(int32, optional, tag = "4")]
+    pub label: Option<i32>,
+    #[prost(int32, optional, tag = "5")]
+    pub r#type: Option<i32>,
+    #[prost(string, optional, tag = "6")]
+    pub type_name: Option<String>,
+    #[prost(message, optional, tag = "8")]
+    pub options: Option<FieldOptions>,
+    #[prost(int32, optional, tag = "9")]
+    pub oneof_index: Option<i32>,
+    #[prost(bool, optional, tag = "17")]
+    pub proto3_optional: Option<bool>,
+}
+
+#[derive(Clone, PartialEq, prost::Message)]
+pub struct MessageOptions {
+    #[prost(bool, optional, tag = "50101")]
+    pub struct_layout: Option<bool>,
+    #[prost(message, optional, tag = "50102")]
+    pub bukkit_event: Option<BukkitEvent>,
+}
+
+#[derive(Clone, PartialEq, prost::Message)]
+pub struct BukkitEvent {
+    #[prost(string, tag = "1")]
+    pub bukkit_class: String,
+    #[prost(string, tag = "2")]
+    pub pumpkin_type: String,
+}
+
+#[derive(Clone, PartialEq, prost::Message)]
+pub struct FieldOptions {
+    #[prost(message, optional, tag = "50201")]
+    pub event_field: Option<EventField>,
+}
+
+/// `patchbukkit.ffi.EventField.Kind`, anything else is a VALUE field
+pub const EVENT_FIELD_PLAYER: i32 = 1;
+pub const EVENT_FIELD_COMPONENT: i32 = 2;
+
+#[derive(Clone, PartialEq, prost::Message)]
+pub struct EventField {
+    #[prost(int32, tag = "1")]
+    pub kind: i32,
+    #[prost(string, tag = "2")]
+    pub accessor: String,
+    #[prost(string, tag = "3")]
+    pub legacy_accessor: String,
+    #[prost(string, tag = "4")]
+    pub pumpkin_field: String,
+}
+
+#[derive(Clone, PartialEq, prost::Message)]
+pub struct ServiceDescriptorProto {
+    #[prost(string, optional, tag = "1")]
+    pub name: Option<String>,
+    #[prost(message, repeated, tag = "2")]
+    pub method: Vec<MethodDescriptorProto>,
+}
+
+#[derive(Clone, PartialEq, prost::Message)]
+pub struct MethodDescriptorProto {
+    #[prost(string, optional, tag = "1")]
+    pub name: Option<String>,
+    #[prost(message, optional, tag = "4")]
+    pub options: Option<MethodOptions>,
+}
+
+#[derive(Clone, PartialEq, prost::Message)]
+pub struct MethodOptions {
+    #[prost(bool, optional, tag = "50001")]
+    pub fire_and_forget: Option<bool>,
+}
+
+/// A message marked with `(patchbukkit.ffi.struct_layout) = true`
+pub struct StructMessage {
+    /// Fully qualified name with a leading dot, as used in `type_name`
+    pub full_name: String,
+    pub name: String,
+    pub fields: Vec<FieldDescriptorProto>,
+}
+
+/// A message marked with `(patchbukkit.ffi.bukkit_event)`, together with the oneof
+/// case of the envelope it is sent in
+pub struct EventMessage {
+    pub full_name: String,
+    pub name: String,
+    pub bukkit_class: String,
+    pub pumpkin_type: String,
+    pub fields: Vec<FieldDescriptorProto>,
+    /// Fully qualified name of the envelope message with a leading dot
+    pub envelope: String,
+    pub oneof_name: String,
+    /// Name of the envelope field carrying this message
+    pub case_name: String,
+}
+
+impl FileDescriptorSet {
+    pub fn event_messages(&self) -> Vec<EventMessage> {
+        // Message type -> (envelope, oneof name, field name) for every oneof message field
+        let mut cases: HashMap<String, Vec<(String, String, String)>> = HashMap::new();
+        for file in &self.file {
+            let package = file.package.as_deref().unwrap_or_default();
+            for message in &file.message_type {
+                let full_name = format!(".{package}.{}", message.name.as_deref().unwrap_or_default());
+                for field in &message.field {
+                    let (Some(index), Some(type_name)) = (field.oneof_index, &field.type_name) else {
+                        continue;
+                    };
+                    if field.proto3_optional.unwrap_or(false) {
+                        continue;
+                    }
+                    let oneof_name = message.oneof_decl[index as usize].name.clone().unwrap_or_default();
+                    cases.entry(type_name.clone()).or_default().push((
+                        full_name.clone(),
+                        oneof_name,
+                        field.name.clone().unwrap_or_default(),
+                    ));
+                }
+            }
+        }
+
+        let mut messages = Vec::new();
+        for file in &self.file {
+            let package = file.package.as_deref().unwrap_or_default();
+            for message in &file.message_type {
+                let Some(event) = message.options.as_ref().and_then(|options| options.bukkit_event.as_ref()) else {
+                    continue;
+                };
+                let name = message.name.clone().unwrap_or_default();
+                let full_name = format!(".{package}.{name}");
+                let envelope_cases = cases.get(&full_name).map(Vec::as_slice).unwrap_or_default();
+                assert!(
+                    envelope_cases.len() == 1,
+                    "bukkit_event message {name} must be a case of exactly one oneof, found {}",
+                    envelope_cases.len()
+                );
+                let (envelope, oneof_name, case_name) = envelope_cases[0].clone();
+                messages.push(EventMessage {
+                    full_name,
+                    name,
+                    bukkit_class: event.bukkit_class.clone(),
+                    pumpkin_type: event.pumpkin_type.clone(),
+                    fields: message.field.clone(),
+                    envelope,
+                    oneof_name,
+                    case_name,
+                });
+            }
+        }
+        messages
+    }
+
+    pub fn struct_messages(&self) -> Vec<StructMessage> {
+        let mut messages = Vec::new();
+        for file in &self.file {
+            let package = file.package.as_deref().unwrap_or_default();
+            for message in &file.message_type {
+                let enabled = message
+                    .options
+                    .as_ref()
+                    .and_then(|options| options.struct_layout)
+                    .unwrap_or(false);
+                if enabled {
+                    let name = message.name.clone().unwrap_or_default();
+                    messages.push(StructMessage {
+                        full_name: format!(".{package}.{name}"),
+                        name,
+                        fields: message.field.clone(),
+                    });
+                }
+            }
+        }
+        messages
+    }
+
+    /// Returns the fully qualified names (`package.Service.Method`) of every
+    /// method marked with `(patchbukkit.ffi.fire_and_forget) = true`.
+    pub fn fire_and_forget_methods(&self) -> Vec<String> {
+        let mut methods = Vec::new();
+        for file in &self.file {
+            let package = file.package.as_deref().unwrap_or_default();
+            for service in &file.service {
+                let service_name = service.name.as_deref().unwrap_or_default();
+                for method in &service.method {
+                    let enabled = method
+                        .options
+                        .as_ref()
+                        .and_then(|options| options.fire_and_forget)
+                        .unwrap_or(false);
+                    if enabled {
+                        methods.push(format!(
+                            "{package}.{service_name}.{}",
+                            method.name.as_deref().unwrap_or_default()
+                        ));
+                    }
+                }
+            }
+        }
+        methods
+    }
+}
@@ -1,6 +1,7 @@
 use crate::{java::setup_java, protobufs::setup_protobufs};
 use std::{error::Error, path::PathBuf};
 
+pub mod descriptors;
 pub mod java;
 pub mod protobufs;
 
@@ -1,5 +1,10 @@
+use crate::descriptors::{
+    EVENT_FIELD_COMPONENT, EVENT_FIELD_PLAYER, EventMessage, FileDescriptorSet, StructMessage,
+};
 use glob::glob;
+use prost::Message;
 use prost_build::{Config, Service, ServiceGenerator};
+use std::collections::{HashMap, HashSet};
 use std::io::Write;
 use std::path::PathBuf;
 use std::sync::{Arc, Mutex};
@@ -14,6 +19,8 @@ struct ServiceInfo {
 #[derive(Clone)]
 struct MethodInfo {
     fn_name: String,
+    input_type: String,
+    fire_and_forget: bool,
 }
 
 #[derive(Default)]
@@ -24,36 +31,30 @@ struct SharedState {
 pub struct FfiServiceGenerator {
     impl_module: String,
     proto_module: String,
+    fire_and_forget: HashSet<String>,
+    /// Fully qualified proto type -> generated `#[repr(C)]` struct path
+    struct_types: HashMap<String, String>,
     state: Arc<Mutex<SharedState>>,
 }
 
 impl FfiServiceGenerator {
-    pub fn new(impl_module: impl Into<String>, proto_module: impl Into<String>) -> Self {
+    pub fn new(
+        impl_module: impl Into<String>,
+        proto_module: impl Into<String>,
+        fire_and_forget: HashSet<String>,
+        struct_types: HashMap<String, String>,
+    ) -> Self {
         Self {
             impl_module: impl_module.into(),
             proto_module: proto_module.into(),
+            fire_and_forget,
+            struct_types,
             state: Arc::new(Mutex::new(SharedState::default())),
         }
     }
 
     fn proto_type_to_rust(&self, proto_type: &str) -> String {
-        let trimmed = proto_type.trim_start_matches('.');
-
-        if let Some(type_name) = trimmed.strip_prefix("google.protobuf.") {
-            return format!("::prost_types::{type_name}");
-        }
-
-        let parts: Vec<&str> = trimmed.split('.').collect();
-        let (modules, type_name) = parts.split_at(parts.len() - 1);
-
-        let module_path = modules
-            .iter()
-            .map(|s| to_snake_case(s))
-            .collect::<Vec<_>>()
-            .join("::");
-        let type_name = to_pascal_case(type_name[0]);
-
-        format!("{}::{module_path}::{type_name}", self.proto_module)
+        proto_type_to_rust(&self.proto_module, proto_type)
     }
 
     fn proto_package_to_java_class(&self, package: &str, service_name: &str) -> String {
@@ -87,10 +88,89 @@ impl ServiceGenerator for FfiServiceGenerator {
             let fn_name = format!("ffi_{}_{}", to_snake_case(&service.name), &method.name);
             let input_type = self.proto_type_to_rust(&method.input_proto_type);
 
+            let qualified_name = format!("{}.{}.{}", service.package, service.name, method.proto_name);
+
             service_info.methods.push(MethodInfo {
                 fn_name: fn_name.clone(),
+                input_type: input_type.clone(),
+                fire_and_forget: self.fire_and_forget.contains(&qualified_name),
             });
 
+            buf.push_str(&format!(
+                r#"/// Batched FFI function for {fn_name}, taking a `BatchRequest` of encoded requests
+///
+/// # Safety
+///
+/// - `input_ptr` must be a valid pointer to `input_len` bytes of memory
+/// - `output_len` must be a valid pointer to write the output length
+/// - The caller is responsible for freeing the returned pointer using `ffi_free_bytes`
+#[unsafe(no_mangle)]
+pub unsafe extern "C" fn {fn_name}_batch(
+    input_ptr: *const u8,
+    input_len: usize,
+    output_len: *mut usize,
+) -> *mut u8 {{
+    use prost::Message;
+    use crate::proto::patchbukkit::ffi::{{BatchRequest, BatchResponse, BatchResult}};
+    let input_slice = unsafe {{ std::slice::from_raw_parts(input_ptr, input_len) }};
+    let Ok(batch) = BatchRequest::decode(input_slice) else {{
+        unsafe {{ *output_len = 0 }};
+        return std::ptr::null_mut();
+    }};
+    let results = batch
+        .requests
+        .iter()
+        .map(|bytes| {{
+            match {input_type}::decode(bytes.as_slice()).ok().and_then({0}::{fn_name}_impl) {{
+                Some(response) => BatchResult {{
+                    ok: true,
+                    payload: response.encode_to_vec(),
+                }},
+                None => BatchResult::default(),
+            }}
+        }})
+        .collect();
+    let encoded = BatchResponse {{ results }}.encode_to_vec();
+    unsafe {{ *output_len = encoded.len() }};
+    let ptr = encoded.as_ptr() as *mut u8;
+    std::mem::forget(encoded);
+    ptr
+}}
+"#,
+                self.impl_module
+            ));
+
+            if let Some(struct_type) = self.struct_types.get(&method.output_proto_type) {
+                buf.push_str(&format!(
+                    r#"/// FFI function for {fn_name}, filling a `{struct_type}` in place
+///
+/// # Safety
+///
+/// - `input_ptr` must be a valid pointer to `input_len` bytes of memory
+/// - `output` must be a valid, writable pointer to a `{struct_type}`
+#[unsafe(no_mangle)]
+pub unsafe extern "C" fn {fn_name}(
+    input_ptr: *const u8,
+    input_len: usize,
+    output: *mut {struct_type},
+) -> bool {{
+    use prost::Message;
+    let input_slice = unsafe {{ std::slice::from_raw_parts(input_ptr, input_len) }};
+    let Ok(request) = {input_type}::decode(input_slice) else {{
+        return false;
+    }};
+    let Some(response) = {0}::{fn_name}_impl(request) else {{
+        return false;
+    }};
+    unsafe {{ output.write({struct_type}::from(&response)) }};
+    true
+}}
+"#,
+                    self.impl_module
+                ));
+                continue;
+            }
+
             buf.push_str(&format!(
                 r#"/// FFI function for {fn_name}
 ///
@@ -130,6 +210,283 @@ pub unsafe extern "C" fn {fn_name}(
     }
 }
 
+fn proto_type_to_rust(proto_module: &str, proto_type: &str) -> String {
+    let trimmed = proto_type.trim_start_matches('.');
+
+    if let Some(type_name) = trimmed.strip_prefix("google.protobuf.") {
+        return format!("::prost_types::{type_name}");
+    }
+
+    let parts: Vec<&str> = trimmed.split('.').collect();
+    let (modules, type_name) = parts.split_at(parts.len() - 1);
+
+    let module_path = modules
+        .iter()
+        .map(|s| to_snake_case(s))
+        .collect::<Vec<_>>()
+        .join("::");
+    let type_name = to_pascal_case(type_name[0]);
+
+    format!("{proto_module}::{module_path}::{type_name}")
+}
+
+/// Writes the `#[repr(C)]` mirror of every struct_layout message to `ffi_structs.rs`.
+/// Fields keep their declaration order so the C layout matches the padded
+/// `StructLayout` generated by protoc-gen-ffi.
+fn write_ffi_structs(path: &PathBuf, messages: &[StructMessage], struct_types: &HashMap<String, String>) {
+    const TYPE_MESSAGE: i32 = 11;
+    const LABEL_REPEATED: i32 = 3;
+
+    let mut file = std::fs::File::create(path).unwrap();
+
+    for message in messages {
+        let struct_name = &struct_types[&message.full_name];
+        let proto_type = proto_type_to_rust("crate::proto", &message.full_name);
+
+        writeln!(
+            file,
+            r#"/// `#[repr(C)]` layout of `{}`
+#[repr(C)]
+#[derive(Clone, Copy, Debug, Default, PartialEq)]
+pub struct {struct_name} {{"#,
+            message.full_name.trim_start_matches('.')
+        )
+        .unwrap();
+
+        let mut conversions = Vec::new();
+        for field in &message.fields {
+            let name = field.name.clone().unwrap_or_default();
+            let field_type = field.r#type.unwrap_or_default();
+            assert!(
+                field.label != Some(LABEL_REPEATED) && field.oneof_index.is_none(),
+                "struct_layout message {} cannot contain repeated, optional or oneof field {name}",
+                message.name
+            );
+
+            let rust_type = if field_type == TYPE_MESSAGE {
+                let type_name = field.type_name.clone().unwrap_or_default();
+                let nested = struct_types.get(&type_name).unwrap_or_else(|| {
+                    panic!(
+                        "struct_layout message {} field {name} must reference another struct_layout message",
+                        message.name
+                    )
+                });
+                conversions.push(format!(
+                    "            {name}: message.{name}.as_ref().map({nested}::from).unwrap_or_default(),"
+                ));
+                nested.clone()
+            } else {
+                conversions.push(format!("            {name}: message.{name},"));
+                scalar_rust_type(field_type).unwrap_or_else(|| {
+                    panic!(
+                        "struct_layout message {} cannot contain variable length field {name}",
+                        message.name
+                    )
+                })
+                .to_string()
+            };
+
+            writeln!(file, "    pub {name}: {rust_type},").unwrap();
+        }
+
+        writeln!(
+            file,
+            r#"}}
+
+impl From<&{proto_type}> for {struct_name} {{
+    fn from(message: &{proto_type}) -> Self {{
+        Self {{
+{}
+        }}
+    }}
+}}
+"#,
+            conversions.join("\n")
+        )
+        .unwrap();
+    }
+}
+
+/// Writes a `PatchBukkitEvent` impl for the Pumpkin event of every bukkit_event message
+/// to `event_bridge.rs`, plus `register_bridged_event` registering a handler for it by
+/// Bukkit class name. The Java side of the same messages is generated by protoc-gen-ffi.
+fn write_event_bridge(path: &PathBuf, messages: &[EventMessage]) {
+    const TYPE_STRING: i32 = 9;
+
+    let mut file = std::fs::File::create(path).unwrap();
+
+    writeln!(
+        file,
+        r#"/// Registers a `PatchBukkitEventHandler` for the Pumpkin event bridged to
+/// `bukkit_class`. Returns false if that Bukkit event is not bridged
+pub async fn register_bridged_event(
+    context: &pumpkin::plugin::Context,
+    bukkit_class: &str,
+    band: i32,
+    listeners: std::sync::Arc<std::sync::atomic::AtomicUsize>,
+    filter: std::sync::Arc<crate::events::filter::EventFilterStage>,
+    command_tx: tokio::sync::mpsc::Sender<crate::java::jvm::commands::JvmCommand>,
+    priority: pumpkin::plugin::EventPriority,
+    blocking: bool,
+) -> bool {{
+    match bukkit_class {{"#
+    )
+    .unwrap();
+    for message in messages {
+        writeln!(
+            file,
+            r#"        "{bukkit_class}" => {{
+            context
+                .register_event::<{pumpkin_type}, crate::events::handler::PatchBukkitEventHandler<{pumpkin_type}>>(
+                    std::sync::Arc::new(crate::events::handler::PatchBukkitEventHandler::new(
+                        band, listeners, filter, command_tx,
+                    )),
+                    priority,
+                    blocking,
+                )
+                .await;
+            true
+        }}"#,
+            bukkit_class = message.bukkit_class,
+            pumpkin_type = message.pumpkin_type,
+        )
+        .unwrap();
+    }
+    writeln!(file, "        _ => false,\n    }}\n}}\n").unwrap();
+
+    for message in messages {
+        let proto_type = proto_type_to_rust("crate::proto", &message.full_name);
+        let envelope = proto_type_to_rust("crate::proto", &message.envelope);
+        let (envelope_module, envelope_name) = envelope.rsplit_once("::").unwrap();
+        let variant = format!(
+            "{envelope_module}::{}::{}::{}",
+            to_snake_case(envelope_name),
+            to_upper_camel_case(&message.oneof_name),
+            to_upper_camel_case(&message.case_name)
+        );
+
+        let mut payload_fields = Vec::new();
+        let mut modifications = Vec::new();
+        let mut player = "None".to_string();
+        let mut sample = "None".to_string();
+        for field in &message.fields {
+            let name = field.name.clone().unwrap_or_default();
+            let event_field = field
+                .options
+                .as_ref()
+                .and_then(|options| options.event_field.clone())
+                .unwrap_or_else(|| panic!("bukkit_event message {} field {name} has no event_field option", message.name));
+            let pumpkin = &event_field.pumpkin_field;
+            assert!(!pumpkin.is_empty(), "event_field {}.{name} needs a pumpkin_field", message.name);
+
+            match event_field.kind {
+                EVENT_FIELD_PLAYER => {
+                    payload_fields.push(format!(
+                        "{name}: Some(crate::proto::patchbukkit::common::Uuid::from(self.{pumpkin}.gameprofile.id)),"
+                    ));
+                    modifications.push(format!("server.get_player_by_uuid(event.{name}?.to_uuid()?)?;"));
+                    if player == "None" {
+                        player = format!("Some(self.{pumpkin}.clone())");
+                        sample = format!("Some(crate::events::filter::FilterSample::of_player(&self.{pumpkin}))");
+                    }
+                }
+                EVENT_FIELD_COMPONENT => {
+                    assert!(
+                        field.r#type == Some(TYPE_STRING) && field.proto3_optional == Some(true),
+                        "COMPONENT field {}.{name} must be an optional string",
+                        message.name
+                    );
+                    payload_fields.push(format!(
+                        "{name}: Some(serde_json::to_string(&self.{pumpkin}).unwrap()),"
+                    ));
+                    modifications.push(format!(
+                        "if let Some(value) = event.{name} {{
+                    self.{pumpkin} = serde_json::from_str(&value).ok()?;
+                }}"
+                    ));
+                }
+                // VALUE fields are read only on the Java side
+                _ => payload_fields.push(format!("{name}: self.{pumpkin}.clone(),")),
+            }
+        }
+
+        writeln!(
+            file,
+            r#"impl crate::events::handler::PatchBukkitEvent for {pumpkin_type} {{
+    #[allow(clippy::clone_on_copy)]
+    fn to_payload(
+        &self,
+        server: std::sync::Arc<pumpkin::server::Server>,
+    ) -> crate::events::handler::JvmEventPayload {{
+        crate::events::handler::JvmEventPayload {{
+            event: {envelope} {{
+                {oneof}: Some({variant}({proto_type} {{
+                    {payload_fields}
+                }})),
+            }},
+            context: crate::events::handler::EventContext {{
+                server,
+                player: {player},
+            }},
+        }}
+    }}
+
+    #[allow(unreachable_patterns, unused_variables)]
+    fn apply_modifications(
+        &mut self,
+        server: &std::sync::Arc<pumpkin::server::Server>,
+        data: {envelope_module}::{envelope_snake}::{data_enum},
+    ) -> Option<()> {{
+        match data {{
+            {variant}(event) => {{
+                {modifications}
+            }}
+            _ => return None,
+        }}
+
+        Some(())
+    }}
+
+    fn filter_sample(&self) -> Option<crate::events::filter::FilterSample> {{
+        {sample}
+    }}
+}}
+"#,
+            pumpkin_type = message.pumpkin_type,
+            oneof = message.oneof_name,
+            envelope_snake = to_snake_case(envelope_name),
+            data_enum = to_upper_camel_case(&message.oneof_name),
+            payload_fields = payload_fields.join("\n                    "),
+            modifications = modifications.join("\n                "),
+        )
+        .unwrap();
+    }
+}
+
+fn to_upper_camel_case(s: &str) -> String {
+    s.split('_')
+        .map(|part| {
+            let mut c = part.chars();
+            c.next()
+                .map(|f| f.to_ascii_uppercase().to_string() + c.as_str())
+                .unwrap_or_default()
+        })
+        .collect()
+}
+
+fn scalar_rust_type(field_type: i32) -> Option<&'static str> {
+    Some(match field_type {
+        1 => "f64",
+        2 => "f32",
+        3 | 16 | 18 => "i64",
+        4 | 6 => "u64",
+        5 | 14 | 15 | 17 => "i32",
+        7 | 13 => "u32",
+        8 => "bool",
+        _ => return None,
+    })
+}
+
 fn to_pascal_case(s: &str) -> String {
     if s.chars().all(|c| c.is_uppercase() || c.is_numeric()) {
         let mut c = s.chars();
@@ -161,14 +518,52 @@ pub fn setup_protobufs(base: PathBuf) {
         .filter_map(Result::ok)
         .collect();
 
-    let generator = FfiServiceGenerator::new("crate::java::native_callbacks", "crate::proto");
-    let state = generator.get_state();
+    let out_dir = std::env::var("OUT_DIR").unwrap();
+    let descriptor_path = PathBuf::from(&out_dir).join("patchbukkit_descriptors.bin");
 
     let mut config = Config::new();
+    config.file_descriptor_set_path(&descriptor_path);
+    let fds = config.load_fds(&paths, &[proto_path]).unwrap();
+
+    // Decode the raw set again to pick up the custom options, which prost_types drops
+    let raw = std::fs::read(&descriptor_path).unwrap();
+    let options = FileDescriptorSet::decode(raw.as_slice()).unwrap();
+    let fire_and_forget: HashSet<String> = options.fire_and_forget_methods().into_iter().collect();
+    let struct_messages = options.struct_messages();
+    let struct_types: HashMap<String, String> = struct_messages
+        .iter()
+        .map(|message| {
+            (
+                message.full_name.clone(),
+                format!("{}FFI", to_pascal_case(&message.name)),
+            )
+        })
+        .collect();
+    write_ffi_structs(
+        &PathBuf::from(&out_dir).join("ffi_structs.rs"),
+        &struct_messages,
+        &struct_types,
+    );
+
+    write_event_bridge(
+        &PathBuf::from(&out_dir).join("event_bridge.rs"),
+        &options.event_messages(),
+    );
+
+    let generator = FfiServiceGenerator::new(
+        "crate::java::native_callbacks",
+        "crate::proto",
+        fire_and_forget,
+        struct_types
+            .iter()
+            .map(|(name, struct_name)| (name.clone(), format!("crate::proto::structs::{struct_name}")))
+            .collect(),
+    );
+    let state = generator.get_state();
+
     config.service_generator(Box::new(generator));
-    config.compile_protos(&paths, &[proto_path]).unwrap();
+    config.compile_fds(fds).unwrap();
 
-    let out_dir = std::env::var("OUT_DIR").unwrap();
     let init_path = PathBuf::from(&out_dir).join("ffi_init.rs");
 
     let state = state.lock().unwrap();
@@ -232,11 +627,132 @@ pub fn initialize_ffi_callbacks(jvm: &j4rs::Jvm) -> anyhow::Result<()> {{
         .unwrap();
     }
 
+    for service in &state.services {
+        writeln!(
+            file,
+            r#"
+    jvm.invoke_static(
+        "{}",
+        "initBatch",
+        &["#,
+            service.java_class
+        )
+        .unwrap();
+
+        for method in &service.methods {
+            writeln!(file,
+                "            InvocationArg::try_from(crate::proto::{}::{}_batch as *const () as i64)?.into_primitive()?,",
+                service.module_path, method.fn_name
+            ).unwrap();
+        }
+
+        writeln!(file, "        ],\n    )?;").unwrap();
+    }
+
+    for service in &state.services {
+        if !service.methods.iter().any(|m| m.fire_and_forget) {
+            continue;
+        }
+
+        writeln!(
+            file,
+            r#"
+    jvm.invoke_static(
+        "{}",
+        "initQueue",
+        &[
+            InvocationArg::try_from(crate::proto::queue::start_queue("{}", {})? as i64)?
+                .into_primitive()?,
+            InvocationArg::try_from(crate::proto::queue::ffi_queue_wake as *const () as i64)?
+                .into_primitive()?,
+        ],
+    )?;"#,
+            service.java_class,
+            service.java_class,
+            dispatch_fn_name(service)
+        )
+        .unwrap();
+    }
+
     writeln!(
         file,
         r#"
     Ok(())
+}}
+
+/// Closes the Java side of every queue, then stops the drain threads after
+/// they processed whatever is still queued
+pub fn shutdown_ffi_callbacks(jvm: &j4rs::Jvm) {{"#
+    )
+    .unwrap();
+
+    for service in &state.services {
+        if !service.methods.iter().any(|m| m.fire_and_forget) {
+            continue;
+        }
+
+        writeln!(
+            file,
+            r#"    if let Err(e) = jvm.invoke_static("{}", "closeQueue", j4rs::InvocationArg::empty()) {{
+        tracing::warn!("Failed to close the {} queue: {{e}}");
+    }}"#,
+            service.java_class, service.java_class
+        )
+        .unwrap();
+    }
+
+    writeln!(
+        file,
+        r#"    crate::proto::queue::stop_queues();
 }}"#
     )
     .unwrap();
+
+    for service in &state.services {
+        if !service.methods.iter().any(|m| m.fire_and_forget) {
+            continue;
+        }
+
+        writeln!(
+            file,
+            r#"
+fn {}(method_id: u32, payload: &[u8]) {{
+    use prost::Message;
+    match method_id {{"#,
+            dispatch_fn_name(service)
+        )
+        .unwrap();
+
+        for (index, method) in service.methods.iter().enumerate() {
+            if !method.fire_and_forget {
+                continue;
+            }
+            writeln!(
+                file,
+                r#"        {index} => match {}::decode(payload) {{
+            Ok(request) => {{
+                let _ = crate::java::native_callbacks::{}_impl(request);
+            }}
+            Err(e) => tracing::warn!("Dropping malformed queued {} request: {{e}}"),
+        }},"#,
+                method.input_type, method.fn_name, method.fn_name
+            )
+            .unwrap();
+        }
+
+        writeln!(
+            file,
+            r#"        _ => tracing::warn!("Dropping queued request for unknown method id {{method_id}}"),
+    }}
+}}"#
+        )
+        .unwrap();
+    }
+}
+
+fn dispatch_fn_name(service: &ServiceInfo) -> String {
+    format!(
+        "dispatch_{}_queued",
+        service.java_class.rsplit('.').next().map(to_snake_case).unwrap_or_default()
+    )
 }
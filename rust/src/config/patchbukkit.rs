@@ -11,12 +11,39 @@ pub struct PatchBukkitConfig {
 #[serde(rename_all = "kebab-case")]
 pub struct SettingsConfig {
     pub minimum_supported_plugin_api: Option<String>,
+    /// Record per-RPC latency and payload metrics for the FFI bridge
+    pub bridge_metrics: Option<bool>,
+    /// Seconds between bridge metrics reports, 0 disables periodic reports
+    pub bridge_metrics_export_interval: Option<u64>,
+    /// Time every Java event listener and scheduler task, off unless set to true
+    pub listener_timings: Option<bool>,
+    /// Milliseconds after which a running listener has its stack logged, 0 disables it
+    pub slow_listener_threshold: Option<u64>,
+    /// Asynchronous events dispatched on virtual threads at once
+    pub async_event_concurrency: Option<u32>,
+    /// Threads running the asynchronous event listeners of one plugin at once
+    pub async_event_plugin_concurrency: Option<u32>,
+    /// Asynchronous scheduler tasks of one plugin running at once
+    pub async_task_plugin_concurrency: Option<u32>,
+    /// Nanoseconds per tick spent running work handed to the main thread
+    pub main_thread_budget_nanos: Option<u64>,
+    /// Milliseconds after which a running sync task has its stack logged, 0 disables it
+    pub slow_task_threshold: Option<u64>,
 }
 
 impl PatchBukkitConfig {
     pub const DEFAULT: PatchBukkitConfig = PatchBukkitConfig {
         settings: SettingsConfig {
             minimum_supported_plugin_api: None,
+            bridge_metrics: None,
+            bridge_metrics_export_interval: None,
+            listener_timings: None,
+            slow_listener_threshold: None,
+            async_event_concurrency: None,
+            async_event_plugin_concurrency: None,
+            async_task_plugin_concurrency: None,
+            main_thread_budget_nanos: None,
+            slow_task_threshold: None,
         },
     };
 
@@ -0,0 +1,228 @@
+use std::collections::HashMap;
+use std::sync::{Arc, Mutex, RwLock};
+
+use pumpkin::entity::player::Player;
+use pumpkin::plugin::player::player_leave::PlayerLeaveEvent;
+use pumpkin::plugin::{BoxFuture, EventHandler};
+use pumpkin::server::Server;
+use pumpkin_api_macros::with_runtime;
+use pumpkin_util::math::vector3::Vector3;
+use uuid::Uuid;
+
+use crate::events::handler::JvmEventPayload;
+use crate::java::native_callbacks::forget_filtered_player;
+use crate::proto::patchbukkit::events::EventFilter;
+
+/// What the filters of a band compare: where the player of an event is and where
+/// they look
+#[derive(Clone, Copy, Debug)]
+pub struct FilterSample {
+    pub player: Uuid,
+    pub position: Vector3<f64>,
+    pub yaw: f32,
+    pub pitch: f32,
+}
+
+impl FilterSample {
+    #[must_use]
+    pub fn of_player(player: &Player) -> Self {
+        let entity = player.get_entity();
+        Self {
+            player: player.gameprofile.id,
+            position: entity.pos.load(),
+            yaw: entity.yaw.load(),
+            pitch: entity.pitch.load(),
+        }
+    }
+}
+
+/// Filter stage of a `PatchBukkitEventHandler`, shared by every Java listener of its
+/// event type and priority band.
+///
+/// The handler runs all of them in one round trip, so an event is forwarded as soon
+/// as one listener's filter accepts it, and a listener registered without a filter
+/// switches filtering off for the band until it is unregistered
+#[derive(Default)]
+pub struct EventFilterStage {
+    /// Written when a listener registers, read by every event
+    state: RwLock<FilterState>,
+    /// Sample of the last event forwarded per player, sharded by player so moves of
+    /// different players don't wait on each other
+    last_forwarded: [Mutex<HashMap<Uuid, FilterSample>>; LAST_FORWARDED_SHARDS],
+    /// Latest payload per player waiting for the next tick, see [`Self::coalesce`]
+    coalesced: Mutex<HashMap<Uuid, JvmEventPayload>>,
+}
+
+#[derive(Default)]
+struct FilterState {
+    listeners: usize,
+    /// Number of listeners without a filter
+    unfiltered: usize,
+    /// Distinct filters and the number of listeners registered with each
+    filters: Vec<(EventFilter, usize)>,
+    /// Number of listeners that asked for coalescing, it only applies if all did
+    coalescing: usize,
+}
+
+const LAST_FORWARDED_SHARDS: usize = 16;
+
+impl EventFilterStage {
+    /// Adds the filter of one more listener, `None` if it wants every event
+    pub fn add(&self, filter: Option<EventFilter>) {
+        let mut state = self.state.write().unwrap();
+        state.listeners += 1;
+        match filter {
+            Some(filter) => {
+                if filter.coalesce {
+                    state.coalescing += 1;
+                }
+                match state.filters.iter_mut().find(|(added, _)| *added == filter) {
+                    Some((_, count)) => *count += 1,
+                    None => state.filters.push((filter, 1)),
+                }
+            }
+            None => state.unfiltered += 1,
+        }
+    }
+
+    /// Undoes [`Self::add`] for `count` unregistered listeners, `filters` being the
+    /// ones of those that had a filter
+    pub fn remove(&self, count: usize, filters: Vec<EventFilter>) {
+        let mut state = self.state.write().unwrap();
+        state.listeners = state.listeners.saturating_sub(count);
+        state.unfiltered = state
+            .unfiltered
+            .saturating_sub(count.saturating_sub(filters.len()));
+        for filter in filters {
+            if filter.coalesce {
+                state.coalescing = state.coalescing.saturating_sub(1);
+            }
+            if let Some(index) = state.filters.iter().position(|(added, _)| *added == filter) {
+                state.filters[index].1 -= 1;
+                if state.filters[index].1 == 0 {
+                    state.filters.swap_remove(index);
+                }
+            }
+        }
+    }
+
+    /// Whether the event should be forwarded to the JVM. Events without a sample
+    /// have nothing to compare and always pass
+    pub fn accepts(&self, sample: Option<FilterSample>) -> bool {
+        let state = self.state.read().unwrap();
+        if state.unfiltered > 0 {
+            return true;
+        }
+        let Some(sample) = sample else {
+            return true;
+        };
+
+        let mut last_forwarded = self.shard(sample.player).lock().unwrap();
+        let accepted = match last_forwarded.get(&sample.player) {
+            Some(last) => state
+                .filters
+                .iter()
+                .any(|(filter, _)| Self::matches(filter, last, &sample)),
+            None => true,
+        };
+        if accepted {
+            last_forwarded.insert(sample.player, sample);
+        }
+        accepted
+    }
+
+    /// Drops what is kept about a player that left, the next event after they
+    /// rejoin is compared against nothing and passes
+    pub fn forget(&self, player: Uuid) {
+        self.shard(player).lock().unwrap().remove(&player);
+    }
+
+    /// Whether every listener of the band asked for events to be coalesced
+    pub fn coalesces(&self) -> bool {
+        let state = self.state.read().unwrap();
+        state.listeners > 0 && state.coalescing == state.listeners
+    }
+
+    /// Holds the payload back until the next tick, replacing one that is already
+    /// waiting for the same player. Returns true if no payload was waiting, in which
+    /// case the caller has to schedule [`Self::take_coalesced`]
+    pub fn coalesce(&self, player: Uuid, payload: JvmEventPayload) -> bool {
+        self.coalesced
+            .lock()
+            .unwrap()
+            .insert(player, payload)
+            .is_none()
+    }
+
+    pub fn take_coalesced(&self, player: Uuid) -> Option<JvmEventPayload> {
+        self.coalesced.lock().unwrap().remove(&player)
+    }
+
+    fn shard(&self, player: Uuid) -> &Mutex<HashMap<Uuid, FilterSample>> {
+        let (high, low) = player.as_u64_pair();
+        &self.last_forwarded[((high ^ low) % LAST_FORWARDED_SHARDS as u64) as usize]
+    }
+
+    /// A filter without any check enabled accepts every event, otherwise one of its
+    /// checks has to pass
+    fn matches(filter: &EventFilter, last: &FilterSample, sample: &FilterSample) -> bool {
+        let mut checked = false;
+
+        if filter.block_change {
+            checked = true;
+            if block_of(&last.position) != block_of(&sample.position) {
+                return true;
+            }
+        }
+        if filter.min_distance > 0.0 {
+            checked = true;
+            let dx = sample.position.x - last.position.x;
+            let dy = sample.position.y - last.position.y;
+            let dz = sample.position.z - last.position.z;
+            if dx * dx + dy * dy + dz * dz >= filter.min_distance * filter.min_distance {
+                return true;
+            }
+        }
+        if filter.min_rotation > 0.0 {
+            checked = true;
+            let yaw = angle_between(last.yaw, sample.yaw);
+            let pitch = (sample.pitch - last.pitch).abs();
+            if yaw.max(pitch) >= filter.min_rotation {
+                return true;
+            }
+        }
+
+        !checked
+    }
+}
+
+/// Forgets players in the filter stage of every band once they leave, registered
+/// once when the bridge starts
+pub struct FilterCleanupHandler;
+
+#[with_runtime(global)]
+impl EventHandler<PlayerLeaveEvent> for FilterCleanupHandler {
+    fn handle<'a>(
+        &'a self,
+        _server: &'a Arc<Server>,
+        event: &'a PlayerLeaveEvent,
+    ) -> BoxFuture<'a, ()> {
+        Box::pin(async move {
+            forget_filtered_player(event.player.gameprofile.id);
+        })
+    }
+}
+
+fn block_of(position: &Vector3<f64>) -> (i64, i64, i64) {
+    (
+        position.x.floor() as i64,
+        position.y.floor() as i64,
+        position.z.floor() as i64,
+    )
+}
+
+/// Smallest difference between two yaws in degrees, which wrap around
+fn angle_between(a: f32, b: f32) -> f32 {
+    let difference = (b - a).rem_euclid(360.0);
+    difference.min(360.0 - difference)
+}
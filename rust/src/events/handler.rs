@@ -1,6 +1,7 @@
 use std::marker::PhantomData;
-use std::str::FromStr;
 use std::sync::Arc;
+use std::sync::atomic::{AtomicUsize, Ordering};
+use std::time::Duration;
 
 use pumpkin::entity::player::Player;
 use pumpkin::plugin::{BoxFuture, Cancellable, EventHandler, Payload};
@@ -8,10 +9,10 @@ use pumpkin::server::Server;
 use pumpkin_api_macros::with_runtime;
 use tokio::sync::{mpsc, oneshot};
 
+use crate::events::filter::{EventFilterStage, FilterSample};
 use crate::java::jvm::commands::JvmCommand;
-use crate::proto::patchbukkit::common::Uuid;
+use crate::proto::patchbukkit::events::Event;
 use crate::proto::patchbukkit::events::event::Data;
-use crate::proto::patchbukkit::events::{Event, PlayerJoinEvent};
 
 pub struct EventContext {
     pub server: Arc<Server>,
@@ -26,49 +27,45 @@ pub struct JvmEventPayload {
 pub trait PatchBukkitEvent {
     fn to_payload(&self, server: Arc<Server>) -> JvmEventPayload;
     fn apply_modifications(&mut self, server: &Arc<Server>, data: Data) -> Option<()>;
-}
 
-impl PatchBukkitEvent for pumpkin::plugin::player::player_join::PlayerJoinEvent {
-    fn to_payload(&self, server: Arc<Server>) -> JvmEventPayload {
-        JvmEventPayload {
-            event: Event {
-                data: Some(Data::PlayerJoin(PlayerJoinEvent {
-                    player_uuid: Some(Uuid {
-                        value: self.player.gameprofile.id.to_string(),
-                    }),
-                    join_message: serde_json::to_string(&self.join_message).unwrap(),
-                })),
-            },
-            context: EventContext {
-                server,
-                player: Some(self.player.clone()),
-            },
-        }
+    /// What the filters of `EventFilterStage` compare, `None` if the event has no
+    /// player to sample
+    fn filter_sample(&self) -> Option<FilterSample> {
+        None
     }
+}
 
-    fn apply_modifications(&mut self, server: &Arc<Server>, data: Data) -> Option<()> {
-        match data {
-            Data::PlayerJoin(event) => {
-                self.join_message = serde_json::from_str(&event.join_message).ok()?;
-                server.get_player_by_uuid(uuid::Uuid::from_str(&event.player_uuid?.value).ok()?)?;
-            }
-        }
+/// Coalesced events are held back for one server tick
+const COALESCE_WINDOW: Duration = Duration::from_millis(50);
 
-        Some(())
-    }
-}
+// `PatchBukkitEvent` impls of the messages marked with `(patchbukkit.ffi.bukkit_event)`,
+// generated by rust/build/protobufs.rs
+include!(concat!(env!("OUT_DIR"), "/event_bridge.rs"));
 
+/// Fires one event type into the JVM for one priority band, running the listeners
+/// of every Java plugin registered in that band in a single round trip.
+/// While the band has no Java listeners left the event is not sent at all, and events
+/// none of the listeners' filters accept are dropped before they reach the JVM
 pub struct PatchBukkitEventHandler<E: PatchBukkitEvent> {
-    plugin_name: String,
+    priority: i32,
+    listeners: Arc<AtomicUsize>,
+    filter: Arc<EventFilterStage>,
     command_tx: mpsc::Sender<JvmCommand>,
     _phantom: PhantomData<E>,
 }
 
 impl<E: PatchBukkitEvent> PatchBukkitEventHandler<E> {
     #[must_use]
-    pub const fn new(plugin_name: String, command_tx: mpsc::Sender<JvmCommand>) -> Self {
+    pub const fn new(
+        priority: i32,
+        listeners: Arc<AtomicUsize>,
+        filter: Arc<EventFilterStage>,
+        command_tx: mpsc::Sender<JvmCommand>,
+    ) -> Self {
         Self {
-            plugin_name,
+            priority,
+            listeners,
+            filter,
             command_tx,
             _phantom: PhantomData,
         }
@@ -80,6 +77,42 @@ impl<E> EventHandler<E> for PatchBukkitEventHandler<E>
 where
     E: PatchBukkitEvent + Payload + Cancellable + 'static,
 {
+    /// Observe-only bands: the event is queued for the JVM and Pumpkin carries on
+    /// without waiting for the listeners to run. If all listeners asked for it, only
+    /// the latest event per player and tick is sent
+    fn handle<'a>(&'a self, server: &'a Arc<Server>, event: &'a E) -> BoxFuture<'a, ()> {
+        let command_tx = self.command_tx.clone();
+
+        Box::pin(async move {
+            if self.listeners.load(Ordering::Acquire) == 0 {
+                return;
+            }
+            let sample = event.filter_sample();
+            if !self.filter.accepts(sample) {
+                return;
+            }
+
+            let payload = event.to_payload(server.clone());
+            if let Some(sample) = sample
+                && self.filter.coalesces()
+            {
+                if self.filter.coalesce(sample.player, payload) {
+                    let filter = self.filter.clone();
+                    let priority = self.priority;
+                    tokio::spawn(async move {
+                        tokio::time::sleep(COALESCE_WINDOW).await;
+                        if let Some(payload) = filter.take_coalesced(sample.player) {
+                            send_observed(&command_tx, payload, priority).await;
+                        }
+                    });
+                }
+                return;
+            }
+
+            send_observed(&command_tx, payload, self.priority).await;
+        })
+    }
+
     fn handle_blocking<'a>(
         &'a self,
         server: &'a Arc<Server>,
@@ -88,12 +121,19 @@ where
         let command_tx = self.command_tx.clone();
 
         Box::pin(async move {
+            if self.listeners.load(Ordering::Acquire) == 0 {
+                return;
+            }
+            if !self.filter.accepts(event.filter_sample()) {
+                return;
+            }
+
             let (tx, rx) = oneshot::channel();
             if let Err(e) = command_tx
                 .send(JvmCommand::FireEvent {
                     payload: event.to_payload(server.clone()),
                     respond_to: tx,
-                    plugin: self.plugin_name.clone(),
+                    priority: self.priority,
                 })
                 .await
             {
@@ -104,7 +144,10 @@ where
             match rx.await {
                 Ok(response) => {
                     event.set_cancelled(response.cancelled);
-                    event.apply_modifications(server, response.data.unwrap().data.unwrap());
+                    // Left out when Java failed to encode the event
+                    if let Some(data) = response.data.and_then(|event| event.data) {
+                        event.apply_modifications(server, data);
+                    }
                 }
                 Err(_) => {
                     tracing::warn!("JVM worker dropped response channel for event");
@@ -113,3 +156,23 @@ where
         })
     }
 }
+
+/// Queues an event for an observe-only band
+async fn send_observed(
+    command_tx: &mpsc::Sender<JvmCommand>,
+    payload: JvmEventPayload,
+    priority: i32,
+) {
+    // Nobody waits for the response, the worker's send to it just fails
+    let (tx, _) = oneshot::channel();
+    if let Err(e) = command_tx
+        .send(JvmCommand::FireEvent {
+            payload,
+            respond_to: tx,
+            priority,
+        })
+        .await
+    {
+        tracing::error!("Failed to send event to JVM worker: {e}");
+    }
+}
@@ -48,7 +48,8 @@ pub enum JvmCommand {
     },
     FireEvent {
         payload: JvmEventPayload,
-        plugin: String,
+        /// Bukkit priority band, the `EventPriority` ordinal
+        priority: i32,
         respond_to: oneshot::Sender<FireEventResponse>, // true = cancelled
     },
     TriggerCommand {
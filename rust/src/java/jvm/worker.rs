@@ -1,26 +1,34 @@
 use std::{path::PathBuf, sync::Arc};
 
-use j4rs::{InvocationArg, Jvm, JvmBuilder};
+use j4rs::{InvocationArg, JavaOpt, Jvm, JvmBuilder};
 use pumpkin::plugin::Context;
-use tokio::sync::mpsc;
+use tokio::{sync::mpsc, time::MissedTickBehavior};
 
 use crate::{
+    config::patchbukkit::PatchBukkitConfig,
     java::{
         jar::read_configs_from_jar,
         jvm::commands::{JvmCommand, LoadPluginResult},
         native_callbacks::{init_callback_context, initialize_callbacks},
         plugin::{
-            command_manager::CommandManager, event_manager::EventManager, manager::PluginManager,
+            command_manager::CommandManager,
+            event_manager::EventManager,
+            manager::PluginManager,
+            scheduler_manager::{SchedulerManager, TICK_INTERVAL},
         },
     },
-    proto::patchbukkit::events::FireEventResponse,
+    proto::shutdown_ffi_callbacks,
 };
 
+/// Name of the thread the `JvmWorker` runs on, which is the Bukkit primary thread
+pub const JVM_WORKER_THREAD: &str = "patchbukkit-jvm-worker";
+
 pub struct JvmWorker {
     command_rx: mpsc::Receiver<JvmCommand>,
     pub plugin_manager: PluginManager,
     pub event_manager: EventManager,
     pub command_manager: CommandManager,
+    pub scheduler_manager: SchedulerManager,
     jvm: Option<j4rs::Jvm>,
     context: Option<Arc<Context>>,
 }
@@ -33,6 +41,7 @@ impl JvmWorker {
             plugin_manager: PluginManager::new(),
             event_manager: EventManager::new(),
             command_manager: CommandManager::new(),
+            scheduler_manager: SchedulerManager::new(),
             jvm: None,
             context: None,
         }
@@ -41,7 +50,22 @@ impl JvmWorker {
     pub async fn attach_thread(mut self) {
         tracing::info!("JVM worker thread started");
 
-        while let Some(command) = self.command_rx.recv().await {
+        // The worker thread is the Bukkit primary thread, so ticks run here between commands
+        let mut ticker = tokio::time::interval(TICK_INTERVAL);
+        ticker.set_missed_tick_behavior(MissedTickBehavior::Delay);
+
+        loop {
+            let command = tokio::select! {
+                command = self.command_rx.recv() => command,
+                _ = ticker.tick(), if self.scheduler_manager.is_bound() => {
+                    self.scheduler_manager.tick();
+                    continue;
+                }
+            };
+            let Some(command) = command else {
+                break;
+            };
+
             match command {
                 JvmCommand::Initialize {
                     j4rs_path,
@@ -50,6 +74,7 @@ impl JvmWorker {
                     command_tx,
                     config,
                 } => {
+                    let java_opts = java_opts_for(&config);
                     init_callback_context(
                         context.clone(),
                         tokio::runtime::Handle::current(),
@@ -58,7 +83,7 @@ impl JvmWorker {
                     )
                     .unwrap();
                     self.context = Some(context);
-                    let result = self.initialize_jvm(&j4rs_path);
+                    let result = self.initialize_jvm(&j4rs_path, java_opts);
                     let _ = respond_to.send(result);
                 }
                 JvmCommand::LoadPlugin {
@@ -109,6 +134,10 @@ impl JvmWorker {
                         None => &Jvm::attach_thread().unwrap(),
                     };
 
+                    self.command_manager
+                        .register_builtin_commands(&server, command_tx.clone())
+                        .await;
+
                     let _ = respond_to.send(
                         self.plugin_manager
                             .instantiate_all_plugins(
@@ -137,12 +166,18 @@ impl JvmWorker {
                     let _ = respond_to.send(self.plugin_manager.disable_all_plugins(jvm));
                 }
                 JvmCommand::Shutdown { respond_to } => {
+                    let jvm = match self.jvm {
+                        Some(ref jvm) => jvm,
+                        None => &Jvm::attach_thread().unwrap(),
+                    };
+
+                    shutdown_ffi_callbacks(jvm);
                     let _ = respond_to.send(self.plugin_manager.unload_all_plugins());
                     break;
                 }
                 JvmCommand::FireEvent {
                     respond_to,
-                    plugin,
+                    priority,
                     payload,
                 } => {
                     let jvm = match self.jvm {
@@ -150,19 +185,7 @@ impl JvmWorker {
                         None => &Jvm::attach_thread().unwrap(),
                     };
 
-                    let original_event = payload.event.clone();
-                    let cancelled = match self.event_manager.fire_event(jvm, payload, plugin) {
-                        Ok(c) => c,
-                        Err(e) => {
-                            tracing::error!("Failed to fire event: {e}");
-                            FireEventResponse {
-                                cancelled: false,
-                                data: Some(original_event),
-                            }
-                        }
-                    };
-
-                    let _ = respond_to.send(cancelled);
+                    self.event_manager.fire_event(jvm, payload, priority, respond_to);
                 }
                 JvmCommand::TriggerCommand {
                     full_command,
@@ -206,15 +229,21 @@ impl JvmWorker {
         tracing::info!("JVM worker thread exited");
     }
 
-    fn initialize_jvm(&mut self, j4rs_path: &PathBuf) -> anyhow::Result<()> {
+    fn initialize_jvm(&mut self, j4rs_path: &PathBuf, java_opts: Vec<JavaOpt>) -> anyhow::Result<()> {
         tracing::info!("Initializing JVM with path: {j4rs_path:?}");
 
-        let jvm = JvmBuilder::new().with_base_path(j4rs_path).build()?;
+        let jvm = JvmBuilder::new()
+            .with_base_path(j4rs_path)
+            .java_opts(java_opts)
+            .build()?;
 
         initialize_callbacks(&jvm)?;
 
         setup_patchbukkit_server(&jvm)?;
 
+        self.event_manager.bind(&jvm)?;
+        self.scheduler_manager.bind(&jvm)?;
+
         self.jvm = Some(jvm);
 
         tracing::info!("JVM initialized successfully");
@@ -222,6 +251,56 @@ impl JvmWorker {
     }
 }
 
+/// System properties read by the Java side during class initialization
+fn java_opts_for(config: &PatchBukkitConfig) -> Vec<JavaOpt> {
+    let settings = &config.settings;
+    let mut opts = Vec::new();
+
+    if settings.bridge_metrics.unwrap_or(false) {
+        opts.push(JavaOpt::new("-Dpatchbukkit.bridge.metrics=true"));
+    }
+    if let Some(interval) = settings.bridge_metrics_export_interval {
+        opts.push(JavaOpt::new(&format!(
+            "-Dpatchbukkit.bridge.metrics.export-interval={interval}"
+        )));
+    }
+    if settings.listener_timings.unwrap_or(false) {
+        opts.push(JavaOpt::new("-Dpatchbukkit.timings=true"));
+    }
+    if let Some(threshold) = settings.slow_listener_threshold {
+        opts.push(JavaOpt::new(&format!(
+            "-Dpatchbukkit.timings.slow-listener-threshold={threshold}"
+        )));
+    }
+    if let Some(concurrency) = settings.async_event_concurrency {
+        opts.push(JavaOpt::new(&format!(
+            "-Dpatchbukkit.events.async.max-concurrency={concurrency}"
+        )));
+    }
+    if let Some(concurrency) = settings.async_event_plugin_concurrency {
+        opts.push(JavaOpt::new(&format!(
+            "-Dpatchbukkit.events.async.plugin-concurrency={concurrency}"
+        )));
+    }
+    if let Some(concurrency) = settings.async_task_plugin_concurrency {
+        opts.push(JavaOpt::new(&format!(
+            "-Dpatchbukkit.scheduler.async.plugin-concurrency={concurrency}"
+        )));
+    }
+    if let Some(budget) = settings.main_thread_budget_nanos {
+        opts.push(JavaOpt::new(&format!(
+            "-Dpatchbukkit.scheduler.main-thread-budget-nanos={budget}"
+        )));
+    }
+    if let Some(threshold) = settings.slow_task_threshold {
+        opts.push(JavaOpt::new(&format!(
+            "-Dpatchbukkit.scheduler.slow-task-threshold={threshold}"
+        )));
+    }
+
+    opts
+}
+
 pub fn setup_patchbukkit_server(jvm: &Jvm) -> anyhow::Result<()> {
     let patchbukkit_server =
         jvm.create_instance("org.patchbukkit.PatchBukkitServer", InvocationArg::empty())?;
@@ -1,19 +1,22 @@
 use std::sync::Arc;
+use std::sync::atomic::{AtomicUsize, Ordering};
 
 use pumpkin::plugin::EventPriority;
-use pumpkin::plugin::player::player_join::PlayerJoinEvent;
-use pumpkin_util::text::TextComponent;
+use uuid::Uuid;
 
-use crate::events::handler::PatchBukkitEventHandler;
-use crate::java::native_callbacks::CALLBACK_CONTEXT;
-use crate::proto::patchbukkit::events::event::Data;
+use crate::events::handler::register_bridged_event;
+use crate::events::filter::EventFilterStage;
+use crate::java::native_callbacks::{CALLBACK_CONTEXT, RegisteredBand};
+use crate::java::plugin::event_manager::EventManager;
 use crate::proto::patchbukkit::events::{
-    CallEventRequest, CallEventResponse, RegisterEventRequest,
+    CompleteEventRequest, RegisterEventRequest, UnregisterEventRequest,
 };
 
 pub fn ffi_native_bridge_register_event_impl(request: RegisterEventRequest) -> Option<()> {
     let ctx = CALLBACK_CONTEXT.get()?;
-    let pumpkin_priority = match request.priority {
+    let band = request.priority.clamp(0, 5);
+    // MONITOR (5) has no Pumpkin counterpart and is only ever registered non-blocking
+    let pumpkin_priority = match band {
         0 => EventPriority::Lowest,
         1 => EventPriority::Low,
         2 => EventPriority::Normal,
@@ -29,64 +32,98 @@ pub fn ffi_native_bridge_register_event_impl(request: RegisterEventRequest) -> O
         request.blocking
     );
 
+    // Every Java listener in a band is run by one handler, so later registrations
+    // for the same event and band only need to bump its listener count
+    let (listeners, filter) = {
+        let mut registered = ctx.registered_events.lock().unwrap();
+        if let Some(existing) = registered.get(&(request.event_type.clone(), band)) {
+            existing.filter.add(request.filter);
+            existing.listeners.fetch_add(1, Ordering::AcqRel);
+            return Some(());
+        }
+        let listeners = Arc::new(AtomicUsize::new(1));
+        let filter = Arc::new(EventFilterStage::default());
+        filter.add(request.filter);
+        registered.insert(
+            (request.event_type.clone(), band),
+            RegisteredBand {
+                listeners: listeners.clone(),
+                filter: filter.clone(),
+            },
+        );
+        (listeners, filter)
+    };
+
     let command_tx = ctx.command_tx.clone();
     let context = ctx.plugin_context.clone();
 
-    tokio::task::block_in_place(|| {
-        ctx.runtime.block_on(async {
-            match request.event_type.as_str() {
-                "org.bukkit.event.player.PlayerJoinEvent" => {
-                    context
-                        .register_event::<
-                            pumpkin::plugin::player::player_join::PlayerJoinEvent,
-                            PatchBukkitEventHandler<pumpkin::plugin::player::player_join::PlayerJoinEvent>,
-                        >(
-                            Arc::new(PatchBukkitEventHandler::new(
-                                request.plugin_name.clone(),
-                                command_tx.clone(),
-                            )),
-                            pumpkin_priority,
-                            request.blocking,
-                        )
-                        .await;
-                }
-                _ => {
-                    tracing::warn!(
-                        "Unsupported Bukkit event type '{}' from plugin '{}'",
-                        request.event_type, request.plugin_name
-                    );
-                }
-            }
-        });
+    let registered = tokio::task::block_in_place(|| {
+        ctx.runtime.block_on(register_bridged_event(
+            &context,
+            &request.event_type,
+            band,
+            listeners,
+            filter,
+            command_tx,
+            pumpkin_priority,
+            request.blocking,
+        ))
     });
+    if !registered {
+        ctx.registered_events
+            .lock()
+            .unwrap()
+            .remove(&(request.event_type.clone(), band));
+        tracing::warn!(
+            "Unsupported Bukkit event type '{}' from plugin '{}'",
+            request.event_type, request.plugin_name
+        );
+    }
 
     Some(())
 }
 
-pub fn ffi_native_bridge_call_event_impl(request: CallEventRequest) -> Option<CallEventResponse> {
+/// Pumpkin has no way to remove a handler, so once a band runs out of listeners
+/// its handler stays registered and returns without calling into the JVM
+pub fn ffi_native_bridge_unregister_event_impl(request: UnregisterEventRequest) -> Option<()> {
     let ctx = CALLBACK_CONTEXT.get()?;
-    let event = request.event?;
-    tracing::debug!("Java calling event {:?}", event);
-
-    let context = ctx.plugin_context.clone();
+    let band = request.priority.clamp(0, 5);
+    let registered = ctx.registered_events.lock().unwrap();
+    let existing = registered.get(&(request.event_type.clone(), band))?;
 
-    let handled = tokio::task::block_in_place(|| {
-        ctx.runtime.block_on(async {
-            match event.data? {
-                Data::PlayerJoin(player_join_event_data) => {
-                    let uuid =
-                        uuid::Uuid::parse_str(&player_join_event_data.player_uuid?.value).ok()?;
-                    let player = context.server.get_player_by_uuid(uuid)?;
-                    let pumpkin_event = PlayerJoinEvent::new(
-                        player,
-                        TextComponent::from_legacy_string(&player_join_event_data.join_message),
-                    );
-                    context.server.plugin_manager.fire(pumpkin_event).await;
-                    Some(true)
-                }
-            }
+    let count = request.count as usize;
+    existing.filter.remove(count, request.filters);
+    let previous = existing
+        .listeners
+        .fetch_update(Ordering::AcqRel, Ordering::Acquire, |current| {
+            Some(current.saturating_sub(count))
         })
-    })?;
+        .unwrap_or_default();
+
+    tracing::debug!(
+        "Unregistered {} listener(s) for '{}' (priority={}), {} left",
+        count,
+        request.event_type,
+        band,
+        previous.saturating_sub(count)
+    );
 
-    Some(CallEventResponse { handled })
+    Some(())
+}
+
+/// Drops the filter samples kept for a player in every band, see
+/// `FilterCleanupHandler`
+pub fn forget_filtered_player(player: Uuid) {
+    let Some(ctx) = CALLBACK_CONTEXT.get() else {
+        return;
+    };
+    for band in ctx.registered_events.lock().unwrap().values() {
+        band.filter.forget(player);
+    }
+}
+
+/// Response of an asynchronous event whose listeners ran on the JVM's virtual threads
+pub fn ffi_native_bridge_complete_event_impl(request: CompleteEventRequest) -> Option<()> {
+    EventManager::complete_event(request.completion_id, request.response?);
+    Some(())
 }
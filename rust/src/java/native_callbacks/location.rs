@@ -2,19 +2,12 @@ use pumpkin::command::args::entities::{EntitySelectorType, TargetSelector};
 
 use crate::{
     java::native_callbacks::CALLBACK_CONTEXT,
-    proto::patchbukkit::common::{Location, Uuid, Vec3, World},
+    proto::patchbukkit::common::{EntityLocation, Uuid, Vec3},
 };
 
-#[repr(C)]
-pub struct Vec3FFI {
-    pub x: f64,
-    pub y: f64,
-    pub z: f64,
-}
-
-pub fn ffi_native_bridge_get_location_impl(entity_uuid: Uuid) -> Option<Location> {
+pub fn ffi_native_bridge_get_location_impl(entity_uuid: Uuid) -> Option<EntityLocation> {
     let ctx = CALLBACK_CONTEXT.get()?;
-    let uuid = uuid::Uuid::parse_str(&entity_uuid.value).ok()?;
+    let uuid = entity_uuid.to_uuid()?;
 
     let entity = ctx
         .plugin_context
@@ -24,16 +17,14 @@ pub fn ffi_native_bridge_get_location_impl(entity_uuid: Uuid) -> Option<Location
     if entity.len() == 1 {
         let entity = entity.first().unwrap().get_entity();
         let position = entity.pos.load();
-        let world = entity.world.load().uuid;
+        let (world_most_significant_bits, world_least_significant_bits) =
+            entity.world.load().uuid.as_u64_pair();
         let yaw = entity.yaw.load();
         let pitch = entity.pitch.load();
 
-        return Some(Location {
-            world: Some(World {
-                uuid: Some(Uuid {
-                    value: world.to_string(),
-                }),
-            }),
+        return Some(EntityLocation {
+            world_most_significant_bits,
+            world_least_significant_bits,
             position: Some(Vec3 {
                 x: position.x,
                 y: position.y,
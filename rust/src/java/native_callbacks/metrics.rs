@@ -0,0 +1,22 @@
+use crate::proto::patchbukkit::metrics::BridgeMetricsReport;
+
+pub fn ffi_native_bridge_report_bridge_metrics_impl(report: BridgeMetricsReport) -> Option<()> {
+    for rpc in &report.rpcs {
+        tracing::info!(
+            target: "patchbukkit::bridge_metrics",
+            rpc = %rpc.name,
+            calls = rpc.calls,
+            failures = rpc.failures,
+            request_bytes = rpc.request_bytes,
+            response_bytes = rpc.response_bytes,
+            p50_us = rpc.p50_nanos as f64 / 1000.0,
+            p99_us = rpc.p99_nanos as f64 / 1000.0,
+            p999_us = rpc.p999_nanos as f64 / 1000.0,
+            max_us = rpc.max_nanos as f64 / 1000.0,
+            mean_us = rpc.mean_nanos / 1000.0,
+            "Bridge RPC metrics"
+        );
+    }
+
+    Some(())
+}
@@ -1,4 +1,7 @@
-use std::sync::{Arc, OnceLock};
+use std::{
+    collections::HashMap,
+    sync::{Arc, Mutex, OnceLock, atomic::AtomicUsize},
+};
 
 use anyhow::Result;
 use j4rs::Jvm;
@@ -6,8 +9,8 @@ use pumpkin::plugin::Context;
 use tokio::sync::mpsc;
 
 use crate::{
-    config::patchbukkit::PatchBukkitConfig, java::jvm::commands::JvmCommand,
-    proto::initialize_ffi_callbacks,
+    config::patchbukkit::PatchBukkitConfig, events::filter::EventFilterStage,
+    java::jvm::commands::JvmCommand, proto::initialize_ffi_callbacks,
 };
 
 mod abilities;
@@ -39,6 +42,9 @@ pub use config::*;
 pub mod itemstack;
 pub use itemstack::*;
 
+pub mod metrics;
+pub use metrics::*;
+
 static CALLBACK_CONTEXT: OnceLock<CallbackContext> = OnceLock::new();
 
 struct CallbackContext {
@@ -46,6 +52,15 @@ struct CallbackContext {
     pub runtime: tokio::runtime::Handle,
     pub command_tx: mpsc::Sender<JvmCommand>,
     pub config: PatchBukkitConfig,
+    /// Every `(event type, priority band)` pair that has a Pumpkin handler
+    pub registered_events: Mutex<HashMap<(String, i32), RegisteredBand>>,
+}
+
+/// State shared with the handler of one event type and priority band
+struct RegisteredBand {
+    /// Number of Java listeners in the band
+    listeners: Arc<AtomicUsize>,
+    filter: Arc<EventFilterStage>,
 }
 
 pub fn init_callback_context(
@@ -59,6 +74,7 @@ pub fn init_callback_context(
         runtime,
         command_tx,
         config,
+        registered_events: Mutex::new(HashMap::new()),
     };
 
     CALLBACK_CONTEXT
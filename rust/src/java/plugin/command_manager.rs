@@ -140,6 +140,44 @@ impl CommandManager {
         ))
     }
 
+    /// Registers the commands the `PatchBukkitCommandMap` provides itself, such as
+    /// `/patchbukkit`. The Java side checks their permissions against the sender.
+    pub async fn register_builtin_commands(
+        &self,
+        context: &Arc<Context>,
+        command_tx: mpsc::Sender<JvmCommand>,
+    ) {
+        const BUILTIN_COMMANDS: [(&str, &str); 1] =
+            [("patchbukkit", "Inspects the PatchBukkit bridge")];
+
+        for (cmd_name, description) in BUILTIN_COMMANDS {
+            let node = init_java_command(
+                cmd_name.to_string(),
+                command_tx.clone(),
+                [cmd_name],
+                description,
+            );
+
+            let permission = format!("patchbukkit:{cmd_name}");
+            if let Err(e) = context
+                .register_permission(Permission::new(
+                    &permission,
+                    &permission,
+                    PermissionDefault::Allow,
+                ))
+                .await
+            {
+                tracing::warn!(
+                    "Failed to register permission for command {}: {:?}",
+                    cmd_name,
+                    e
+                );
+            }
+
+            context.register_command(node, permission).await;
+        }
+    }
+
     pub async fn register_command(
         &mut self,
         jvm: &Jvm,
@@ -1,16 +1,32 @@
-use std::sync::Arc;
+use std::collections::HashMap;
+use std::sync::atomic::{AtomicU64, Ordering};
+use std::sync::{Arc, LazyLock, Mutex};
 
 use anyhow::Result;
 use j4rs::{Instance, InvocationArg, Jvm};
 use prost::Message;
 use pumpkin::{entity::player::Player, server::Server};
+use tokio::sync::oneshot;
 
 use crate::{
     events::handler::JvmEventPayload,
-    proto::patchbukkit::events::{FireEventResponse, event::Data},
+    proto::patchbukkit::events::{FireEventRequest, FireEventResponse, event::Data},
 };
 
-pub struct EventManager {}
+/// `org.patchbukkit.events.EventBridge#fireEvent`, called through an FFM upcall stub.
+/// The returned bytes stay valid until the same thread fires its next event.
+type FireEventFn =
+    unsafe extern "C" fn(input: *const u8, input_len: usize, output_len: *mut usize) -> *const u8;
+
+/// Handlers waiting for the response of an asynchronous event, keyed by the completion
+/// id sent with it. Java answers those through `CompleteEvent` from its own threads
+static PENDING_EVENTS: LazyLock<Mutex<HashMap<u64, oneshot::Sender<FireEventResponse>>>> =
+    LazyLock::new(|| Mutex::new(HashMap::new()));
+static NEXT_COMPLETION_ID: AtomicU64 = AtomicU64::new(1);
+
+pub struct EventManager {
+    fire_event_fn: Option<FireEventFn>,
+}
 
 impl Default for EventManager {
     fn default() -> Self {
@@ -21,75 +37,112 @@ impl Default for EventManager {
 impl EventManager {
     #[must_use]
     pub const fn new() -> Self {
-        Self {}
+        Self {
+            fire_event_fn: None,
+        }
+    }
+
+    /// Looks up the event upcall stub, once the JVM is initialized
+    pub fn bind(&mut self, jvm: &Jvm) -> Result<()> {
+        let address: i64 = jvm.to_rust(jvm.invoke_static(
+            "org.patchbukkit.events.EventBridge",
+            "fireEventAddress",
+            InvocationArg::empty(),
+        )?)?;
+
+        // SAFETY: the address belongs to an upcall stub allocated in the global arena
+        // with exactly this signature, so it stays valid for the lifetime of the JVM
+        self.fire_event_fn =
+            Some(unsafe { std::mem::transmute::<usize, FireEventFn>(address as usize) });
+        Ok(())
     }
 
+    /// Fires the event into the JVM and sends its response to `respond_to`. For
+    /// asynchronous events this returns as soon as Java has handed the listeners to its
+    /// virtual threads, the response follows through [`EventManager::complete_event`]
     pub fn fire_event(
         &self,
         jvm: &Jvm,
         payload: JvmEventPayload,
-        plugin_name: String,
+        priority: i32,
+        respond_to: oneshot::Sender<FireEventResponse>,
+    ) {
+        let original_event = payload.event.clone();
+        // Parked before the call, Java may complete the event before it returns
+        let completion_id = NEXT_COMPLETION_ID.fetch_add(1, Ordering::Relaxed);
+        PENDING_EVENTS
+            .lock()
+            .unwrap()
+            .insert(completion_id, respond_to);
+
+        match self.dispatch(jvm, payload, priority, completion_id) {
+            Ok(response) if response.pending => {}
+            Ok(response) => Self::complete_event(completion_id, response),
+            Err(e) => {
+                tracing::error!("Failed to fire event: {e}");
+                Self::complete_event(
+                    completion_id,
+                    FireEventResponse {
+                        cancelled: false,
+                        data: Some(original_event),
+                        pending: false,
+                    },
+                );
+            }
+        }
+    }
+
+    /// Hands the response of an event to the handler waiting for it
+    pub fn complete_event(completion_id: u64, response: FireEventResponse) {
+        let respond_to = PENDING_EVENTS.lock().unwrap().remove(&completion_id);
+        match respond_to {
+            // Handlers of observe-only bands do not wait, so the send may fail
+            Some(respond_to) => {
+                let _ = respond_to.send(response);
+            }
+            None => tracing::warn!("Received a response for unknown event {completion_id}"),
+        }
+    }
+
+    fn dispatch(
+        &self,
+        jvm: &Jvm,
+        payload: JvmEventPayload,
+        priority: i32,
+        completion_id: u64,
     ) -> Result<FireEventResponse> {
-        let server = jvm.invoke_static("org.bukkit.Bukkit", "getServer", InvocationArg::empty())?;
-        let patch_server = jvm.cast(&server, "org.patchbukkit.PatchBukkitServer")?;
-        let event_manager = jvm.invoke(&patch_server, "getEventManager", InvocationArg::empty())?;
+        let Some(fire_event_fn) = self.fire_event_fn else {
+            return Err(anyhow::anyhow!("Event bridge is not initialized"));
+        };
 
         if let Some(ref event) = payload.event.data
             && matches!(event, Data::PlayerJoin(_))
             && let Some(ref player) = payload.context.player
         {
+            let server =
+                jvm.invoke_static("org.bukkit.Bukkit", "getServer", InvocationArg::empty())?;
+            let patch_server = jvm.cast(&server, "org.patchbukkit.PatchBukkitServer")?;
             Self::register_player(jvm, &patch_server, player, &payload.context.server)?;
         }
 
-        let bytes = payload.event.encode_to_vec();
-        let j_bytes = jvm.create_java_array(
-            "byte",
-            &bytes
-                .iter()
-                .map(|&b| {
-                    InvocationArg::try_from(b as i8)
-                        .unwrap()
-                        .into_primitive()
-                        .unwrap()
-                })
-                .collect::<Vec<_>>(),
-        )?;
-
-        let j_event = jvm.invoke_static(
-            "org.patchbukkit.events.PatchBukkitEventFactory",
-            "createEventFromBytes",
-            &[InvocationArg::from(j_bytes)],
-        )?;
-
-        let is_null: bool = jvm.to_rust(jvm.invoke_static(
-            "java.util.Objects",
-            "isNull",
-            &[InvocationArg::from(jvm.clone_instance(&j_event)?)],
-        )?)?;
-
-        if is_null {
-            return Err(anyhow::anyhow!(
-                "Failed to create event - factory returned null"
-            ));
+        let request = FireEventRequest {
+            event: Some(payload.event),
+            priority,
+            completion_id,
         }
+        .encode_to_vec();
 
-        jvm.invoke(
-            &event_manager,
-            "fireEvent",
-            &[
-                InvocationArg::from(jvm.clone_instance(&j_event)?),
-                InvocationArg::try_from(plugin_name)?,
-            ],
-        )?;
-
-        let response_bytes: Vec<i8> = jvm.to_rust(jvm.invoke_static(
-            "org.patchbukkit.events.PatchBukkitEventFactory",
-            "toFireEventResponse",
-            &[InvocationArg::from(j_event)],
-        )?)?;
+        let mut output_len = 0usize;
+        // SAFETY: the request outlives the call and the stub only writes `output_len`
+        let output = unsafe { fire_event_fn(request.as_ptr(), request.len(), &mut output_len) };
+        if output.is_null() {
+            return Err(anyhow::anyhow!("Failed to fire event - see the Java log"));
+        }
 
-        let response_bytes: Vec<u8> = response_bytes.iter().map(|&b| b as u8).collect();
-        let response = FireEventResponse::decode(response_bytes.as_slice())?;
+        // SAFETY: Java wrote `output_len` bytes at `output` and keeps them until this
+        // thread fires another event, which cannot happen before the decode is done
+        let response_bytes = unsafe { std::slice::from_raw_parts(output, output_len) };
+        let response = FireEventResponse::decode(response_bytes)?;
 
         Ok(response)
     }
@@ -137,15 +190,4 @@ impl EventManager {
 
         Ok(())
     }
-
-    pub fn call_event(&self, jvm: &Jvm, event: Instance) -> Result<()> {
-        let server = jvm.invoke_static("org.bukkit.Bukkit", "getServer", InvocationArg::empty())?;
-        let plugin_manager = jvm.invoke(&server, "getPluginManager", InvocationArg::empty())?;
-        jvm.invoke(
-            &plugin_manager,
-            "callEvent",
-            &[InvocationArg::try_from(event)?],
-        )?;
-        Ok(())
-    }
 }
@@ -1,3 +1,4 @@
 pub mod command_manager;
 pub mod event_manager;
 pub mod manager;
+pub mod scheduler_manager;
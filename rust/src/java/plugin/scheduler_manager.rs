@@ -0,0 +1,55 @@
+use std::time::Duration;
+
+use anyhow::Result;
+use j4rs::{InvocationArg, Jvm};
+
+/// One Minecraft tick, the rate Bukkit tasks are scheduled at
+pub const TICK_INTERVAL: Duration = Duration::from_millis(50);
+
+/// `org.patchbukkit.scheduler.SchedulerBridge#tick`, called through an FFM upcall stub.
+type TickFn = unsafe extern "C" fn();
+
+/// Drives the Bukkit scheduler, one upcall per server tick on the JVM worker thread
+pub struct SchedulerManager {
+    tick_fn: Option<TickFn>,
+}
+
+impl Default for SchedulerManager {
+    fn default() -> Self {
+        Self::new()
+    }
+}
+
+impl SchedulerManager {
+    #[must_use]
+    pub const fn new() -> Self {
+        Self { tick_fn: None }
+    }
+
+    /// Looks up the tick upcall stub, once the JVM is initialized
+    pub fn bind(&mut self, jvm: &Jvm) -> Result<()> {
+        let address: i64 = jvm.to_rust(jvm.invoke_static(
+            "org.patchbukkit.scheduler.SchedulerBridge",
+            "tickAddress",
+            InvocationArg::empty(),
+        )?)?;
+
+        // SAFETY: the address belongs to an upcall stub allocated in the global arena
+        // with exactly this signature, so it stays valid for the lifetime of the JVM
+        self.tick_fn = Some(unsafe { std::mem::transmute::<usize, TickFn>(address as usize) });
+        Ok(())
+    }
+
+    #[must_use]
+    pub const fn is_bound(&self) -> bool {
+        self.tick_fn.is_some()
+    }
+
+    /// Runs the sync tasks due on the next tick
+    pub fn tick(&self) {
+        if let Some(tick_fn) = self.tick_fn {
+            // SAFETY: the stub takes no arguments and catches everything thrown in Java
+            unsafe { tick_fn() };
+        }
+    }
+}
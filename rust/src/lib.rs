@@ -2,7 +2,7 @@
 
 use std::sync::Arc;
 
-use pumpkin::plugin::Context;
+use pumpkin::plugin::{Context, EventPriority, player::player_leave::PlayerLeaveEvent};
 use pumpkin_api_macros::{plugin_impl, plugin_method};
 
 pub mod commands;
@@ -21,10 +21,11 @@ use tokio::sync::{
 
 use crate::{
     config::patchbukkit::PatchBukkitConfig,
+    events::filter::FilterCleanupHandler,
     java::{
         jvm::{
             commands::{JvmCommand, LoadPluginResult},
-            worker::JvmWorker,
+            worker::{JVM_WORKER_THREAD, JvmWorker},
         },
         resources::setup_j4rs,
     },
@@ -127,6 +128,15 @@ async fn on_load_inner(plugin: &PatchBukkitPlugin, server: Arc<Context>) -> Resu
             .map_err(|e| format!("Failed to initialize all plugins: {e}"))?;
     }
 
+    // Bridged events keep per-player filter state, dropped when the player leaves
+    server
+        .register_event::<PlayerLeaveEvent, FilterCleanupHandler>(
+            Arc::new(FilterCleanupHandler),
+            EventPriority::Lowest,
+            false,
+        )
+        .await;
+
     {
         let (tx, rx) = oneshot::channel();
         plugin
@@ -212,7 +222,7 @@ impl PatchBukkitPlugin {
         }
 
         std::thread::Builder::new()
-            .name("patchbukkit-jvm-worker".to_string())
+            .name(JVM_WORKER_THREAD.to_string())
             .spawn(move || {
                 jvm_thread_task(rx);
             })
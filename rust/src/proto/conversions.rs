@@ -0,0 +1,31 @@
+use crate::proto::patchbukkit::common::Uuid;
+
+impl From<uuid::Uuid> for Uuid {
+    fn from(uuid: uuid::Uuid) -> Self {
+        let (most_significant_bits, least_significant_bits) = uuid.as_u64_pair();
+        Self {
+            value: String::new(),
+            most_significant_bits,
+            least_significant_bits,
+        }
+    }
+}
+
+impl Uuid {
+    /// Converts the bridge UUID without any parsing, falling back to the legacy
+    /// string form when both halves are unset.
+    #[must_use]
+    pub fn to_uuid(&self) -> Option<uuid::Uuid> {
+        if self.most_significant_bits == 0 && self.least_significant_bits == 0 {
+            if self.value.is_empty() {
+                return Some(uuid::Uuid::nil());
+            }
+            return uuid::Uuid::parse_str(&self.value).ok();
+        }
+
+        Some(uuid::Uuid::from_u64_pair(
+            self.most_significant_bits,
+            self.least_significant_bits,
+        ))
+    }
+}
@@ -15,6 +15,10 @@ pub mod patchbukkit {
         include!(concat!(env!("OUT_DIR"), "/patchbukkit.abilities.rs"));
     }
 
+    pub mod metrics {
+        include!(concat!(env!("OUT_DIR"), "/patchbukkit.metrics.rs"));
+    }
+
     pub mod message {
         include!(concat!(env!("OUT_DIR"), "/patchbukkit.message.rs"));
     }
@@ -35,9 +39,21 @@ pub mod patchbukkit {
         include!(concat!(env!("OUT_DIR"), "/patchbukkit.config.rs"));
     }
 
+    pub mod ffi {
+        include!(concat!(env!("OUT_DIR"), "/patchbukkit.ffi.rs"));
+    }
+
     pub mod itemstack {
         include!(concat!(env!("OUT_DIR"), "/patchbukkit.itemstack.rs"));
     }
 }
 
+mod conversions;
+pub mod queue;
+
+/// `#[repr(C)]` mirrors of the messages marked with `(patchbukkit.ffi.struct_layout)`
+pub mod structs {
+    include!(concat!(env!("OUT_DIR"), "/ffi_structs.rs"));
+}
+
 include!(concat!(env!("OUT_DIR"), "/ffi_init.rs"));
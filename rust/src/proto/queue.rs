@@ -0,0 +1,249 @@
+//! Shared-memory queue for fire-and-forget FFI calls.
+//!
+//! Java plugin threads serialize requests for RPCs marked with
+//! `(patchbukkit.ffi.fire_and_forget)` straight into this ring instead of making a
+//! downcall, and a dedicated thread drains it. The layout is mirrored by the
+//! generated `*Ffi` classes in protoc-gen-ffi:
+//!
+//! ```text
+//! header (192 bytes)
+//!   0    capacity   u64
+//!   8    slot_size  u64
+//!   64   tail       u64  (producers, CAS)
+//!   128  head       u64  (consumer, advanced once requests are dispatched)
+//!   136  waiting    u64  (consumer, 1 while it is about to park or parked)
+//! slot (slot_size bytes)
+//!   0    sequence   u64
+//!   8    method id  u32
+//!   12   length     u32
+//!   16   payload
+//! ```
+//!
+//! A slot at position `pos` is free when its sequence equals `pos` and holds a
+//! published request when it equals `pos + 1`.
+//!
+//! The drain thread only parks once the ring is empty. It sets `waiting` and looks
+//! at the ring once more before parking, while a producer reads `waiting` after
+//! publishing its slot, both with sequentially consistent accesses. So either the
+//! drain thread sees the request or the producer sees the flag, clears it and wakes
+//! the thread through [`ffi_queue_wake`]. Only the first request after the thread
+//! went idle pays for that downcall.
+
+use std::alloc::{Layout, alloc_zeroed, dealloc};
+use std::ptr::NonNull;
+use std::sync::atomic::{AtomicBool, AtomicU64, Ordering};
+use std::sync::{Arc, Mutex};
+use std::thread::JoinHandle;
+use std::time::Duration;
+
+const HEADER_SIZE: usize = 192;
+const TAIL_OFFSET: usize = 64;
+const HEAD_OFFSET: usize = 128;
+const WAITING_OFFSET: usize = 136;
+const SLOT_HEADER_SIZE: usize = 16;
+const SKIPPED_SLOT: u32 = u32::MAX;
+
+pub const DEFAULT_CAPACITY: usize = 4096;
+pub const DEFAULT_SLOT_SIZE: usize = 512;
+
+/// Only bounds how long a lost wake-up could delay a request, producers wake the
+/// drain thread themselves
+const IDLE_PARK: Duration = Duration::from_millis(100);
+
+pub type QueueDispatch = fn(u32, &[u8]);
+
+pub struct FfiQueue {
+    base: NonNull<u8>,
+    layout: Layout,
+    capacity: usize,
+    slot_size: usize,
+}
+
+// The ring is only accessed through atomics and the single consumer
+unsafe impl Send for FfiQueue {}
+unsafe impl Sync for FfiQueue {}
+
+impl FfiQueue {
+    /// Allocates a zeroed ring. `capacity` must be a power of two and
+    /// `slot_size` a multiple of 8 larger than the slot header.
+    pub fn new(capacity: usize, slot_size: usize) -> anyhow::Result<Self> {
+        anyhow::ensure!(
+            capacity.is_power_of_two(),
+            "queue capacity must be a power of two"
+        );
+        anyhow::ensure!(
+            slot_size > SLOT_HEADER_SIZE && slot_size % 8 == 0,
+            "queue slot size must be a multiple of 8 larger than {SLOT_HEADER_SIZE}"
+        );
+
+        let layout = Layout::from_size_align(HEADER_SIZE + capacity * slot_size, 64)?;
+        let base = NonNull::new(unsafe { alloc_zeroed(layout) })
+            .ok_or_else(|| anyhow::anyhow!("Failed to allocate FFI queue"))?;
+
+        let queue = Self {
+            base,
+            layout,
+            capacity,
+            slot_size,
+        };
+
+        queue.word(0).store(capacity as u64, Ordering::Relaxed);
+        queue.word(8).store(slot_size as u64, Ordering::Relaxed);
+        for i in 0..capacity {
+            queue
+                .word(queue.slot_offset(i as u64))
+                .store(i as u64, Ordering::Relaxed);
+        }
+        std::sync::atomic::fence(Ordering::Release);
+
+        Ok(queue)
+    }
+
+    pub fn address(&self) -> usize {
+        self.base.as_ptr() as usize
+    }
+
+    fn word(&self, offset: usize) -> &AtomicU64 {
+        unsafe { &*(self.base.as_ptr().add(offset) as *const AtomicU64) }
+    }
+
+    fn slot_offset(&self, pos: u64) -> usize {
+        HEADER_SIZE + (pos as usize & (self.capacity - 1)) * self.slot_size
+    }
+
+    /// Hands up to `max` published requests to `dispatch` and returns how many
+    /// slots were consumed. Must only be called from one thread at a time.
+    pub fn drain(&self, max: usize, dispatch: QueueDispatch) -> usize {
+        let head = self.word(HEAD_OFFSET);
+        let mut pos = head.load(Ordering::Relaxed);
+        let mut drained = 0;
+
+        while drained < max {
+            let offset = self.slot_offset(pos);
+            let sequence = self.word(offset);
+            if sequence.load(Ordering::Acquire) != pos + 1 {
+                break;
+            }
+
+            let (method_id, len) = unsafe {
+                let slot = self.base.as_ptr().add(offset);
+                (
+                    (slot.add(8) as *const u32).read(),
+                    (slot.add(12) as *const u32).read() as usize,
+                )
+            };
+
+            if method_id != SKIPPED_SLOT && len <= self.slot_size - SLOT_HEADER_SIZE {
+                let payload = unsafe {
+                    std::slice::from_raw_parts(
+                        self.base.as_ptr().add(offset + SLOT_HEADER_SIZE),
+                        len,
+                    )
+                };
+                dispatch(method_id, payload);
+            }
+
+            sequence.store(pos + self.capacity as u64, Ordering::Release);
+            pos += 1;
+            drained += 1;
+        }
+
+        // Producers wait on the head before a direct call so it stays behind queued requests
+        head.store(pos, Ordering::Release);
+        drained
+    }
+
+    /// Announces that the drain thread is going to park. It has to drain once more
+    /// afterwards, a request published before the flag was visible does not wake it
+    fn set_waiting(&self, waiting: bool) {
+        self.word(WAITING_OFFSET)
+            .store(u64::from(waiting), Ordering::SeqCst);
+        std::sync::atomic::fence(Ordering::SeqCst);
+    }
+}
+
+impl Drop for FfiQueue {
+    fn drop(&mut self) {
+        unsafe { dealloc(self.base.as_ptr(), self.layout) };
+    }
+}
+
+struct QueueThread {
+    queue: Arc<FfiQueue>,
+    stop: Arc<AtomicBool>,
+    handle: JoinHandle<()>,
+}
+
+static QUEUE_THREADS: Mutex<Vec<QueueThread>> = Mutex::new(Vec::new());
+
+/// Allocates a queue for `name` and starts the thread draining it into
+/// `dispatch`. Returns the queue address to hand to the Java side; the ring is
+/// never freed, see [`stop_queues`].
+pub fn start_queue(name: &str, dispatch: QueueDispatch) -> anyhow::Result<usize> {
+    let queue = Arc::new(FfiQueue::new(DEFAULT_CAPACITY, DEFAULT_SLOT_SIZE)?);
+    let address = queue.address();
+    let stop = Arc::new(AtomicBool::new(false));
+
+    let handle = {
+        let queue = Arc::clone(&queue);
+        let stop = Arc::clone(&stop);
+        std::thread::Builder::new()
+            .name("patchbukkit-ffi-queue".to_string())
+            .spawn(move || {
+                while !stop.load(Ordering::Acquire) {
+                    if queue.drain(DEFAULT_CAPACITY, dispatch) > 0 {
+                        continue;
+                    }
+                    queue.set_waiting(true);
+                    if queue.drain(DEFAULT_CAPACITY, dispatch) == 0
+                        && !stop.load(Ordering::Acquire)
+                    {
+                        std::thread::park_timeout(IDLE_PARK);
+                    }
+                    queue.set_waiting(false);
+                }
+                // Flush whatever was published before shutdown
+                while queue.drain(DEFAULT_CAPACITY, dispatch) > 0 {}
+            })?
+    };
+
+    tracing::debug!("Started FFI queue for {name}");
+    QUEUE_THREADS
+        .lock()
+        .unwrap()
+        .push(QueueThread {
+            queue,
+            stop,
+            handle,
+        });
+
+    Ok(address)
+}
+
+/// Wakes the drain thread of the queue at `address`, called by producers that
+/// found it waiting after publishing a request. The address is only used to find
+/// the queue, it is not dereferenced
+pub extern "C" fn ffi_queue_wake(address: usize) {
+    let threads = QUEUE_THREADS.lock().unwrap();
+    if let Some(thread) = threads
+        .iter()
+        .find(|thread| thread.queue.address() == address)
+    {
+        thread.handle.thread().unpark();
+    }
+}
+
+/// Stops the drain threads after flushing what is still queued.
+///
+/// The Java side has to be closed first so new requests go through direct
+/// calls. Even then a producer may have read the queue address just before
+/// it was closed, so the rings are leaked instead of freed.
+pub fn stop_queues() {
+    let threads = std::mem::take(&mut *QUEUE_THREADS.lock().unwrap());
+    for thread in threads {
+        thread.stop.store(true, Ordering::Release);
+        thread.handle.thread().unpark();
+        let _ = thread.handle.join();
+        std::mem::forget(thread.queue);
+    }
+}